@@ -0,0 +1,93 @@
+package com.routelink.admission;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Concurrency limit that follows observed latency (gradient style).
+ *
+ * Keeps a short-term and a long-term average of request latency. While the short one stays
+ * within {@code tolerance} of the long one the limit grows by about sqrt(limit) per sample;
+ * when latency rises (queueing in Tomcat/Hikari/Postgres) it shrinks proportionally, and a
+ * failed request cuts it multiplicatively. Acquire is a CAS on the in-flight counter.
+ */
+public final class AdaptiveLimiter {
+
+  public final class Permit {
+    private final long startNanos = System.nanoTime();
+    private boolean released;
+
+    public void release(boolean failed) {
+      if (released) return;
+      released = true;
+      inflight.decrementAndGet();
+      sample(System.nanoTime() - startNanos, failed);
+    }
+  }
+
+  private final String name;
+  private final int minLimit;
+  private final int maxLimit;
+  private final double tolerance;
+
+  private final AtomicInteger inflight = new AtomicInteger();
+  private final AtomicLong rejected = new AtomicLong();
+  private volatile int limit;
+
+  // guarded by this
+  private double estimate;
+  private double shortRtt;
+  private double longRtt;
+
+  public AdaptiveLimiter(String name, int initialLimit, int minLimit, int maxLimit, double tolerance) {
+    this.name = name;
+    this.minLimit = Math.max(1, minLimit);
+    this.maxLimit = Math.max(this.minLimit, maxLimit);
+    this.tolerance = Math.max(1.0, tolerance);
+    this.estimate = clamp(initialLimit);
+    this.limit = (int) estimate;
+  }
+
+  /** A permit, or null when the limit is reached and the request should be shed. */
+  public Permit tryAcquire() {
+    while (true) {
+      int cur = inflight.get();
+      if (cur >= limit) {
+        rejected.incrementAndGet();
+        return null;
+      }
+      if (inflight.compareAndSet(cur, cur + 1)) return new Permit();
+    }
+  }
+
+  synchronized void sample(long rttNanos, boolean failed) {
+    double rtt = Math.max(1, rttNanos);
+    if (longRtt == 0) longRtt = shortRtt = rtt;
+    shortRtt += (rtt - shortRtt) * 0.2;
+    longRtt += (rtt - longRtt) * 0.01;
+    // after a sustained shift the long average would lag for minutes; pull it along
+    if (longRtt / shortRtt > 2) longRtt = shortRtt * 2;
+
+    if (failed) {
+      estimate = clamp(estimate * 0.9); // back off right away, unsmoothed
+    } else {
+      double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRtt / shortRtt));
+      double next = estimate * gradient + Math.sqrt(estimate);
+      // don't grow while the current limit isn't even being used
+      if (inflight.get() + 1 < estimate / 2) next = Math.min(next, estimate);
+      estimate = clamp(estimate * 0.8 + next * 0.2);
+    }
+    limit = (int) estimate;
+  }
+
+  private double clamp(double v) {
+    return Math.max(minLimit, Math.min(maxLimit, v));
+  }
+
+  public String name() { return name; }
+  public int limit() { return limit; }
+  public int inflight() { return inflight.get(); }
+  public long rejected() { return rejected.get(); }
+  public synchronized double shortRttMs() { return shortRtt / 1e6; }
+  public synchronized double longRttMs() { return longRtt / 1e6; }
+}
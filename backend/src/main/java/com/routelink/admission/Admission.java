@@ -0,0 +1,13 @@
+package com.routelink.admission;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/** Puts a controller method behind the named adaptive concurrency limit (see {@link AdmissionControl}). */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Admission {
+  String value();
+}
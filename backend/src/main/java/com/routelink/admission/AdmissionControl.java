@@ -0,0 +1,54 @@
+package com.routelink.admission;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The named concurrency limits used by {@link Admission}.
+ *
+ * "search" guards the trip search endpoints and "booking" the booking mutations. They are
+ * independent, and search's ceiling stays below the Hikari pool size, so a search spike is
+ * shed with 503s while booking writes still find a free connection.
+ */
+@Component
+public class AdmissionControl {
+  public static final String SEARCH = "search";
+  public static final String BOOKING = "booking";
+
+  private final Map<String, AdaptiveLimiter> limiters = new LinkedHashMap<>();
+
+  public AdmissionControl(
+      MeterRegistry meters,
+      @Value("${app.admission.search.initial-limit:4}") int searchInitial,
+      @Value("${app.admission.search.min-limit:2}") int searchMin,
+      @Value("${app.admission.search.max-limit:6}") int searchMax,
+      @Value("${app.admission.booking.initial-limit:4}") int bookingInitial,
+      @Value("${app.admission.booking.min-limit:2}") int bookingMin,
+      @Value("${app.admission.booking.max-limit:8}") int bookingMax,
+      @Value("${app.admission.latency-tolerance:1.5}") double tolerance) {
+    register(meters, new AdaptiveLimiter(SEARCH, searchInitial, searchMin, searchMax, tolerance));
+    register(meters, new AdaptiveLimiter(BOOKING, bookingInitial, bookingMin, bookingMax, tolerance));
+  }
+
+  private void register(MeterRegistry meters, AdaptiveLimiter l) {
+    limiters.put(l.name(), l);
+    Gauge.builder("routelink.admission.limit", l, AdaptiveLimiter::limit).tag("name", l.name()).register(meters);
+    Gauge.builder("routelink.admission.inflight", l, AdaptiveLimiter::inflight).tag("name", l.name()).register(meters);
+    FunctionCounter.builder("routelink.admission.rejected", l, AdaptiveLimiter::rejected).tag("name", l.name()).register(meters);
+  }
+
+  public AdaptiveLimiter get(String name) {
+    AdaptiveLimiter l = limiters.get(name);
+    if (l == null) throw new IllegalArgumentException("Unknown admission limit: " + name);
+    return l;
+  }
+
+  public Collection<AdaptiveLimiter> all() { return limiters.values(); }
+}
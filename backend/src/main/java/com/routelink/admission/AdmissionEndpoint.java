@@ -0,0 +1,28 @@
+package com.routelink.admission;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/** GET /actuator/admission: current limit, in-flight and shed counts per limiter. */
+@Component
+@Endpoint(id = "admission")
+public class AdmissionEndpoint {
+  public record LimiterState(int limit, int inflight, long rejected, double shortRttMs, double longRttMs) {}
+
+  private final AdmissionControl control;
+
+  public AdmissionEndpoint(AdmissionControl control) { this.control = control; }
+
+  @ReadOperation
+  public Map<String, LimiterState> limits() {
+    Map<String, LimiterState> out = new LinkedHashMap<>();
+    for (AdaptiveLimiter l : control.all()) {
+      out.put(l.name(), new LimiterState(l.limit(), l.inflight(), l.rejected(), l.shortRttMs(), l.longRttMs()));
+    }
+    return out;
+  }
+}
@@ -0,0 +1,44 @@
+package com.routelink.admission;
+
+import com.routelink.common.ServiceUnavailableException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/** Acquires the {@link Admission} permit before the handler runs and releases it with the observed latency. */
+@Component
+public class AdmissionInterceptor implements HandlerInterceptor {
+  private static final String PERMIT_ATTR = AdmissionInterceptor.class.getName() + ".permit";
+
+  private final AdmissionControl control;
+  private final long retryAfterSec;
+
+  public AdmissionInterceptor(AdmissionControl control,
+                              @Value("${app.admission.retry-after-sec:1}") long retryAfterSec) {
+    this.control = control;
+    this.retryAfterSec = Math.max(1, retryAfterSec);
+  }
+
+  @Override
+  public boolean preHandle(HttpServletRequest req, HttpServletResponse res, Object handler) {
+    if (!(handler instanceof HandlerMethod hm)) return true;
+    Admission a = hm.getMethodAnnotation(Admission.class);
+    if (a == null) return true;
+
+    AdaptiveLimiter.Permit permit = control.get(a.value()).tryAcquire();
+    if (permit == null) throw new ServiceUnavailableException("Server is busy, please retry", retryAfterSec);
+    req.setAttribute(PERMIT_ATTR, permit);
+    return true;
+  }
+
+  @Override
+  public void afterCompletion(HttpServletRequest req, HttpServletResponse res, Object handler, Exception ex) {
+    if (req.getAttribute(PERMIT_ATTR) instanceof AdaptiveLimiter.Permit p) {
+      req.removeAttribute(PERMIT_ATTR);
+      p.release(ex != null || res.getStatus() >= 500);
+    }
+  }
+}
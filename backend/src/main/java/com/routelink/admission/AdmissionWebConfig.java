@@ -0,0 +1,17 @@
+package com.routelink.admission;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class AdmissionWebConfig implements WebMvcConfigurer {
+  private final AdmissionInterceptor interceptor;
+
+  public AdmissionWebConfig(AdmissionInterceptor interceptor) { this.interceptor = interceptor; }
+
+  @Override
+  public void addInterceptors(InterceptorRegistry registry) {
+    registry.addInterceptor(interceptor).addPathPatterns("/api/**");
+  }
+}
@@ -5,14 +5,15 @@ import com.routelink.user.User;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Min;
 import java.time.Instant;
+import java.time.OffsetDateTime;
 
 @Entity
 @Table(
   name = "bookings",
   uniqueConstraints = @UniqueConstraint(name = "uq_booking_trip_rider", columnNames = {"trip_id","rider_id"}),
   indexes = {
-    @Index(name = "idx_bookings_trip", columnList = "trip_id"),
-    @Index(name = "idx_bookings_rider", columnList = "rider_id")
+    @Index(name = "idx_bookings_trip_created", columnList = "trip_id, created_at"),
+    @Index(name = "idx_bookings_rider_created", columnList = "rider_id, created_at DESC")
   }
 )
 public class Booking {
@@ -38,6 +39,10 @@ public class Booking {
   @Column(nullable = false, updatable = false)
   private Instant createdAt;
 
+  // partition key: bookings are range-partitioned by their trip's departure month (V4 migration)
+  @Column(name = "trip_ride_at", updatable = false, columnDefinition = "timestamptz")
+  private OffsetDateTime tripRideAt;
+
   // optional: optimistic locking
   // @Version
   // private long version;
@@ -47,6 +52,7 @@ public class Booking {
     if (status == null) status = BookingStatus.REQUESTED;
     if (seats < 1) seats = 1;
     this.createdAt = Instant.now();
+    if (tripRideAt == null && trip != null) tripRideAt = trip.getRideAt();
   }
 
   // getters/setters
@@ -66,4 +72,6 @@ public class Booking {
 
   public Instant getCreatedAt(){ return createdAt; }
   public void setCreatedAt(Instant i){ this.createdAt = i; }
+
+  public OffsetDateTime getTripRideAt(){ return tripRideAt; }
 }
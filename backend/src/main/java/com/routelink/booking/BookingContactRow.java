@@ -0,0 +1,11 @@
+package com.routelink.booking;
+
+/** Projection behind GET /api/bookings/{id}/contact. */
+public record BookingContactRow(
+    BookingStatus status,
+    Long riderId,
+    Long driverId,
+    String driverName,
+    String driverEmail,
+    String driverPhone
+) {}
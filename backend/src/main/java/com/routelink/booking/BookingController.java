@@ -1,11 +1,10 @@
 package com.routelink.booking;
 
-import com.routelink.common.NotFoundException;
-import com.routelink.user.User;
-import com.routelink.user.UserRepository;
+import com.routelink.admission.Admission;
+import com.routelink.admission.AdmissionControl;
+import com.routelink.security.CurrentUser;
 import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.util.UriComponentsBuilder;
 
@@ -18,26 +17,21 @@ public class BookingController {
 
   private final BookingService bookingService;
   private final BookingRepository bookingRepo;
-  private final UserRepository userRepo;
+  private final CurrentUser currentUser;
 
   public BookingController(BookingService bookingService,
                            BookingRepository bookingRepo,
-                           UserRepository userRepo) {
+                           CurrentUser currentUser) {
     this.bookingService = bookingService;
     this.bookingRepo = bookingRepo;
-    this.userRepo = userRepo;
+    this.currentUser = currentUser;
   }
 
-  private Long currentUserId() {
-    var auth = SecurityContextHolder.getContext().getAuthentication();
-    if (auth == null || auth.getName() == null) throw new IllegalStateException("Unauthenticated");
-    return userRepo.findByEmail(auth.getName())
-        .map(User::getId)
-        .orElseThrow(() -> new NotFoundException("User not found"));
-  }
+  private Long currentUserId() { return currentUser.id(); }
 
   // Request a booking (rider) -> 201 Created
   @PostMapping("/request")
+  @Admission(AdmissionControl.BOOKING)
   public ResponseEntity<BookingDto> request(
       @Valid @RequestBody BookingService.RequestBooking req,
       UriComponentsBuilder uri) {
@@ -50,12 +44,14 @@ public class BookingController {
 
   // Confirm / Decline (driver)
   @PostMapping("/{id}/confirm")
+  @Admission(AdmissionControl.BOOKING)
   public ResponseEntity<BookingDto> confirm(@PathVariable Long id) {
     Booking b = bookingService.confirm(id);
     return ResponseEntity.ok(BookingDto.from(b));
   }
 
   @PostMapping("/{id}/decline")
+  @Admission(AdmissionControl.BOOKING)
   public ResponseEntity<BookingDto> decline(@PathVariable Long id) {
     Booking b = bookingService.decline(id);
     return ResponseEntity.ok(BookingDto.from(b));
@@ -63,6 +59,7 @@ public class BookingController {
 
   // Cancel (rider)
   @PostMapping("/{id}/cancel")
+  @Admission(AdmissionControl.BOOKING)
   public ResponseEntity<BookingDto> cancel(@PathVariable Long id) {
     Booking b = bookingService.cancel(id);
     return ResponseEntity.ok(BookingDto.from(b));
@@ -71,22 +68,20 @@ public class BookingController {
   // ---------- Helpers for testing / inspection ----------
   @GetMapping("/id/{id}") // <- avoids conflict with "/me"
   public ResponseEntity<BookingDto> get(@PathVariable Long id) {
-    return bookingService.get(id)
-        .map(b -> ResponseEntity.ok(BookingDto.from(b)))
+    return bookingRepo.findDtoById(id)
+        .map(ResponseEntity::ok)
         .orElse(ResponseEntity.notFound().build());
   }
 
   @GetMapping("/me")
   public List<BookingDto> myBookings() {
     Long me = currentUserId();
-    return bookingRepo.findByRider_Id(me).stream().map(BookingDto::from).toList();
+    return bookingRepo.findDtosByRider(me);
   }
 
   @GetMapping("/trip/{tripId}")
   public List<BookingWithRiderDto> tripBookings(@PathVariable Long tripId) {
-	  return bookingRepo.findByTrip_Id(tripId).stream()
-	      .map(BookingWithRiderDto::from).toList();
-	
+    return bookingRepo.findDtosByTrip(tripId);
   }
 
   /* ---------- Simple error mapping ---------- */
@@ -3,6 +3,7 @@ package com.routelink.booking;
 import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Collection;
 import java.util.List;
@@ -18,11 +19,57 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
   @EntityGraph(attributePaths = {"trip"})
   List<Booking> findByRider_Id(Long riderId);
 
+  @Query("select b.rider.id from Booking b where b.trip.id = :tripId and b.status in :statuses")
+  List<Long> findRiderIdsByTripAndStatusIn(@Param("tripId") Long tripId,
+                                           @Param("statuses") Collection<BookingStatus> statuses);
+
   Optional<Booking> findByTrip_IdAndRider_Id(Long tripId, Long riderId);
 
   boolean existsByTrip_IdAndRider_IdAndStatusIn(
       Long tripId, Long riderId, Collection<BookingStatus> statuses);
 
+  // ---- Read projections: one SQL statement each, no entities in the persistence context ----
+  // (read-only transactions: served by a replica when routing is enabled)
+
+  @Transactional(readOnly = true)
+  @Query("""
+      select new com.routelink.booking.BookingDto(b.id, b.trip.id, b.rider.id, b.seats, b.status, b.createdAt)
+        from Booking b where b.id = :id
+      """)
+  Optional<BookingDto> findDtoById(@Param("id") Long id);
+
+  @Transactional(readOnly = true)
+  @Query("""
+      select new com.routelink.booking.BookingDto(b.id, b.trip.id, b.rider.id, b.seats, b.status, b.createdAt)
+        from Booking b where b.rider.id = :riderId
+       order by b.createdAt desc
+      """)
+  List<BookingDto> findDtosByRider(@Param("riderId") Long riderId);
+
+  @Transactional(readOnly = true)
+  @Query("""
+      select new com.routelink.booking.BookingWithRiderDto(
+               b.id, b.trip.id, b.seats, b.status, b.createdAt, r.id, r.name, r.email)
+        from Booking b join b.rider r
+       where b.trip.id = :tripId
+       order by b.createdAt
+      """)
+  List<BookingWithRiderDto> findDtosByTrip(@Param("tripId") Long tripId);
+
+  /** Everything /contact needs (participants, status, driver contact) in one join. */
+  @Transactional(readOnly = true)
+  @Query("""
+      select new com.routelink.booking.BookingContactRow(b.status, b.rider.id, d.id, d.name, d.email, d.phone)
+        from Booking b join b.trip t join t.driver d
+       where b.id = :id
+      """)
+  Optional<BookingContactRow> findContactRow(@Param("id") Long id);
+
+  /** Booking with its trip in one statement (rating checks trip status and driver id). */
+  @EntityGraph(attributePaths = "trip")
+  @Query("select b from Booking b where b.id = :id")
+  Optional<Booking> findWithTripById(@Param("id") Long id);
+
   @Lock(LockModeType.PESSIMISTIC_WRITE)
   @Query("select b from Booking b where b.id = :id")
   Optional<Booking> findByIdForUpdate(@Param("id") Long id);
@@ -1,20 +1,21 @@
 package com.routelink.booking;
 
-import com.routelink.notification.EmailService;
+import com.routelink.notification.BookingMail;
+import com.routelink.notification.BookingMailModel;
+import com.routelink.notification.NotificationCoalescer;
+import com.routelink.notification.NotificationTemplates;
+import com.routelink.security.CurrentUser;
 import com.routelink.trip.Trip;
 import com.routelink.trip.TripRepository;
 import com.routelink.trip.TripStatus;
 import com.routelink.user.User;
-import com.routelink.user.UserRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.transaction.support.TransactionSynchronization;
 import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import java.time.format.DateTimeFormatter;
 import java.util.Optional;
 
 import static com.routelink.booking.BookingStatus.*;
@@ -23,17 +24,23 @@ import static com.routelink.booking.BookingStatus.*;
 public class BookingService {
   private final BookingRepository bookings;
   private final TripRepository trips;
-  private final UserRepository users;
-  private final EmailService email;
+  private final CurrentUser currentUser;
+  private final NotificationCoalescer mail;
+  private final NotificationTemplates templates;
+  private final ApplicationEventPublisher events;
 
   public BookingService(BookingRepository bookings,
                         TripRepository trips,
-                        UserRepository users,
-                        EmailService email) {
+                        CurrentUser currentUser,
+                        NotificationCoalescer mail,
+                        NotificationTemplates templates,
+                        ApplicationEventPublisher events) {
     this.bookings = bookings;
     this.trips = trips;
-    this.users = users;
-    this.email = email;
+    this.currentUser = currentUser;
+    this.mail = mail;
+    this.templates = templates;
+    this.events = events;
   }
 
   /** Body for POST /api/bookings/request */
@@ -41,20 +48,19 @@ public class BookingService {
 
   /* ---------- helpers ---------- */
 
-  private static String currentEmail() {
-    Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-    if (auth == null || auth.getName() == null) throw new IllegalStateException("Unauthenticated");
-    return auth.getName();
+  private static BookingMailModel mailModel(Booking b, Trip t) {
+    User rider = b.getRider();
+    User driver = t.getDriver();
+    return BookingMailModel.of(
+        rider.getName(), rider.getEmail(), rider.getPhone(),
+        driver.getName(), driver.getEmail(), driver.getPhone(),
+        t.getStartPlace(), t.getEndPlace(), t.getRideAt(), b.getSeats());
   }
 
-  private User requireUserByEmail(String email) {
-    return users.findByEmail(email)
-        .orElseThrow(() -> new IllegalArgumentException("User not found: " + email));
+  private void sendMail(String to, BookingMail kind, BookingMailModel model) {
+    if (to != null && !to.isBlank()) mail.submit(to, kind, templates.render(kind, model));
   }
 
-  private static final DateTimeFormatter DF = DateTimeFormatter.ofPattern("MMM d, yyyy h:mm a");
-  private static String orDash(String s) { return (s == null || s.isBlank()) ? "—" : s; }
-
   /* ---------- Rider actions ---------- */
 
   @Transactional
@@ -65,15 +71,15 @@ public class BookingService {
     Trip trip = trips.findById(req.tripId())
         .orElseThrow(() -> new IllegalArgumentException("Trip not found: " + req.tripId()));
 
-    User rider = requireUserByEmail(currentEmail());
+    Long riderId = currentUser.id();
 
     if (!trip.isActive() || trip.getStatus() != TripStatus.OPEN)
       throw new IllegalStateException("Trip not bookable");
 
-    if (trip.getDriver().getId().equals(rider.getId()))
+    if (trip.getDriver().getId().equals(riderId))
       throw new IllegalStateException("Driver cannot book own trip");
 
-    Optional<Booking> existingOpt = bookings.findByTrip_IdAndRider_Id(trip.getId(), rider.getId());
+    Optional<Booking> existingOpt = bookings.findByTrip_IdAndRider_Id(trip.getId(), riderId);
     if (existingOpt.isPresent()) {
       Booking existing = existingOpt.get();
       if (existing.getStatus() == REQUESTED || existing.getStatus() == CONFIRMED) {
@@ -81,16 +87,20 @@ public class BookingService {
       }
       existing.setSeats(seats);
       existing.setStatus(REQUESTED);
-      return bookings.save(existing);
+      Booking saved = bookings.save(existing);
+      events.publishEvent(BookingStateChanged.of(saved, trip));
+      return saved;
     }
 
     try {
       Booking b = new Booking();
       b.setTrip(trip);
-      b.setRider(rider);
+      b.setRider(currentUser.reference()); // FK only, no user SELECT
       b.setSeats(seats);
       b.setStatus(REQUESTED);
-      return bookings.save(b);
+      Booking saved = bookings.save(b);
+      events.publishEvent(BookingStateChanged.of(saved, trip));
+      return saved;
     } catch (DataIntegrityViolationException e) {
       throw new IllegalStateException("You already have a booking for this trip");
     }
@@ -101,7 +111,7 @@ public class BookingService {
     Booking b = bookings.findByIdForUpdate(id)
         .orElseThrow(() -> new IllegalArgumentException("Booking not found"));
 
-    Long me = requireUserByEmail(currentEmail()).getId();
+    Long me = currentUser.id();
     if (!b.getRider().getId().equals(me)) throw new IllegalStateException("Only rider can cancel");
 
     Trip t = b.getTrip();
@@ -121,28 +131,13 @@ public class BookingService {
     b.setStatus(CANCELLED);
     Booking saved = bookings.save(b);
     Trip tSnap = t; // snapshot for lambda
+    events.publishEvent(BookingStateChanged.of(saved, tSnap));
 
     // Email the driver AFTER commit
     TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
       @Override public void afterCommit() {
         try {
-          User driver = tSnap.getDriver();
-          User rider = saved.getRider();
-          String when = (tSnap.getRideAt() != null) ? tSnap.getRideAt().format(DF) : "—";
-
-          String msg =
-              "Hi " + driver.getName() + ",\n\n" +
-              "The rider canceled a confirmed booking.\n\n" +
-              "Trip:\n" +
-              " From: " + orDash(tSnap.getStartPlace()) + "\n" +
-              " To:   " + orDash(tSnap.getEndPlace()) + "\n" +
-              " When: " + when + "\n" +
-              " Seats freed: " + saved.getSeats() + "\n\n" +
-              "Rider:\n " + rider.getName() + " | " + rider.getEmail() + " | " + orDash(rider.getPhone()) + "\n";
-
-          if (driver.getEmail() != null && !driver.getEmail().isBlank()) {
-            email.sendText(driver.getEmail(), "RouteLink Booking Canceled by Rider", msg);
-          }
+          sendMail(tSnap.getDriver().getEmail(), BookingMail.CANCELLED_DRIVER, mailModel(saved, tSnap));
         } catch (Exception e) {
           System.err.println("Cancel email failed: " + e.getMessage());
         }
@@ -162,7 +157,7 @@ public class BookingService {
     Trip t = trips.findByIdForUpdate(b.getTrip().getId())
         .orElseThrow(() -> new IllegalArgumentException("Trip not found"));
 
-    Long me = requireUserByEmail(currentEmail()).getId();
+    Long me = currentUser.id();
     if (!t.getDriver().getId().equals(me)) throw new IllegalStateException("Only driver can confirm");
     if (t.getStatus() == TripStatus.CLOSED) throw new IllegalStateException("Trip already closed");
     if (b.getStatus() != REQUESTED) throw new IllegalStateException("Not in REQUESTED state");
@@ -175,6 +170,7 @@ public class BookingService {
     b.setStatus(CONFIRMED);
     Booking saved = bookings.save(b);
     Trip tSnap = t; // snapshot for email
+    events.publishEvent(BookingStateChanged.of(saved, tSnap));
 
     // Email both parties AFTER commit
     TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
@@ -191,43 +187,9 @@ public class BookingService {
   }
 
   private void sendConfirmationEmails(Booking saved, Trip trip) {
-    User rider = saved.getRider();
-    User driver = trip.getDriver();
-
-    String from = orDash(trip.getStartPlace());
-    String to   = orDash(trip.getEndPlace());
-    String when = (trip.getRideAt() != null) ? trip.getRideAt().format(DF) : "—";
-
-    String riderMsg =
-        "Hi " + rider.getName() + ",\n\n" +
-        "Your RouteLink booking is confirmed.\n\n" +
-        "Trip:\n" +
-        " From: " + from + "\n" +
-        " To:   " + to + "\n" +
-        " When: " + when + "\n" +
-        " Seats: " + saved.getSeats() + "\n\n" +
-        "Driver:\n" +
-        " " + driver.getName() + " | " + driver.getEmail() + " | " + orDash(driver.getPhone()) + "\n\n" +
-        "Please coordinate pickup and timing directly.";
-
-    String driverMsg =
-        "Hi " + driver.getName() + ",\n\n" +
-        "A rider just booked your RouteLink trip.\n\n" +
-        "Trip:\n" +
-        " From: " + from + "\n" +
-        " To:   " + to + "\n" +
-        " When: " + when + "\n" +
-        " Seats booked: " + saved.getSeats() + "\n\n" +
-        "Rider:\n" +
-        " " + rider.getName() + " | " + rider.getEmail() + " | " + orDash(rider.getPhone()) + "\n\n" +
-        "Please reach out to coordinate pickup.";
-
-    if (rider.getEmail() != null && !rider.getEmail().isBlank()) {
-      email.sendText(rider.getEmail(), "RouteLink Booking Confirmed", riderMsg);
-    }
-    if (driver.getEmail() != null && !driver.getEmail().isBlank()) {
-      email.sendText(driver.getEmail(), "New Rider Booked Your Trip", driverMsg);
-    }
+    BookingMailModel model = mailModel(saved, trip); // one model (and one date format) for both copies
+    sendMail(saved.getRider().getEmail(), BookingMail.CONFIRMED_RIDER, model);
+    sendMail(trip.getDriver().getEmail(), BookingMail.CONFIRMED_DRIVER, model);
   }
 
   @Transactional
@@ -236,34 +198,20 @@ public class BookingService {
         .orElseThrow(() -> new IllegalArgumentException("Booking not found"));
     Trip t = b.getTrip();
 
-    Long me = requireUserByEmail(currentEmail()).getId();
+    Long me = currentUser.id();
     if (!t.getDriver().getId().equals(me)) throw new IllegalStateException("Only driver can decline");
     if (b.getStatus() != REQUESTED) throw new IllegalStateException("Not in REQUESTED state");
 
     b.setStatus(DECLINED);
     Booking saved = bookings.save(b);
     Trip tSnap = t; // snapshot for email
+    events.publishEvent(BookingStateChanged.of(saved, tSnap));
 
     // Email the rider AFTER commit
     TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
       @Override public void afterCommit() {
         try {
-          User rider = saved.getRider();
-          User driver = tSnap.getDriver();
-          String when = (tSnap.getRideAt() != null) ? tSnap.getRideAt().format(DF) : "—";
-
-          String msg =
-              "Hi " + rider.getName() + ",\n\n" +
-              "Your booking request was declined by the driver.\n\n" +
-              "Trip:\n" +
-              " From: " + orDash(tSnap.getStartPlace()) + "\n" +
-              " To:   " + orDash(tSnap.getEndPlace()) + "\n" +
-              " When: " + when + "\n\n" +
-              "Driver:\n " + driver.getName() + " | " + driver.getEmail() + " | " + orDash(driver.getPhone()) + "\n";
-
-          if (rider.getEmail() != null && !rider.getEmail().isBlank()) {
-            email.sendText(rider.getEmail(), "RouteLink Booking Declined", msg);
-          }
+          sendMail(saved.getRider().getEmail(), BookingMail.DECLINED_RIDER, mailModel(saved, tSnap));
         } catch (Exception e) {
           System.err.println("Decline email failed: " + e.getMessage());
         }
@@ -0,0 +1,22 @@
+package com.routelink.booking;
+
+import com.routelink.trip.Trip;
+import com.routelink.trip.TripStatus;
+
+/** Published (in-transaction) on every booking transition; consumed after commit. */
+public record BookingStateChanged(
+    Long bookingId,
+    Long tripId,
+    Long riderId,
+    Long driverId,
+    BookingStatus status,
+    int seats,
+    TripStatus tripStatus,
+    int tripSeatsLeft
+) {
+  public static BookingStateChanged of(Booking b, Trip t) {
+    return new BookingStateChanged(
+        b.getId(), t.getId(), b.getRider().getId(), t.getDriver().getId(),
+        b.getStatus(), b.getSeats(), t.getStatus(), t.getSeatsLeft());
+  }
+}
@@ -0,0 +1,43 @@
+package com.routelink.booking;
+
+import com.routelink.security.CurrentUser;
+import com.routelink.security.StreamTickets;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Push channel for booking/trip status changes, so clients don't have to poll
+ * /api/bookings/me or /api/bookings/trip/{id}. Browsers' EventSource can't set headers, so
+ * they first POST /stream/ticket with the usual bearer token and open the stream with
+ * ?ticket=... (see StreamTickets). A ticket works once, so on reconnect the client fetches a
+ * new one and passes the last id it saw as ?lastEventId=.
+ */
+@RestController
+@RequestMapping("/api/bookings")
+public class BookingStreamController {
+
+  private final BookingStreamHub hub;
+  private final CurrentUser currentUser;
+  private final StreamTickets tickets;
+
+  public BookingStreamController(BookingStreamHub hub, CurrentUser currentUser, StreamTickets tickets) {
+    this.hub = hub;
+    this.currentUser = currentUser;
+    this.tickets = tickets;
+  }
+
+  private Long currentUserId() { return currentUser.id(); }
+
+  @PostMapping("/stream/ticket")
+  public StreamTicketDto ticket() {
+    return new StreamTicketDto(tickets.issue(SecurityContextHolder.getContext().getAuthentication()), tickets.ttlSec());
+  }
+
+  @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public SseEmitter stream(@RequestHeader(name = "Last-Event-ID", required = false) String lastEventId,
+                           @RequestParam(name = "lastEventId", required = false) String lastEventIdParam) {
+    return hub.subscribe(currentUserId(), lastEventId != null ? lastEventId : lastEventIdParam);
+  }
+}
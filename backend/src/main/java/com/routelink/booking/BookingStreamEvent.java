@@ -0,0 +1,16 @@
+package com.routelink.booking;
+
+import java.time.Instant;
+
+/** Payload pushed on /api/bookings/stream. {@code type} is "booking" or "trip" (also the SSE event name). */
+public record BookingStreamEvent(
+    long id,
+    String type,
+    Long bookingId,   // null for trip events
+    Long tripId,
+    String status,
+    Integer seats,    // booking seats; null for trip events
+    String tripStatus,
+    Integer tripSeatsLeft,
+    Instant at
+) {}
@@ -0,0 +1,253 @@
+package com.routelink.booking;
+
+import com.routelink.trip.TripStateChanged;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory subscriber registry behind /api/bookings/stream.
+ *
+ * Booking and trip transitions are fanned out after commit to every open connection of the
+ * rider(s) and driver involved. Each connection has a bounded outbound buffer; a client that
+ * falls behind is disconnected and recovers by reconnecting with Last-Event-ID, replayed from
+ * a short per-user history. Single node only: events are not shared across instances.
+ */
+@Component
+public class BookingStreamHub {
+  private static final Logger log = LoggerFactory.getLogger(BookingStreamHub.class);
+
+  private static final class Subscriber {
+    final long userId;
+    final SseEmitter emitter;
+    final BlockingQueue<SseEmitter.SseEventBuilder> pending;
+    final AtomicBoolean draining = new AtomicBoolean();
+
+    Subscriber(long userId, SseEmitter emitter, int bufferSize) {
+      this.userId = userId;
+      this.emitter = emitter;
+      this.pending = new ArrayBlockingQueue<>(bufferSize);
+    }
+  }
+
+  /** Recent events for one user, for Last-Event-ID replay. */
+  private static final class History {
+    final Deque<BookingStreamEvent> events = new ArrayDeque<>();
+    long evictedUpTo;   // highest id no longer replayable
+    long lastAtMs;
+  }
+
+  private final BookingRepository bookings;
+  private final int bufferSize;
+  private final int historySize;
+  private final long timeoutMs;
+  private final long historyTtlMs;
+
+  // ids keep increasing across restarts so a stale Last-Event-ID never hides new events
+  private final AtomicLong ids = new AtomicLong(System.currentTimeMillis() * 1000);
+  private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+  private final Map<Long, History> histories = new ConcurrentHashMap<>();
+
+  private final ExecutorService writers;
+  private final ScheduledExecutorService heartbeat;
+
+  public BookingStreamHub(
+      BookingRepository bookings,
+      @Value("${app.sse.buffer-size:64}") int bufferSize,
+      @Value("${app.sse.history-size:50}") int historySize,
+      @Value("${app.sse.timeout-min:30}") long timeoutMin,
+      @Value("${app.sse.heartbeat-sec:15}") long heartbeatSec,
+      @Value("${app.sse.writer-threads:4}") int writerThreads) {
+    this.bookings = bookings;
+    this.bufferSize = Math.max(1, bufferSize);
+    this.historySize = Math.max(0, historySize);
+    this.timeoutMs = TimeUnit.MINUTES.toMillis(Math.max(1, timeoutMin));
+    this.historyTtlMs = this.timeoutMs;
+
+    AtomicInteger n = new AtomicInteger();
+    this.writers = Executors.newFixedThreadPool(Math.max(1, writerThreads), r -> daemon(r, "sse-writer-" + n.incrementAndGet()));
+    this.heartbeat = Executors.newSingleThreadScheduledExecutor(r -> daemon(r, "sse-heartbeat"));
+    long hb = Math.max(1, heartbeatSec);
+    heartbeat.scheduleWithFixedDelay(this::beat, hb, hb, TimeUnit.SECONDS);
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    heartbeat.shutdownNow();
+    subscribers.values().forEach(set -> set.forEach(s -> s.emitter.complete()));
+    writers.shutdown();
+  }
+
+  /* ---------- connections ---------- */
+
+  public SseEmitter subscribe(long userId, String lastEventId) {
+    SseEmitter emitter = newEmitter(timeoutMs);
+    Subscriber s = new Subscriber(userId, emitter, bufferSize);
+    emitter.onCompletion(() -> remove(s));
+    emitter.onTimeout(() -> remove(s));
+    emitter.onError(e -> remove(s));
+    subscribers.computeIfAbsent(userId, k -> new CopyOnWriteArraySet<>()).add(s);
+
+    enqueue(s, SseEmitter.event().comment("connected"));
+    replay(s, parseId(lastEventId));
+    return emitter;
+  }
+
+  SseEmitter newEmitter(long timeoutMs) {
+    return new SseEmitter(timeoutMs);
+  }
+
+  public int connectionCount() {
+    return subscribers.values().stream().mapToInt(Set::size).sum();
+  }
+
+  private void replay(Subscriber s, Long lastId) {
+    if (lastId == null) return;
+    History h = histories.get(s.userId);
+    List<BookingStreamEvent> missed;
+    boolean gap;
+    if (h == null) {
+      missed = List.of();
+      gap = true; // nothing retained for this user; can't prove nothing was missed
+    } else {
+      synchronized (h) {
+        gap = lastId < h.evictedUpTo;
+        missed = h.events.stream().filter(e -> e.id() > lastId).toList();
+      }
+    }
+    int room = bufferSize - 2; // after "connected" and a possible "resync"
+    if (missed.size() > room) {
+      // replaying more than the buffer holds would only disconnect the client again
+      gap = true;
+      missed = missed.subList(Math.max(0, missed.size() - room), missed.size());
+    }
+    if (gap) enqueue(s, SseEmitter.event().name("resync").data("{}", MediaType.APPLICATION_JSON)); // client should refetch once
+    missed.forEach(e -> enqueue(s, toSse(e)));
+  }
+
+  /* ---------- fan-out ---------- */
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void on(BookingStateChanged e) {
+    BookingStreamEvent ev = new BookingStreamEvent(ids.incrementAndGet(), "booking",
+        e.bookingId(), e.tripId(), e.status().name(), e.seats(),
+        e.tripStatus().name(), e.tripSeatsLeft(), Instant.now());
+    publish(Set.of(e.riderId(), e.driverId()), ev);
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void on(TripStateChanged e) {
+    Set<Long> to = new HashSet<>(bookings.findRiderIdsByTripAndStatusIn(
+        e.tripId(), List.of(BookingStatus.REQUESTED, BookingStatus.CONFIRMED)));
+    to.add(e.driverId());
+    BookingStreamEvent ev = new BookingStreamEvent(ids.incrementAndGet(), "trip",
+        null, e.tripId(), e.active() ? "ACTIVE" : "INACTIVE", null,
+        e.status().name(), e.seatsLeft(), Instant.now());
+    publish(to, ev);
+  }
+
+  private void publish(Set<Long> userIds, BookingStreamEvent ev) {
+    for (Long uid : userIds) {
+      if (uid == null) continue;
+      remember(uid, ev);
+      Set<Subscriber> subs = subscribers.get(uid);
+      if (subs == null) continue;
+      for (Subscriber s : subs) enqueue(s, toSse(ev));
+    }
+  }
+
+  private void remember(long userId, BookingStreamEvent ev) {
+    if (historySize == 0) return;
+    History h = histories.computeIfAbsent(userId, k -> new History());
+    synchronized (h) {
+      h.events.addLast(ev);
+      h.lastAtMs = System.currentTimeMillis();
+      while (h.events.size() > historySize) h.evictedUpTo = h.events.pollFirst().id();
+    }
+  }
+
+  /* ---------- per-connection buffer ---------- */
+
+  private void enqueue(Subscriber s, SseEmitter.SseEventBuilder ev) {
+    if (!s.pending.offer(ev)) {
+      log.debug("SSE buffer full for user {}, disconnecting", s.userId);
+      remove(s);
+      s.emitter.complete(); // client reconnects with Last-Event-ID
+      return;
+    }
+    if (s.draining.compareAndSet(false, true)) writers.execute(() -> drain(s));
+  }
+
+  private void drain(Subscriber s) {
+    try {
+      SseEmitter.SseEventBuilder ev;
+      while ((ev = s.pending.poll()) != null) s.emitter.send(ev);
+    } catch (IOException | IllegalStateException e) {
+      remove(s); // client went away
+      return;
+    } finally {
+      s.draining.set(false);
+    }
+    if (!s.pending.isEmpty() && s.draining.compareAndSet(false, true)) writers.execute(() -> drain(s));
+  }
+
+  private void remove(Subscriber s) {
+    subscribers.computeIfPresent(s.userId, (k, set) -> {
+      set.remove(s);
+      return set.isEmpty() ? null : set;
+    });
+    s.pending.clear();
+  }
+
+  private void beat() {
+    try {
+      subscribers.values().forEach(set -> set.forEach(s -> enqueue(s, SseEmitter.event().comment("hb"))));
+      long cutoff = System.currentTimeMillis() - historyTtlMs;
+      histories.entrySet().removeIf(en -> {
+        synchronized (en.getValue()) { return en.getValue().lastAtMs < cutoff; }
+      });
+    } catch (Exception e) {
+      log.warn("SSE heartbeat failed: {}", e.getMessage());
+    }
+  }
+
+  private static SseEmitter.SseEventBuilder toSse(BookingStreamEvent e) {
+    return SseEmitter.event().id(Long.toString(e.id())).name(e.type()).data(e, MediaType.APPLICATION_JSON);
+  }
+
+  private static Long parseId(String s) {
+    if (s == null || s.isBlank()) return null;
+    try { return Long.parseLong(s.trim()); } catch (NumberFormatException e) { return null; }
+  }
+
+  private static Thread daemon(Runnable r, String name) {
+    Thread t = new Thread(r, name);
+    t.setDaemon(true);
+    return t;
+  }
+}
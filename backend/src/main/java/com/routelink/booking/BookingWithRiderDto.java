@@ -24,5 +24,11 @@ public record BookingWithRiderDto(
     );
   }
 
+  /** Flat form for JPQL constructor expressions, which can't build the nested RiderMini. */
+  public BookingWithRiderDto(Long id, Long tripId, int seats, BookingStatus status, Instant createdAt,
+                             Long riderId, String riderName, String riderEmail) {
+    this(id, tripId, seats, status, createdAt, new RiderMini(riderId, riderName, riderEmail));
+  }
+
   public record RiderMini(Long id, String name, String email) {}
 }
@@ -4,9 +4,7 @@ package com.routelink.booking;
 import com.routelink.common.MaskingUtil;
 import com.routelink.common.ForbiddenException;
 import com.routelink.common.NotFoundException;
-import com.routelink.user.User;
-import com.routelink.user.UserRepository;
-import org.springframework.security.core.context.SecurityContextHolder;
+import com.routelink.security.CurrentUser;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
@@ -14,43 +12,32 @@ import org.springframework.web.bind.annotation.*;
 public class ContactController {
 
   private final BookingRepository bookingRepo;
-  private final UserRepository userRepo;
+  private final CurrentUser currentUser;
 
   public record ContactDto(String driverName, String driverEmail, String driverPhone) {}
 
-  public ContactController(BookingRepository bookingRepo, UserRepository userRepo) {
+  public ContactController(BookingRepository bookingRepo, CurrentUser currentUser) {
     this.bookingRepo = bookingRepo;
-    this.userRepo = userRepo;
+    this.currentUser = currentUser;
   }
 
-  private Long currentUserId() {
-    var auth = SecurityContextHolder.getContext().getAuthentication();
-    if (auth == null || auth.getName() == null) throw new IllegalStateException("Unauthenticated");
-    return userRepo.findByEmail(auth.getName())
-        .map(User::getId)
-        .orElseThrow(() -> new NotFoundException("User not found"));
-  }
+  private Long currentUserId() { return currentUser.id(); }
 
   @GetMapping("/{id}/contact")
   public ContactDto contact(@PathVariable Long id) {
     Long me = currentUserId();
 
-    Booking bk = bookingRepo.findById(id)
+    // booking + trip + driver in a single statement
+    BookingContactRow row = bookingRepo.findContactRow(id)
         .orElseThrow(() -> new NotFoundException("Booking not found"));
 
-    Long driverId = bk.getTrip().getDriver().getId();
-    Long riderId  = bk.getRider().getId();
-
-    if (!me.equals(driverId) && !me.equals(riderId))
+    if (!me.equals(row.driverId()) && !me.equals(row.riderId()))
       throw new ForbiddenException("Not allowed");
 
-    User driver = userRepo.findById(driverId)
-        .orElseThrow(() -> new NotFoundException("Driver not found"));
-
-    boolean unmask = bk.getStatus() == BookingStatus.CONFIRMED;
-    String email = unmask ? driver.getEmail() : MaskingUtil.maskEmail(driver.getEmail());
-    String phone = unmask ? driver.getPhone() : MaskingUtil.maskPhone(driver.getPhone());
+    boolean unmask = row.status() == BookingStatus.CONFIRMED;
+    String email = unmask ? row.driverEmail() : MaskingUtil.maskEmail(row.driverEmail());
+    String phone = unmask ? row.driverPhone() : MaskingUtil.maskPhone(row.driverPhone());
 
-    return new ContactDto(driver.getName(), email, phone);
+    return new ContactDto(row.driverName(), email, phone);
   }
 }
@@ -0,0 +1,4 @@
+package com.routelink.booking;
+
+/** Single-use credential for opening /api/bookings/stream?ticket=... within {@code expiresInSec}. */
+public record StreamTicketDto(String ticket, long expiresInSec) {}
@@ -1,7 +1,9 @@
 package com.routelink.common;
 
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -35,6 +37,20 @@ public class ApiExceptionHandler {
     return new ApiError("FORBIDDEN", ex.getMessage(), Instant.now());
   }
 
+  @ExceptionHandler(TooManyRequestsException.class)
+  public ResponseEntity<ApiError> tooManyRequests(TooManyRequestsException ex) {
+    return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+        .header(HttpHeaders.RETRY_AFTER, Long.toString(ex.retryAfterSeconds()))
+        .body(new ApiError("TOO_MANY_REQUESTS", ex.getMessage(), Instant.now()));
+  }
+
+  @ExceptionHandler(ServiceUnavailableException.class)
+  public ResponseEntity<ApiError> unavailable(ServiceUnavailableException ex) {
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+        .header(HttpHeaders.RETRY_AFTER, Long.toString(ex.retryAfterSeconds()))
+        .body(new ApiError("SERVICE_UNAVAILABLE", ex.getMessage(), Instant.now()));
+  }
+
   /* ---- Common framework/runtime exceptions (very useful during testing) ---- */
 
   @ExceptionHandler(IllegalArgumentException.class)
@@ -0,0 +1,44 @@
+package com.routelink.common;
+
+/**
+ * Point in time after which the caller no longer wants the answer.
+ *
+ * Long-running loops check {@link #expired()} cooperatively and return what they have.
+ * Based on {@link System#nanoTime()}, so wall-clock changes don't affect it.
+ */
+public final class Deadline {
+  private static final Deadline NONE = new Deadline(0, false);
+
+  private final long atNanos;
+  private final boolean bounded;
+
+  private Deadline(long atNanos, boolean bounded) {
+    this.atNanos = atNanos;
+    this.bounded = bounded;
+  }
+
+  public static Deadline none() { return NONE; }
+
+  /** {@code millis <= 0} means no deadline. */
+  public static Deadline in(long millis) {
+    if (millis <= 0) return NONE;
+    return new Deadline(System.nanoTime() + millis * 1_000_000L, true);
+  }
+
+  /** Same deadline, moved earlier by {@code millis} (e.g. to leave room for a final step). */
+  public Deadline minus(long millis) {
+    return bounded ? new Deadline(atNanos - millis * 1_000_000L, true) : this;
+  }
+
+  public boolean isBounded() { return bounded; }
+
+  public boolean expired() {
+    return bounded && System.nanoTime() - atNanos >= 0;
+  }
+
+  /** Milliseconds left, 0 if expired, {@code Long.MAX_VALUE} if unbounded. */
+  public long remainingMillis() {
+    if (!bounded) return Long.MAX_VALUE;
+    return Math.max(0, (atNanos - System.nanoTime()) / 1_000_000L);
+  }
+}
@@ -0,0 +1,13 @@
+package com.routelink.common;
+
+/** 503: the server is overloaded right now; retry after {@link #retryAfterSeconds()}. */
+public class ServiceUnavailableException extends RuntimeException {
+  private final long retryAfterSeconds;
+
+  public ServiceUnavailableException(String msg, long retryAfterSeconds) {
+    super(msg);
+    this.retryAfterSeconds = retryAfterSeconds;
+  }
+
+  public long retryAfterSeconds() { return retryAfterSeconds; }
+}
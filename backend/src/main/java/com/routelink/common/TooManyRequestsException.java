@@ -0,0 +1,13 @@
+package com.routelink.common;
+
+/** 429: the caller should back off and retry after {@link #retryAfterSeconds()}. */
+public class TooManyRequestsException extends RuntimeException {
+  private final long retryAfterSeconds;
+
+  public TooManyRequestsException(String msg, long retryAfterSeconds) {
+    super(msg);
+    this.retryAfterSeconds = retryAfterSeconds;
+  }
+
+  public long retryAfterSeconds() { return retryAfterSeconds; }
+}
@@ -0,0 +1,53 @@
+package com.routelink.db;
+
+import com.routelink.security.JwtPrincipal;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers which users changed something in the last {@code windowMs}, so their own reads
+ * go to the primary until replicas have surely caught up with the write.
+ *
+ * Per node: with several app nodes behind a non-sticky balancer the window should cover the
+ * replica lag limit, which it does by default (sticky-ms >= max-lag-ms).
+ */
+public class ReadYourWrites {
+  private static final int MAX_ENTRIES = 100_000;
+
+  private final long windowNanos;
+  private final Map<Long, Long> lastWriteNanos = new ConcurrentHashMap<>();
+
+  public ReadYourWrites(long windowMs) {
+    this.windowNanos = Math.max(0, windowMs) * 1_000_000L;
+  }
+
+  public void markWrite(Long userId) {
+    if (userId == null || windowNanos == 0) return;
+    long now = System.nanoTime();
+    if (lastWriteNanos.size() >= MAX_ENTRIES) evictExpired(now);
+    lastWriteNanos.put(userId, now);
+  }
+
+  public boolean isSticky(Long userId) {
+    if (userId == null) return false;
+    Long at = lastWriteNanos.get(userId);
+    return at != null && System.nanoTime() - at < windowNanos;
+  }
+
+  /** The calling user (from the security context), if any, wrote recently. */
+  public boolean currentUserIsSticky() {
+    return isSticky(currentUserId());
+  }
+
+  static Long currentUserId() {
+    Authentication a = SecurityContextHolder.getContext().getAuthentication();
+    return a != null && a.getPrincipal() instanceof JwtPrincipal p ? p.uid() : null;
+  }
+
+  void evictExpired(long now) {
+    lastWriteNanos.values().removeIf(at -> now - at >= windowNanos);
+  }
+}
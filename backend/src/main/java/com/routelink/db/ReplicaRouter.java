@@ -0,0 +1,170 @@
+package com.routelink.db;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+/**
+ * The data source read-only transactions get their connection from.
+ *
+ * Round-robins over the replicas that are currently healthy: reachable and replaying within
+ * {@code maxLagMs} of the primary, as measured every lag-check interval. Falls back to the
+ * primary when none is, when a replica refuses a connection, or when the caller wrote
+ * recently ({@link ReadYourWrites}), so nobody reads data older than their own last change.
+ */
+public class ReplicaRouter extends AbstractDataSource implements AutoCloseable {
+  private static final Logger log = LoggerFactory.getLogger(ReplicaRouter.class);
+
+  /**
+   * Replay lag in ms; 0 when fully caught up (an idle primary would otherwise look ever more
+   * behind) and on a server that is not a standby at all, e.g. a second pool on the primary.
+   */
+  static final String LAG_SQL = """
+      select case
+               when not pg_is_in_recovery() then 0
+               when pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() then 0
+               else coalesce(extract(epoch from now() - pg_last_xact_replay_timestamp()) * 1000, 0)
+             end::bigint
+      """;
+
+  /** Measures a replica's lag in ms; throws if it can't be reached. */
+  @FunctionalInterface
+  interface LagProbe {
+    long lagMs(DataSource replica) throws SQLException;
+  }
+
+  static final LagProbe POSTGRES = ds -> {
+    try (Connection c = ds.getConnection(); Statement st = c.createStatement(); ResultSet rs = st.executeQuery(LAG_SQL)) {
+      rs.next();
+      return rs.getLong(1);
+    }
+  };
+
+  static final class Replica {
+    final String name;
+    final DataSource dataSource;
+    volatile long lagMs;
+    volatile boolean healthy = true;
+
+    Replica(String name, DataSource dataSource) {
+      this.name = name;
+      this.dataSource = dataSource;
+    }
+  }
+
+  @FunctionalInterface
+  private interface Open {
+    Connection from(DataSource ds) throws SQLException;
+  }
+
+  private final DataSource primary;
+  private final List<Replica> replicas;
+  private final BooleanSupplier sticky;
+  private final LagProbe probe;
+  private final long maxLagMs;
+  private final AtomicInteger next = new AtomicInteger();
+  private ScheduledExecutorService lagChecker;
+
+  private final Counter toReplica;
+  private final Counter stickyToPrimary;
+  private final Counter fallbackToPrimary;
+
+  ReplicaRouter(DataSource primary, Map<String, DataSource> replicas, BooleanSupplier sticky,
+                LagProbe probe, long maxLagMs, MeterRegistry meters) {
+    this.primary = primary;
+    this.replicas = replicas.entrySet().stream().map(e -> new Replica(e.getKey(), e.getValue())).toList();
+    this.sticky = sticky;
+    this.probe = probe;
+    this.maxLagMs = maxLagMs;
+
+    this.toReplica = meters.counter("routelink.db.reads", "target", "replica", "reason", "healthy");
+    this.stickyToPrimary = meters.counter("routelink.db.reads", "target", "primary", "reason", "read_your_writes");
+    this.fallbackToPrimary = meters.counter("routelink.db.reads", "target", "primary", "reason", "no_healthy_replica");
+    for (Replica r : this.replicas) {
+      Gauge.builder("routelink.db.replica.lag", r, x -> x.lagMs).tag("pool", r.name).baseUnit("milliseconds").register(meters);
+      Gauge.builder("routelink.db.replica.healthy", r, x -> x.healthy ? 1 : 0).tag("pool", r.name).register(meters);
+    }
+  }
+
+  void startLagChecks(long periodMs) {
+    lagChecker = Executors.newSingleThreadScheduledExecutor(r -> {
+      Thread t = new Thread(r, "replica-lag-check");
+      t.setDaemon(true);
+      return t;
+    });
+    lagChecker.scheduleWithFixedDelay(this::checkLag, 0, Math.max(100, periodMs), TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public void close() throws Exception {
+    if (lagChecker != null) lagChecker.shutdownNow();
+    for (Replica r : replicas) if (r.dataSource instanceof AutoCloseable c) c.close();
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    return route(DataSource::getConnection);
+  }
+
+  @Override
+  public Connection getConnection(String username, String password) throws SQLException {
+    return route(ds -> ds.getConnection(username, password));
+  }
+
+  private Connection route(Open open) throws SQLException {
+    if (sticky.getAsBoolean()) {
+      stickyToPrimary.increment();
+      return open.from(primary);
+    }
+    int n = replicas.size();
+    int start = Math.floorMod(next.getAndIncrement(), Math.max(1, n));
+    for (int i = 0; i < n; i++) {
+      Replica r = replicas.get((start + i) % n);
+      if (!r.healthy) continue;
+      try {
+        Connection c = open.from(r.dataSource);
+        toReplica.increment();
+        return c;
+      } catch (SQLException e) {
+        r.healthy = false; // until the next lag check says otherwise
+        log.warn("Replica {} unavailable, reading from elsewhere: {}", r.name, e.getMessage());
+      }
+    }
+    fallbackToPrimary.increment();
+    return open.from(primary);
+  }
+
+  void checkLag() {
+    for (Replica r : replicas) {
+      try {
+        long lag = probe.lagMs(r.dataSource);
+        r.lagMs = lag;
+        boolean ok = lag <= maxLagMs;
+        if (ok != r.healthy) log.info("Replica {} {} (lag {} ms)", r.name, ok ? "back in rotation" : "out of rotation", lag);
+        r.healthy = ok;
+      } catch (SQLException | RuntimeException e) {
+        r.lagMs = -1;
+        if (r.healthy) log.warn("Replica {} lag check failed: {}", r.name, e.getMessage());
+        r.healthy = false;
+      }
+    }
+  }
+
+  List<Replica> replicas() { return replicas; }
+}
@@ -0,0 +1,108 @@
+package com.routelink.db;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpMethod;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Splits database traffic between the primary and read replicas.
+ *
+ * The application's DataSource is a {@link LazyConnectionDataSourceProxy}: it takes no
+ * physical connection until the first statement, by which time the transaction has marked
+ * the connection read-only or not. {@code @Transactional(readOnly = true)} work (and Spring
+ * Data's read-only finders) then draws from the {@link ReplicaRouter}; everything else, and
+ * Flyway, uses the primary pool. Each replica is its own Hikari pool, tuned under
+ * {@code app.datasource.routing.replicas[i].*} with the usual Hikari property names.
+ *
+ * Off unless {@code app.datasource.routing.enabled=true}; Boot's single pool is used then.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.datasource.routing", name = "enabled", havingValue = "true")
+public class ReplicaRoutingConfig implements WebMvcConfigurer {
+
+  private final ReadYourWrites readYourWrites;
+
+  public ReplicaRoutingConfig(@Value("${app.datasource.routing.sticky-ms:5000}") long stickyMs) {
+    this.readYourWrites = new ReadYourWrites(stickyMs);
+  }
+
+  @Bean
+  public ReadYourWrites readYourWrites() { return readYourWrites; }
+
+  @Bean
+  @ConfigurationProperties("spring.datasource.hikari")
+  public HikariDataSource primaryDataSource(DataSourceProperties props) {
+    HikariDataSource ds = props.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    if (ds.getPoolName() == null) ds.setPoolName("primary");
+    return ds;
+  }
+
+  @Bean(destroyMethod = "close")
+  public ReplicaRouter replicaRouter(@Qualifier("primaryDataSource") HikariDataSource primary,
+                                     Environment env,
+                                     MeterRegistry meters,
+                                     @Value("${app.datasource.routing.max-lag-ms:2000}") long maxLagMs,
+                                     @Value("${app.datasource.routing.lag-check-ms:1000}") long lagCheckMs) {
+    Binder binder = Binder.get(env);
+    Map<String, DataSource> replicas = new LinkedHashMap<>();
+    for (int i = 0; ; i++) {
+      String prefix = "app.datasource.routing.replicas[" + i + "]";
+      if (!binder.bind(prefix + ".jdbc-url", String.class).isBound()) break;
+      HikariDataSource ds = new HikariDataSource();
+      ds.setPoolName("replica-" + i);
+      binder.bind(prefix, Bindable.ofInstance(ds));
+      if (ds.getDriverClassName() == null) ds.setDriverClassName(primary.getDriverClassName());
+      ds.setReadOnly(true);
+      ds.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meters));
+      replicas.put(ds.getPoolName(), ds);
+    }
+    ReplicaRouter router = new ReplicaRouter(primary, replicas, readYourWrites::currentUserIsSticky,
+        ReplicaRouter.POSTGRES, maxLagMs, meters);
+    if (!replicas.isEmpty()) router.startLagChecks(lagCheckMs);
+    return router;
+  }
+
+  @Bean
+  @Primary
+  public DataSource dataSource(@Qualifier("primaryDataSource") HikariDataSource primary, ReplicaRouter router) {
+    LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(primary);
+    proxy.setReadOnlyDataSource(router);
+    return proxy;
+  }
+
+  /** Any mutating request by a signed-in user pins that user's reads to the primary for a while. */
+  @Override
+  public void addInterceptors(InterceptorRegistry registry) {
+    registry.addInterceptor(new HandlerInterceptor() {
+      @Override
+      public void afterCompletion(HttpServletRequest req, HttpServletResponse res, Object handler, Exception ex) {
+        if (!HttpMethod.GET.matches(req.getMethod()) && !HttpMethod.HEAD.matches(req.getMethod())
+            && !HttpMethod.OPTIONS.matches(req.getMethod())) {
+          readYourWrites.markWrite(ReadYourWrites.currentUserId());
+        }
+      }
+    }).addPathPatterns("/api/**", "/auth/**");
+  }
+}
@@ -0,0 +1,40 @@
+package com.routelink.db;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/** GET /actuator/l2cache: hits, misses and size per second-level cache region, plus totals. */
+@Component
+@Endpoint(id = "l2cache")
+public class SecondLevelCacheEndpoint {
+  public record RegionState(long hits, long misses, long puts, long entries) {}
+  public record CacheState(RegionState entities, RegionState naturalIds, RegionState queries,
+                           Map<String, RegionState> regions) {}
+
+  private final EntityManagerFactory emf;
+
+  public SecondLevelCacheEndpoint(EntityManagerFactory emf) { this.emf = emf; }
+
+  @ReadOperation
+  public CacheState stats() {
+    Statistics s = emf.unwrap(SessionFactory.class).getStatistics();
+    Map<String, RegionState> regions = new TreeMap<>();
+    for (String name : s.getSecondLevelCacheRegionNames()) {
+      CacheRegionStatistics r = s.getCacheRegionStatistics(name);
+      if (r != null) regions.put(name, new RegionState(r.getHitCount(), r.getMissCount(), r.getPutCount(), r.getElementCountInMemory()));
+    }
+    return new CacheState(
+        new RegionState(s.getSecondLevelCacheHitCount(), s.getSecondLevelCacheMissCount(), s.getSecondLevelCachePutCount(), -1),
+        new RegionState(s.getNaturalIdCacheHitCount(), s.getNaturalIdCacheMissCount(), s.getNaturalIdCachePutCount(), -1),
+        new RegionState(s.getQueryCacheHitCount(), s.getQueryCacheMissCount(), s.getQueryCachePutCount(), -1),
+        regions);
+  }
+}
@@ -57,6 +57,37 @@ public final class Polyline {
     return sb.toString();
   }
 
+  /**
+   * Douglas-Peucker: drops points closer than {@code toleranceKm} to the line through their
+   * neighbours. Endpoints are always kept; the result never strays more than the tolerance.
+   */
+  public static List<double[]> simplify(List<double[]> path, double toleranceKm) {
+    if (path == null || path.size() < 3 || toleranceKm <= 0) return path;
+    boolean[] keep = new boolean[path.size()];
+    keep[0] = keep[path.size() - 1] = true;
+    simplify(path, 0, path.size() - 1, toleranceKm, keep);
+
+    List<double[]> out = new ArrayList<>();
+    for (int i = 0; i < path.size(); i++) if (keep[i]) out.add(path.get(i));
+    return out;
+  }
+
+  private static void simplify(List<double[]> path, int from, int to, double tol, boolean[] keep) {
+    if (to - from < 2) return;
+    double[] a = path.get(from), b = path.get(to);
+    int worst = -1;
+    double worstD = tol;
+    for (int i = from + 1; i < to; i++) {
+      double[] p = path.get(i);
+      double d = Geo.distancePointToSegmentKm(p[0], p[1], a[0], a[1], b[0], b[1]);
+      if (d > worstD) { worstD = d; worst = i; }
+    }
+    if (worst < 0) return;
+    keep[worst] = true;
+    simplify(path, from, worst, tol, keep);
+    simplify(path, worst, to, tol, keep);
+  }
+
   private static void writeDelta(StringBuilder sb, long v) {
     v = (v < 0) ? ~(v << 1) : (v << 1);
     while (v >= 0x20) {
@@ -1,22 +1,63 @@
 // com.routelink.housekeeping.CleanupJobs
 package com.routelink.housekeeping;
 
-import com.routelink.trip.TripRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
 import java.time.OffsetDateTime;
 
 @Component
 public class CleanupJobs {
-  private final TripRepository trips;
-  public CleanupJobs(TripRepository trips) { this.trips = trips; }
+  private static final Logger log = LoggerFactory.getLogger(CleanupJobs.class);
+  static final String ARCHIVE_JOB = "trip-archive";
 
-  // Run daily at 00:00
-  @Scheduled(cron = "0 0 0 * * *")
-  public void purgeHiddenOldTrips() {
-    OffsetDateTime cutoff = OffsetDateTime.now().minusDays(1);
-    int deleted = trips.deleteInactiveBefore(cutoff);
-    // log if you want
+  private final TripArchiver archiver;
+  private final JobLease lease;
+  private final MeterRegistry meters;
+  private final int retentionDays;
+  private final Duration leaseTtl;
+  private final Duration maxRun;
+
+  public CleanupJobs(
+      TripArchiver archiver,
+      JobLease lease,
+      MeterRegistry meters,
+      @Value("${app.archive.retention-days:90}") int retentionDays,
+      @Value("${app.archive.lease-sec:120}") long leaseSec,
+      @Value("${app.archive.max-run-min:30}") long maxRunMin) {
+    this.archiver = archiver;
+    this.lease = lease;
+    this.meters = meters;
+    this.retentionDays = Math.max(1, retentionDays);
+    this.leaseTtl = Duration.ofSeconds(Math.max(10, leaseSec));
+    this.maxRun = Duration.ofMinutes(Math.max(1, maxRunMin));
+  }
+
+  // Run daily at 00:00; only the node holding the lease does the work
+  @Scheduled(cron = "${app.archive.cron:0 0 0 * * *}")
+  public void archiveOldTrips() {
+    if (!lease.tryAcquire(ARCHIVE_JOB, leaseTtl)) {
+      meters.counter("routelink.archive.runs", "result", "skipped").increment();
+      return;
+    }
+    long deadline = System.nanoTime() + maxRun.toNanos();
+    try {
+      OffsetDateTime cutoff = OffsetDateTime.now().minusDays(retentionDays);
+      var moved = archiver.archiveBefore(cutoff,
+          () -> System.nanoTime() < deadline && lease.renew(ARCHIVE_JOB, leaseTtl));
+      meters.counter("routelink.archive.runs", "result", "completed").increment();
+      log.info("Archived {} trips, {} bookings, {} ratings ridden before {}",
+          moved.trips(), moved.bookings(), moved.ratings(), cutoff);
+    } catch (RuntimeException e) {
+      meters.counter("routelink.archive.runs", "result", "failed").increment();
+      log.warn("Trip archival failed", e);
+    } finally {
+      lease.release(ARCHIVE_JOB);
+    }
   }
 }
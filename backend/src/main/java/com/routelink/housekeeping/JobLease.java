@@ -0,0 +1,58 @@
+package com.routelink.housekeeping;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Cluster-wide "only one node runs this job" guard, backed by a row per job in job_leases (V6).
+ *
+ * A lease is taken with a single conditional upsert: it succeeds when the row is missing,
+ * expired, or already ours. Long jobs renew it between units of work and stop as soon as a
+ * renewal fails, so a node that stalls past its lease can never overlap with the next holder.
+ */
+@Component
+public class JobLease {
+  private final JdbcTemplate jdbc;
+  private final String owner;
+
+  public JobLease(JdbcTemplate jdbc) {
+    this.jdbc = jdbc;
+    this.owner = hostName() + ":" + UUID.randomUUID();
+  }
+
+  public boolean tryAcquire(String job, Duration ttl) {
+    return jdbc.update("""
+        insert into job_leases (name, owner, locked_until)
+        values (?, ?, now() + make_interval(secs => ?))
+        on conflict (name) do update
+           set owner = excluded.owner, locked_until = excluded.locked_until
+         where job_leases.locked_until < now() or job_leases.owner = excluded.owner
+        """, job, owner, (double) ttl.toSeconds()) == 1;
+  }
+
+  /** Extends a lease we still hold; false means it expired and another node may own it now. */
+  public boolean renew(String job, Duration ttl) {
+    return jdbc.update("""
+        update job_leases set locked_until = now() + make_interval(secs => ?)
+         where name = ? and owner = ? and locked_until >= now()
+        """, (double) ttl.toSeconds(), job, owner) == 1;
+  }
+
+  public void release(String job) {
+    jdbc.update("update job_leases set locked_until = now() where name = ? and owner = ?", job, owner);
+  }
+
+  public String owner() { return owner; }
+
+  private static String hostName() {
+    try {
+      return InetAddress.getLocalHost().getHostName();
+    } catch (Exception e) {
+      return "unknown";
+    }
+  }
+}
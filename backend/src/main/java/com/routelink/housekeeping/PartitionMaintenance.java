@@ -0,0 +1,128 @@
+package com.routelink.housekeeping;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps the monthly partitions of trips and bookings (see V3/V4 migrations) rolling.
+ *
+ * Creates the current month and {@code ahead-months} future ones so inserts rarely fall into
+ * the default partition; rows that did (trips posted further ahead) are moved into their
+ * month's partition when it is created (V10). Months older than {@code detach-after-months}
+ * are detached: dropped when archival already emptied them, otherwise left behind as a plain
+ * table for inspection. Bookings go first when detaching because they reference trips. Tables
+ * that are not partitioned (a dev schema built by Hibernate) are left alone.
+ */
+@Component
+public class PartitionMaintenance {
+  private static final Logger log = LoggerFactory.getLogger(PartitionMaintenance.class);
+  static final String JOB = "partition-maintenance";
+
+  /** Detach order: children before the parents they reference. */
+  private static final List<String> TABLES = List.of("bookings", "trips");
+  private static final Pattern MONTH_SUFFIX = Pattern.compile("_p(\\d{4})_(\\d{2})$");
+
+  private final JdbcTemplate jdbc;
+  private final JobLease lease;
+  private final int aheadMonths;
+  private final int detachAfterMonths;
+  private final Counter created;
+  private final Counter detached;
+  private final Counter dropped;
+
+  public PartitionMaintenance(
+      JdbcTemplate jdbc,
+      JobLease lease,
+      MeterRegistry meters,
+      @Value("${app.partitions.ahead-months:3}") int aheadMonths,
+      @Value("${app.partitions.detach-after-months:6}") int detachAfterMonths) {
+    this.jdbc = jdbc;
+    this.lease = lease;
+    this.aheadMonths = Math.max(1, aheadMonths);
+    this.detachAfterMonths = Math.max(0, detachAfterMonths);
+    this.created = meters.counter("routelink.partitions.created");
+    this.detached = meters.counter("routelink.partitions.detached");
+    this.dropped = meters.counter("routelink.partitions.dropped");
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void onStartup() { run(); }
+
+  @Scheduled(cron = "${app.partitions.cron:0 30 0 * * *}")
+  public void run() {
+    if (!lease.tryAcquire(JOB, Duration.ofMinutes(5))) return;
+    try {
+      YearMonth now = YearMonth.now(ZoneOffset.UTC);
+      for (String table : TABLES) {
+        if (!isPartitioned(table)) continue;
+        for (int i = 0; i <= aheadMonths; i++) ensure(table, now.plusMonths(i));
+      }
+      if (detachAfterMonths > 0) {
+        YearMonth oldestKept = now.minusMonths(detachAfterMonths);
+        for (String table : TABLES) if (isPartitioned(table)) detachBefore(table, oldestKept);
+      }
+    } catch (DataAccessException e) {
+      log.warn("Partition maintenance failed", e);
+    } finally {
+      lease.release(JOB);
+    }
+  }
+
+  private boolean isPartitioned(String table) {
+    Boolean p = jdbc.queryForObject(
+        "select exists (select 1 from pg_partitioned_table where partrelid = to_regclass(?))", Boolean.class, table);
+    return Boolean.TRUE.equals(p);
+  }
+
+  void ensure(String table, YearMonth month) {
+    String part = table + "_p" + month.toString().replace('-', '_');
+    if (jdbc.queryForObject("select to_regclass(?) is not null", Boolean.class, part)) return;
+    try {
+      jdbc.queryForObject("select ensure_month_partition(?, ?)", String.class, table, month.atDay(1));
+      created.increment();
+      log.info("Created partition {}", part);
+    } catch (DataAccessException e) {
+      log.warn("Could not create partition {}: {}", part, e.getMostSpecificCause().getMessage());
+    }
+  }
+
+  void detachBefore(String table, YearMonth oldestKept) {
+    List<String> parts = jdbc.queryForList("""
+        select c.relname from pg_inherits i join pg_class c on c.oid = i.inhrelid
+         where i.inhparent = to_regclass(?)
+         order by c.relname
+        """, String.class, table);
+    for (String part : parts) {
+      Matcher m = MONTH_SUFFIX.matcher(part);
+      if (!m.find()) continue; // default partition
+      LocalDate start = LocalDate.of(Integer.parseInt(m.group(1)), Integer.parseInt(m.group(2)), 1);
+      if (!YearMonth.from(start).isBefore(oldestKept)) continue;
+      jdbc.execute("alter table " + table + " detach partition " + part);
+      detached.increment();
+      if (Boolean.TRUE.equals(jdbc.queryForObject("select not exists (select 1 from " + part + ")", Boolean.class))) {
+        jdbc.execute("drop table " + part);
+        dropped.increment();
+        log.info("Detached and dropped empty partition {}", part);
+      } else {
+        log.info("Detached partition {} (not empty, kept)", part);
+      }
+    }
+  }
+}
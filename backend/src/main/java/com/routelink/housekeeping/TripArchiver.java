@@ -0,0 +1,155 @@
+package com.routelink.housekeeping;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Moves finished trips, their bookings and their ratings into *_archive tables (V6).
+ *
+ * Work is cut into trip-id ranges of {@code chunk-size}; each range is one short transaction
+ * (ratings, then bookings, then trips, each a single delete ... returning feeding an insert),
+ * followed by a pause so foreground traffic keeps its connections and the WAL stays smooth.
+ * Trips in the range are locked with skip locked, so a trip being touched concurrently is
+ * simply left for the next run.
+ */
+@Component
+public class TripArchiver {
+  private static final Logger log = LoggerFactory.getLogger(TripArchiver.class);
+
+  /** Which trips are eligible: hidden from search and ridden before the cutoff. */
+  private static final String ELIGIBLE = "active = false and ride_at < :cutoff";
+
+  private static final String TRIP_COLS =
+      "id, driver_id, start_place, start_lat, start_lng, end_place, end_lat, end_lng, polyline,"
+    + " ride_at, price_per_seat, seats_total, seats_left, status, active";
+  private static final String BOOKING_COLS = "id, trip_id, trip_ride_at, rider_id, seats, status, created_at";
+  private static final String RATING_COLS = "id, booking_id, rater_id, ratee_id, stars, comment, created_at";
+
+  /** Rows moved by one chunk, per table. */
+  public record Moved(int trips, int bookings, int ratings) {
+    static final Moved NONE = new Moved(0, 0, 0);
+    Moved plus(Moved o) { return new Moved(trips + o.trips, bookings + o.bookings, ratings + o.ratings); }
+  }
+
+  private final NamedParameterJdbcTemplate jdbc;
+  private final TransactionTemplate tx;
+  private final int chunkSize;
+  private final long pauseMs;
+
+  private final DistributionSummary tripsPerChunk;
+  private final DistributionSummary bookingsPerChunk;
+  private final DistributionSummary ratingsPerChunk;
+  private final Counter movedTotal;
+  private final Timer chunkLatency;
+
+  public TripArchiver(
+      NamedParameterJdbcTemplate jdbc,
+      PlatformTransactionManager txManager,
+      MeterRegistry meters,
+      @Value("${app.archive.chunk-size:500}") int chunkSize,
+      @Value("${app.archive.chunk-pause-ms:200}") long pauseMs,
+      @Value("${app.archive.chunk-timeout-sec:30}") int chunkTimeoutSec) {
+    this.jdbc = jdbc;
+    this.tx = new TransactionTemplate(txManager);
+    this.tx.setTimeout(Math.max(1, chunkTimeoutSec));
+    this.chunkSize = Math.max(1, chunkSize);
+    this.pauseMs = Math.max(0, pauseMs);
+
+    this.tripsPerChunk = rowsPerChunk(meters, "trips");
+    this.bookingsPerChunk = rowsPerChunk(meters, "bookings");
+    this.ratingsPerChunk = rowsPerChunk(meters, "ratings");
+    this.movedTotal = meters.counter("routelink.archive.rows.total");
+    this.chunkLatency = Timer.builder("routelink.archive.chunk.duration").register(meters);
+  }
+
+  private static DistributionSummary rowsPerChunk(MeterRegistry meters, String table) {
+    return DistributionSummary.builder("routelink.archive.chunk.rows")
+        .description("Rows moved to the archive by one chunk")
+        .tag("table", table)
+        .register(meters);
+  }
+
+  /**
+   * Archives everything eligible before {@code cutoff}, range by range, until done or
+   * {@code keepGoing} says stop (lease lost, time budget spent).
+   */
+  public Moved archiveBefore(OffsetDateTime cutoff, BooleanSupplier keepGoing) {
+    var p = new MapSqlParameterSource("cutoff", cutoff);
+    Map<String, Object> bounds = jdbc.queryForMap(
+        "select min(id) as lo, max(id) as hi from trips where " + ELIGIBLE, p);
+    if (bounds.get("lo") == null) return Moved.NONE;
+    long lo = ((Number) bounds.get("lo")).longValue();
+    long hi = ((Number) bounds.get("hi")).longValue();
+
+    Moved total = Moved.NONE;
+    for (long from = lo; from <= hi; from += chunkSize) {
+      if (!keepGoing.getAsBoolean()) {
+        log.info("Trip archival stopped early at id {} of {}", from, hi);
+        break;
+      }
+      long start = from, end = from + chunkSize;
+      Moved m = chunkLatency.record(() -> moveChunk(cutoff, start, end));
+      tripsPerChunk.record(m.trips());
+      bookingsPerChunk.record(m.bookings());
+      ratingsPerChunk.record(m.ratings());
+      movedTotal.increment(m.trips() + m.bookings() + m.ratings());
+      total = total.plus(m);
+      if (m.trips() > 0 && !pause()) break;
+    }
+    return total;
+  }
+
+  /** One id range [from, to) in one transaction. Children first so no FK ever dangles. */
+  Moved moveChunk(OffsetDateTime cutoff, long from, long to) {
+    return tx.execute(s -> {
+      var p = new MapSqlParameterSource().addValue("cutoff", cutoff).addValue("from", from).addValue("to", to);
+      List<Long> ids = jdbc.queryForList("""
+          select id from trips
+           where id >= :from and id < :to and %s
+           order by id
+             for update skip locked
+          """.formatted(ELIGIBLE), p, Long.class);
+      if (ids.isEmpty()) return Moved.NONE;
+
+      var byIds = new MapSqlParameterSource("ids", ids);
+      int ratings = jdbc.update(move("ratings", RATING_COLS,
+          "booking_id in (select id from bookings where trip_id in (:ids))"), byIds);
+      int bookings = jdbc.update(move("bookings", BOOKING_COLS, "trip_id in (:ids)"), byIds);
+      int trips = jdbc.update(move("trips", TRIP_COLS, "id in (:ids)"), byIds);
+      return new Moved(trips, bookings, ratings);
+    });
+  }
+
+  private static String move(String table, String cols, String where) {
+    return """
+        with moved as (delete from %1$s where %3$s returning %2$s)
+        insert into %1$s_archive (%2$s) select %2$s from moved
+        """.formatted(table, cols, where);
+  }
+
+  private boolean pause() {
+    if (pauseMs == 0) return true;
+    try {
+      Thread.sleep(pauseMs);
+      return true;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+}
@@ -0,0 +1,94 @@
+package com.routelink.housekeeping;
+
+import com.routelink.trip.Trip;
+import com.routelink.trip.TripRepository;
+import com.routelink.trip.TripStateChanged;
+import com.routelink.trip.TripStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/**
+ * Closes trips shortly after departure so search only ever scans upcoming trips.
+ *
+ * Every tick it takes the oldest departed, not-yet-closed trips in batches of
+ * {@code batch-size}, one transaction per batch, and marks them CLOSED/inactive exactly like
+ * a driver's "complete". Each change publishes {@link TripStateChanged}, so SSE subscribers
+ * hear about it after commit. Rows are claimed with skip locked, so several nodes can sweep
+ * at once without stepping on each other or on a booking that holds the trip lock.
+ */
+@Component
+public class TripExpirySweeper {
+  private static final Logger log = LoggerFactory.getLogger(TripExpirySweeper.class);
+
+  private final TripRepository trips;
+  private final ApplicationEventPublisher events;
+  private final TransactionTemplate tx;
+  private final Duration grace;
+  private final int batchSize;
+  private final int maxBatches;
+  private final Counter expired;
+
+  public TripExpirySweeper(
+      TripRepository trips,
+      ApplicationEventPublisher events,
+      PlatformTransactionManager txManager,
+      MeterRegistry meters,
+      @Value("${app.trips.expiry.grace-min:30}") long graceMin,
+      @Value("${app.trips.expiry.batch-size:200}") int batchSize,
+      @Value("${app.trips.expiry.max-batches:50}") int maxBatches) {
+    this.trips = trips;
+    this.events = events;
+    this.tx = new TransactionTemplate(txManager);
+    this.grace = Duration.ofMinutes(Math.max(0, graceMin));
+    this.batchSize = Math.max(1, batchSize);
+    this.maxBatches = Math.max(1, maxBatches);
+    this.expired = meters.counter("routelink.trips.expired");
+  }
+
+  @Scheduled(fixedDelayString = "${app.trips.expiry.interval-ms:60000}",
+             initialDelayString = "${app.trips.expiry.initial-delay-ms:30000}")
+  public void sweep() {
+    try {
+      int n = expireDeparted(OffsetDateTime.now().minus(grace));
+      if (n > 0) log.info("Closed {} departed trips", n);
+    } catch (RuntimeException e) {
+      log.warn("Trip expiry sweep failed", e);
+    }
+  }
+
+  /** Closes everything departed before {@code cutoff}, up to max-batches batches; returns the count. */
+  int expireDeparted(OffsetDateTime cutoff) {
+    int total = 0;
+    for (int i = 0; i < maxBatches; i++) {
+      Integer n = tx.execute(s -> expireBatch(cutoff));
+      if (n == null || n == 0) break;
+      total += n;
+      if (n < batchSize) break;
+    }
+    return total;
+  }
+
+  private int expireBatch(OffsetDateTime cutoff) {
+    List<Trip> batch = trips.findDepartedForUpdate(cutoff, Limit.of(batchSize));
+    for (Trip t : batch) {
+      t.setStatus(TripStatus.CLOSED);
+      t.setActive(false);
+      events.publishEvent(TripStateChanged.of(t));
+    }
+    expired.increment(batch.size());
+    return batch.size(); // managed; flushed on commit
+  }
+}
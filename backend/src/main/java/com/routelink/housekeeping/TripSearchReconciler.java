@@ -0,0 +1,74 @@
+package com.routelink.housekeeping;
+
+import com.routelink.trip.TripSearchIndex;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Brings trip_search back in line with trips: seeds it on the first start after V9 and repairs
+ * anything written around {@link TripSearchIndex} since (archiving, manual SQL). Stale rows are
+ * removed in one statement; missing ones are added in chunks, each its own transaction.
+ */
+@Component
+public class TripSearchReconciler {
+  private static final Logger log = LoggerFactory.getLogger(TripSearchReconciler.class);
+  static final String JOB = "trip-search-reconcile";
+
+  private final TripSearchIndex index;
+  private final JobLease lease;
+  private final int chunkSize;
+  private final int maxChunks;
+  private final Counter removed;
+  private final Counter added;
+
+  public TripSearchReconciler(
+      TripSearchIndex index,
+      JobLease lease,
+      MeterRegistry meters,
+      @Value("${app.search.read-model.reconcile.chunk-size:500}") int chunkSize,
+      @Value("${app.search.read-model.reconcile.max-chunks:200}") int maxChunks) {
+    this.index = index;
+    this.lease = lease;
+    this.chunkSize = Math.max(1, chunkSize);
+    this.maxChunks = Math.max(1, maxChunks);
+    this.removed = meters.counter("routelink.trip_search.reconciled", "action", "removed");
+    this.added = meters.counter("routelink.trip_search.reconciled", "action", "added");
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void onStartup() { run(); }
+
+  @Scheduled(cron = "${app.search.read-model.reconcile.cron:0 15 * * * *}")
+  public void run() {
+    Duration ttl = Duration.ofMinutes(5);
+    if (!lease.tryAcquire(JOB, ttl)) return;
+    try {
+      int stale = index.removeStale();
+      removed.increment(stale);
+
+      int examined = 0;
+      for (int i = 0; i < maxChunks; i++) {
+        int n = index.addMissing(chunkSize);
+        if (n == 0) break;
+        examined += n;
+        if (!lease.renew(JOB, ttl)) break;
+      }
+      added.increment(examined);
+      if (stale > 0 || examined > 0) log.info("trip_search reconciled: {} stale rows removed, {} trips added", stale, examined);
+    } catch (DataAccessException e) {
+      log.warn("trip_search reconciliation failed", e);
+    } finally {
+      lease.release(JOB);
+    }
+  }
+}
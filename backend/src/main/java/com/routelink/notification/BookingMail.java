@@ -0,0 +1,26 @@
+package com.routelink.notification;
+
+/**
+ * Booking notification kinds; each maps to mail-templates/{template}.txt and .html.
+ * Urgent kinds skip the per-recipient digest buffer (a rider waiting on an answer).
+ */
+public enum BookingMail {
+  CONFIRMED_RIDER("booking-confirmed-rider", "RouteLink Booking Confirmed", true),
+  CONFIRMED_DRIVER("booking-confirmed-driver", "New Rider Booked Your Trip", false),
+  CANCELLED_DRIVER("booking-cancelled-driver", "RouteLink Booking Canceled by Rider", false),
+  DECLINED_RIDER("booking-declined-rider", "RouteLink Booking Declined", true);
+
+  private final String template;
+  private final String subject;
+  private final boolean urgent;
+
+  BookingMail(String template, String subject, boolean urgent) {
+    this.template = template;
+    this.subject = subject;
+    this.urgent = urgent;
+  }
+
+  public String template() { return template; }
+  public String subject() { return subject; }
+  public boolean urgent() { return urgent; }
+}
@@ -0,0 +1,39 @@
+package com.routelink.notification;
+
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Everything the booking emails print, captured once per event.
+ * {@code when} is formatted here so the rider and driver copies share one formatted value.
+ */
+public record BookingMailModel(
+    String riderName, String riderEmail, String riderPhone,
+    String driverName, String driverEmail, String driverPhone,
+    String from, String to, String when,
+    int seats
+) {
+  private static final DateTimeFormatter DF = DateTimeFormatter.ofPattern("MMM d, yyyy h:mm a");
+
+  public static BookingMailModel of(String riderName, String riderEmail, String riderPhone,
+                                    String driverName, String driverEmail, String driverPhone,
+                                    String from, String to, OffsetDateTime rideAt, int seats) {
+    return new BookingMailModel(riderName, riderEmail, riderPhone,
+        driverName, driverEmail, driverPhone,
+        from, to, rideAt != null ? rideAt.format(DF) : null, seats);
+  }
+
+  static TemplateBindings<BookingMailModel> bindings() {
+    return new TemplateBindings<BookingMailModel>()
+        .text("rider.name", BookingMailModel::riderName)
+        .text("rider.email", BookingMailModel::riderEmail)
+        .text("rider.phone", BookingMailModel::riderPhone)
+        .text("driver.name", BookingMailModel::driverName)
+        .text("driver.email", BookingMailModel::driverEmail)
+        .text("driver.phone", BookingMailModel::driverPhone)
+        .text("trip.from", BookingMailModel::from)
+        .text("trip.to", BookingMailModel::to)
+        .text("trip.when", BookingMailModel::when)
+        .number("booking.seats", BookingMailModel::seats);
+  }
+}
@@ -0,0 +1,43 @@
+package com.routelink.notification;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Bounded in-memory store for emails that could not be delivered
+ * (queue full, retries exhausted, or a message that cannot be built).
+ * Oldest entries are dropped once the capacity is reached.
+ */
+@Component
+public class DeadLetterStore {
+
+  public record DeadLetter(OutboundEmail email, String reason, Instant at) {}
+
+  private final int capacity;
+  private final Deque<DeadLetter> entries = new ArrayDeque<>();
+
+  public DeadLetterStore(@Value("${app.mail.dead-letter-capacity:1000}") int capacity) {
+    this.capacity = Math.max(1, capacity);
+  }
+
+  public synchronized void add(OutboundEmail email, String reason) {
+    if (entries.size() >= capacity) entries.pollFirst();
+    entries.addLast(new DeadLetter(email, reason, Instant.now()));
+  }
+
+  public synchronized List<DeadLetter> snapshot() { return List.copyOf(entries); }
+
+  public synchronized int size() { return entries.size(); }
+
+  /** Removes and returns everything, e.g. to re-enqueue after an SMTP outage. */
+  public synchronized List<DeadLetter> drain() {
+    List<DeadLetter> out = List.copyOf(entries);
+    entries.clear();
+    return out;
+  }
+}
@@ -0,0 +1,265 @@
+package com.routelink.notification;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded, asynchronous SMTP pipeline.
+ *
+ * Callers only enqueue; a small worker pool drains the queue in batches and hands each batch
+ * to {@code JavaMailSender.send(MimeMessage...)}, which delivers it over a single transport
+ * connection. Failed messages are retried with exponential backoff and end up in the
+ * {@link DeadLetterStore} once attempts are exhausted or the queue is full. Retries still
+ * waiting on their backoff at shutdown, and anything the workers could not flush in time, are
+ * dead-lettered too rather than lost.
+ */
+@Component
+public class EmailDispatcher {
+  private static final Logger log = LoggerFactory.getLogger(EmailDispatcher.class);
+
+  private final JavaMailSender mailSender;
+  private final DeadLetterStore deadLetters;
+  private final String from;
+
+  private final BlockingQueue<OutboundEmail> queue;
+  private final int workers;
+  private final int batchSize;
+  private final int maxAttempts;
+  private final long backoffInitialMs;
+  private final long backoffMaxMs;
+
+  private final Timer sendLatency;
+  private final Timer deliveryLatency;
+  private final Counter sent;
+  private final Counter failures;
+  private final Counter rejected;
+  private final Counter deadLettered;
+
+  private ExecutorService pool;
+  private ScheduledExecutorService retryTimer;
+  private volatile boolean running;
+  /** Retries waiting on their backoff; whoever removes one (timer or stop) owns it. */
+  private final Map<Long, OutboundEmail> pendingRetries = new ConcurrentHashMap<>();
+  private final AtomicLong retryIds = new AtomicLong();
+
+  public EmailDispatcher(
+      JavaMailSender mailSender,
+      DeadLetterStore deadLetters,
+      MeterRegistry meters,
+      @Value("${app.mail.from:RouteLink <no-reply@routelink.local>}") String from,
+      @Value("${app.mail.queue-capacity:500}") int queueCapacity,
+      @Value("${app.mail.workers:2}") int workers,
+      @Value("${app.mail.batch-size:20}") int batchSize,
+      @Value("${app.mail.max-attempts:4}") int maxAttempts,
+      @Value("${app.mail.backoff-initial-ms:2000}") long backoffInitialMs,
+      @Value("${app.mail.backoff-max-ms:60000}") long backoffMaxMs) {
+
+    this.mailSender = mailSender;
+    this.deadLetters = deadLetters;
+    this.from = from;
+    this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+    this.workers = Math.max(1, workers);
+    this.batchSize = Math.max(1, batchSize);
+    this.maxAttempts = Math.max(1, maxAttempts);
+    this.backoffInitialMs = Math.max(1, backoffInitialMs);
+    this.backoffMaxMs = Math.max(this.backoffInitialMs, backoffMaxMs);
+
+    meters.gauge("routelink.mail.queue.depth", queue, BlockingQueue::size);
+    this.sendLatency = Timer.builder("routelink.mail.send.latency")
+        .description("Time spent in one batched SMTP send").register(meters);
+    this.deliveryLatency = Timer.builder("routelink.mail.delivery.latency")
+        .description("Enqueue-to-delivered time per message").register(meters);
+    this.sent = meters.counter("routelink.mail.sent");
+    this.failures = meters.counter("routelink.mail.failures");
+    this.rejected = meters.counter("routelink.mail.rejected");
+    this.deadLettered = meters.counter("routelink.mail.dead_letters");
+  }
+
+  @PostConstruct
+  public synchronized void start() {
+    if (running) return;
+    running = true;
+    AtomicInteger n = new AtomicInteger();
+    pool = Executors.newFixedThreadPool(workers, r -> daemon(r, "mail-worker-" + n.incrementAndGet()));
+    retryTimer = Executors.newSingleThreadScheduledExecutor(r -> daemon(r, "mail-retry"));
+    for (int i = 0; i < workers; i++) pool.submit(this::workLoop);
+  }
+
+  /**
+   * Stops accepting retries and lets workers flush what is already queued. Pending retries and
+   * whatever is still queued once the workers are gone end up in the dead-letter store.
+   */
+  @PreDestroy
+  public synchronized void stop() {
+    if (!running) return;
+    running = false;
+    retryTimer.shutdownNow();
+    pool.shutdown();
+    try {
+      if (!pool.awaitTermination(10, TimeUnit.SECONDS)) pool.shutdownNow();
+    } catch (InterruptedException e) {
+      pool.shutdownNow();
+      Thread.currentThread().interrupt();
+    }
+    // workers dead-letter their own failures once running is false, so nothing new is scheduled
+    for (Long id : List.copyOf(pendingRetries.keySet())) {
+      OutboundEmail e = pendingRetries.remove(id);
+      if (e != null) deadLetter(e, "shutdown before retry");
+    }
+    List<OutboundEmail> unsent = new ArrayList<>();
+    queue.drainTo(unsent);
+    unsent.forEach(e -> deadLetter(e, "shutdown before send"));
+  }
+
+  /** Non-blocking. Returns false (and dead-letters the email) when the queue is full. */
+  public boolean enqueue(OutboundEmail email) {
+    if (queue.offer(email)) return true;
+    rejected.increment();
+    deadLetter(email, "queue full");
+    return false;
+  }
+
+  public int queueDepth() { return queue.size(); }
+
+  int pendingRetryCount() { return pendingRetries.size(); }
+
+  /* ---------- worker ---------- */
+
+  private void workLoop() {
+    List<OutboundEmail> batch = new ArrayList<>(batchSize);
+    while (running || !queue.isEmpty()) {
+      try {
+        OutboundEmail first = queue.poll(500, TimeUnit.MILLISECONDS);
+        if (first == null) continue;
+        batch.add(first);
+        queue.drainTo(batch, batchSize - 1);
+        sendBatch(batch);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      } catch (Exception e) {
+        log.error("Mail worker error", e);
+      } finally {
+        batch.clear();
+      }
+    }
+  }
+
+  private void sendBatch(List<OutboundEmail> batch) {
+    Map<MimeMessage, OutboundEmail> byMessage = new LinkedHashMap<>();
+    for (OutboundEmail e : batch) {
+      try {
+        byMessage.put(toMime(e), e);
+      } catch (MessagingException | IllegalArgumentException ex) {
+        deadLetter(e, "invalid message: " + ex.getMessage()); // not retryable
+      }
+    }
+    if (byMessage.isEmpty()) return;
+
+    long start = System.nanoTime();
+    try {
+      mailSender.send(byMessage.keySet().toArray(new MimeMessage[0]));
+      sendLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+      byMessage.values().forEach(this::delivered);
+    } catch (MailSendException ex) {
+      sendLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+      Map<Object, Exception> failed = ex.getFailedMessages();
+      if (failed.isEmpty()) {
+        byMessage.values().forEach(e -> retryOrDeadLetter(e, ex));
+        return;
+      }
+      byMessage.forEach((msg, e) -> {
+        if (failed.containsKey(msg)) retryOrDeadLetter(e, failed.get(msg));
+        else delivered(e);
+      });
+    } catch (MailException ex) {
+      sendLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+      byMessage.values().forEach(e -> retryOrDeadLetter(e, ex));
+    }
+  }
+
+  private MimeMessage toMime(OutboundEmail e) throws MessagingException {
+    MimeMessage m = mailSender.createMimeMessage();
+    boolean multipart = e.html() != null;
+    MimeMessageHelper h = new MimeMessageHelper(m, multipart, StandardCharsets.UTF_8.name());
+    h.setFrom(from);
+    h.setTo(e.to());
+    h.setSubject(e.subject());
+    if (multipart) h.setText(e.body(), e.html());
+    else h.setText(e.body());
+    if (e.replyTo() != null && !e.replyTo().isBlank()) h.setReplyTo(e.replyTo()); // replies go to driver/rider
+    return m;
+  }
+
+  private void delivered(OutboundEmail e) {
+    sent.increment();
+    deliveryLatency.record(System.nanoTime() - e.enqueuedAtNanos(), TimeUnit.NANOSECONDS);
+  }
+
+  private void retryOrDeadLetter(OutboundEmail e, Exception cause) {
+    failures.increment();
+    OutboundEmail next = e.nextAttempt();
+    if (next.attempt() >= maxAttempts || !running) {
+      deadLetter(next, "send failed after " + next.attempt() + " attempt(s): " + cause.getMessage());
+      return;
+    }
+    long delay = backoffMillis(next.attempt());
+    long id = retryIds.incrementAndGet();
+    pendingRetries.put(id, next);
+    try {
+      retryTimer.schedule(() -> {
+        if (pendingRetries.remove(id) != null && !queue.offer(next)) deadLetter(next, "queue full on retry");
+      }, delay, TimeUnit.MILLISECONDS);
+    } catch (RuntimeException rejectedByShutdown) {
+      if (pendingRetries.remove(id) != null) deadLetter(next, "shutdown before retry");
+    }
+  }
+
+  /** initial * 2^(attempt-1), capped, with up to 20% jitter so retries don't stampede. */
+  long backoffMillis(int attempt) {
+    long base = backoffInitialMs << Math.min(20, Math.max(0, attempt - 1));
+    long capped = Math.min(backoffMaxMs, base);
+    return capped + ThreadLocalRandom.current().nextLong(capped / 5 + 1);
+  }
+
+  private void deadLetter(OutboundEmail e, String reason) {
+    deadLettered.increment();
+    deadLetters.add(e, reason);
+    log.warn("Mail to {} dead-lettered: {}", e.to(), reason);
+  }
+
+  private static Thread daemon(Runnable r, String name) {
+    Thread t = new Thread(r, name);
+    t.setDaemon(true);
+    return t;
+  }
+}
@@ -1,35 +1,28 @@
 package com.routelink.notification;
 
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
 
+/**
+ * Fire-and-forget email API. Messages are queued on the {@link EmailDispatcher}
+ * and delivered by its worker pool, so callers never block on SMTP.
+ */
 @Service
 public class EmailService {
-	  private final JavaMailSender mailSender;
+	  private final EmailDispatcher dispatcher;
 
-	  @Value("${app.mail.from:RouteLink <no-reply@routelink.local>}")
-	  private String from;
+	  public EmailService(EmailDispatcher dispatcher) { this.dispatcher = dispatcher; }
 
-	  public EmailService(JavaMailSender mailSender) { this.mailSender = mailSender; }
+	  /** @return false when the queue is full and the message went straight to the dead-letter store */
+	  public boolean sendText(String to, String subject, String body) {
+	    return dispatcher.enqueue(OutboundEmail.of(to, subject, body, null));
+	  }
 
-	  public void sendText(String to, String subject, String body) {
-	    SimpleMailMessage m = new SimpleMailMessage();
-	    m.setFrom(from);
-	    m.setTo(to);
-	    m.setSubject(subject);
-	    m.setText(body);
-	    mailSender.send(m);
+	  public boolean sendTextWithReplyTo(String to, String subject, String body, String replyTo) {
+	    return dispatcher.enqueue(OutboundEmail.of(to, subject, body, replyTo)); // replies go to driver/rider
 	  }
 
-	  public void sendTextWithReplyTo(String to, String subject, String body, String replyTo) {
-	    SimpleMailMessage m = new SimpleMailMessage();
-	    m.setFrom(from);
-	    m.setTo(to);
-	    m.setSubject(subject);
-	    m.setText(body);
-	    if (replyTo != null && !replyTo.isBlank()) m.setReplyTo(replyTo); // replies go to driver/rider
-	    mailSender.send(m);
+	  /** Plain-text + HTML alternative; clients pick the variant they can show. */
+	  public boolean send(String to, NotificationTemplates.Rendered mail) {
+	    return dispatcher.enqueue(OutboundEmail.of(to, mail.subject(), mail.text(), mail.html(), null));
 	  }
 	}
@@ -0,0 +1,94 @@
+package com.routelink.notification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A template parsed once into literal and placeholder segments.
+ * Syntax: {@code {{name}}}; names must be registered in the {@link TemplateBindings}.
+ * Null or blank text values render as "—". HTML templates escape every value.
+ */
+public final class MailTemplate<M> {
+
+  private sealed interface Segment<M> permits Literal, Slot {}
+  private record Literal<M>(String text) implements Segment<M> {}
+  private record Slot<M>(String name, TemplateBindings.Binding<M> binding) implements Segment<M> {}
+
+  private final String name;
+  private final boolean html;
+  private final List<Segment<M>> segments;
+  private final int sizeHint;
+
+  private MailTemplate(String name, boolean html, List<Segment<M>> segments, int sizeHint) {
+    this.name = name;
+    this.html = html;
+    this.segments = segments;
+    this.sizeHint = sizeHint;
+  }
+
+  public static <M> MailTemplate<M> compile(String name, String source, TemplateBindings<M> bindings, boolean html) {
+    List<Segment<M>> out = new ArrayList<>();
+    int literalChars = 0;
+    int i = 0;
+    while (i < source.length()) {
+      int open = source.indexOf("{{", i);
+      if (open < 0) {
+        out.add(new Literal<>(source.substring(i)));
+        literalChars += source.length() - i;
+        break;
+      }
+      if (open > i) {
+        out.add(new Literal<>(source.substring(i, open)));
+        literalChars += open - i;
+      }
+      int close = source.indexOf("}}", open + 2);
+      if (close < 0) throw new IllegalStateException(name + ": unclosed '{{' at offset " + open);
+      String key = source.substring(open + 2, close).trim();
+      TemplateBindings.Binding<M> b = bindings.get(key);
+      if (b == null) throw new IllegalStateException(name + ": unknown placeholder {{" + key + "}}");
+      out.add(new Slot<>(key, b));
+      i = close + 2;
+    }
+    return new MailTemplate<>(name, html, List.copyOf(out), literalChars + 16 * out.size());
+  }
+
+  public String name() { return name; }
+  public int sizeHint() { return sizeHint; }
+
+  /** Appends the rendered template to {@code sb}; the caller owns (and may reuse) the builder. */
+  public void renderTo(M model, StringBuilder sb) {
+    sb.ensureCapacity(sb.length() + sizeHint);
+    for (Segment<M> s : segments) {
+      if (s instanceof Literal<M> lit) {
+        sb.append(lit.text());
+      } else if (s instanceof Slot<M> slot) {
+        if (slot.binding() instanceof TemplateBindings.Int<M> n) {
+          sb.append(n.getter().applyAsInt(model));
+        } else if (slot.binding() instanceof TemplateBindings.Text<M> t) {
+          String v = t.getter().apply(model);
+          if (v == null || v.isBlank()) sb.append('—');
+          else if (html) escapeHtml(v, sb);
+          else sb.append(v);
+        }
+      }
+    }
+  }
+
+  private static void escapeHtml(String v, StringBuilder sb) {
+    int first = 0;
+    while (first < v.length() && "<>&\"'".indexOf(v.charAt(first)) < 0) first++;
+    if (first == v.length()) { sb.append(v); return; } // common case: nothing to escape
+    sb.append(v, 0, first);
+    for (int i = first; i < v.length(); i++) {
+      char c = v.charAt(i);
+      switch (c) {
+        case '<' -> sb.append("&lt;");
+        case '>' -> sb.append("&gt;");
+        case '&' -> sb.append("&amp;");
+        case '"' -> sb.append("&quot;");
+        case '\'' -> sb.append("&#39;");
+        default -> sb.append(c);
+      }
+    }
+  }
+}
@@ -1,21 +1,36 @@
 package com.routelink.notification;
 
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.List;
+
 @RestController
 public class MailTestController {
   private final EmailService email;
-  public MailTestController(EmailService email) { this.email = email; }
+  private final DeadLetterStore deadLetters;
+
+  public MailTestController(EmailService email, DeadLetterStore deadLetters) {
+    this.email = email;
+    this.deadLetters = deadLetters;
+  }
 
   @GetMapping("/dev/mail/test")   // <-- EXACT path you’re hitting
   public String test(@RequestParam String to) {
-    email.sendText(
+    boolean queued = email.sendText(
       to,
       "RouteLink Test",
       "✅ If you see this, Gmail SMTP is working.\n\n– RouteLink"
     );
-    return "Sent to " + to;
+    return queued ? "Queued for " + to : "Mail queue full, dead-lettered " + to;
+  }
+
+  /** Admin: inspect undeliverable mail */
+  @GetMapping("/dev/mail/dead-letters")
+  @PreAuthorize("hasRole('ADMIN')")
+  public List<DeadLetterStore.DeadLetter> deadLetters() {
+    return deadLetters.snapshot();
   }
 }
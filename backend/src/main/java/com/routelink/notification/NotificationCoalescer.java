@@ -0,0 +1,157 @@
+package com.routelink.notification;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-recipient digest buffer in front of {@link EmailService}.
+ *
+ * Non-urgent notifications for the same address are held for at most {@code window-sec}
+ * (counted from the first one) and then sent as one digest; the buffer is flushed early
+ * once it holds {@code max-items}. Urgent kinds, or a window of 0, go straight through.
+ * On shutdown whatever is buffered is sent, and later submissions are no longer held.
+ */
+@Component
+public class NotificationCoalescer {
+  private static final Logger log = LoggerFactory.getLogger(NotificationCoalescer.class);
+
+  private static final class Buffer {
+    final long openedAtMs;
+    final List<NotificationTemplates.Rendered> items = new ArrayList<>();
+    Buffer(long openedAtMs) { this.openedAtMs = openedAtMs; }
+  }
+
+  private final EmailService email;
+  private final long windowMs;
+  private final int maxItems;
+  private final Map<String, Buffer> buffers = new ConcurrentHashMap<>();
+
+  private final Counter buffered;
+  private final Counter digests;
+
+  private ScheduledExecutorService sweeper;
+  private volatile boolean stopped;
+
+  public NotificationCoalescer(
+      EmailService email,
+      MeterRegistry meters,
+      @Value("${app.mail.digest.window-sec:120}") long windowSec,
+      @Value("${app.mail.digest.max-items:10}") int maxItems) {
+    this.email = email;
+    this.windowMs = Math.max(0, windowSec) * 1000L;
+    this.maxItems = Math.max(1, maxItems);
+
+    meters.gauge("routelink.mail.digest.recipients", buffers, Map::size);
+    this.buffered = meters.counter("routelink.mail.digest.buffered");
+    this.digests = meters.counter("routelink.mail.digest.sent");
+  }
+
+  @PostConstruct
+  public void start() {
+    if (windowMs <= 0) return;
+    start(Executors.newSingleThreadScheduledExecutor(r -> {
+      Thread t = new Thread(r, "mail-digest-sweeper");
+      t.setDaemon(true);
+      return t;
+    }));
+  }
+
+  void start(ScheduledExecutorService sweeper) {
+    this.sweeper = sweeper;
+    long period = Math.max(250, Math.min(1000, windowMs / 4));
+    sweeper.scheduleWithFixedDelay(() -> flushExpired(System.currentTimeMillis()), period, period, TimeUnit.MILLISECONDS);
+  }
+
+  /** Sends whatever is still buffered so nothing is lost on shutdown. */
+  @PreDestroy
+  public void stop() {
+    stopped = true;
+    if (sweeper != null) sweeper.shutdownNow();
+    drain();
+  }
+
+  public void submit(String to, BookingMail kind, NotificationTemplates.Rendered mail) {
+    submit(to, kind, mail, System.currentTimeMillis());
+  }
+
+  void submit(String to, BookingMail kind, NotificationTemplates.Rendered mail, long nowMs) {
+    if (to == null || to.isBlank()) return;
+    if (kind.urgent() || windowMs <= 0 || stopped) {
+      email.send(to, mail);
+      return;
+    }
+
+    String key = to.trim().toLowerCase(Locale.ROOT);
+    List<List<NotificationTemplates.Rendered>> full = new ArrayList<>(1);
+    buffers.compute(key, (k, b) -> {
+      if (b == null) b = new Buffer(nowMs);
+      b.items.add(mail);
+      if (b.items.size() < maxItems) return b;
+      full.add(b.items); // size cap reached: flush now
+      return null;
+    });
+    buffered.increment();
+    if (!full.isEmpty()) send(key, full.get(0));
+    else if (stopped) drain(); // raced stop(): nothing will sweep this buffer any more
+  }
+
+  private void drain() {
+    for (String key : List.copyOf(buffers.keySet())) {
+      Buffer b = buffers.remove(key);
+      if (b != null) send(key, b.items);
+    }
+  }
+
+  void flushExpired(long now) {
+    for (String key : buffers.keySet()) {
+      List<List<NotificationTemplates.Rendered>> due = new ArrayList<>(1);
+      buffers.computeIfPresent(key, (k, b) -> {
+        if (now - b.openedAtMs < windowMs) return b;
+        due.add(b.items);
+        return null;
+      });
+      if (!due.isEmpty()) send(key, due.get(0));
+    }
+  }
+
+  private void send(String to, List<NotificationTemplates.Rendered> items) {
+    try {
+      if (items.size() == 1) {
+        email.send(to, items.get(0));
+      } else {
+        digests.increment();
+        email.send(to, digest(items));
+      }
+    } catch (Exception e) {
+      log.warn("Digest for {} failed: {}", to, e.getMessage());
+    }
+  }
+
+  static NotificationTemplates.Rendered digest(List<NotificationTemplates.Rendered> items) {
+    int n = items.size();
+    StringBuilder text = new StringBuilder(n * 400);
+    StringBuilder html = new StringBuilder(n * 600);
+    text.append("You have ").append(n).append(" RouteLink booking updates.\n");
+    html.append("<p>You have ").append(n).append(" RouteLink booking updates.</p>\n");
+    for (NotificationTemplates.Rendered r : items) {
+      text.append("\n-------- ").append(r.subject()).append(" --------\n\n").append(r.text()).append('\n');
+      html.append("<hr>\n<h3>").append(r.subject()).append("</h3>\n").append(r.html()).append('\n');
+    }
+    return new NotificationTemplates.Rendered("RouteLink: " + n + " booking updates", text.toString(), html.toString());
+  }
+}
@@ -0,0 +1,60 @@
+package com.routelink.notification;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Loads and compiles every booking template at startup; a missing file or unknown
+ * placeholder fails the boot. Rendering reuses a per-thread builder.
+ */
+@Component
+public class NotificationTemplates {
+
+  public record Rendered(String subject, String text, String html) {}
+
+  private record Pair(MailTemplate<BookingMailModel> text, MailTemplate<BookingMailModel> html) {}
+
+  private static final int MAX_RETAINED_CAPACITY = 16 * 1024;
+  private static final ThreadLocal<StringBuilder> BUF = ThreadLocal.withInitial(() -> new StringBuilder(1024));
+
+  private final Map<BookingMail, Pair> compiled = new EnumMap<>(BookingMail.class);
+
+  public NotificationTemplates() {
+    var bindings = BookingMailModel.bindings();
+    for (BookingMail m : BookingMail.values()) {
+      String base = "mail-templates/" + m.template();
+      compiled.put(m, new Pair(
+          MailTemplate.compile(base + ".txt", load(base + ".txt"), bindings, false),
+          MailTemplate.compile(base + ".html", load(base + ".html"), bindings, true)));
+    }
+  }
+
+  public Rendered render(BookingMail kind, BookingMailModel model) {
+    Pair p = compiled.get(kind);
+    return new Rendered(kind.subject(), render(p.text(), model), render(p.html(), model));
+  }
+
+  private static String render(MailTemplate<BookingMailModel> t, BookingMailModel model) {
+    StringBuilder sb = BUF.get();
+    if (sb.capacity() > MAX_RETAINED_CAPACITY) { sb = new StringBuilder(1024); BUF.set(sb); }
+    sb.setLength(0);
+    t.renderTo(model, sb);
+    return sb.toString();
+  }
+
+  private static String load(String path) {
+    try (InputStream in = new ClassPathResource(path).getInputStream()) {
+      String s = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+      return s.endsWith("\n") ? s.substring(0, s.length() - 1) : s; // editors add a final newline
+    } catch (IOException e) {
+      throw new UncheckedIOException("Missing mail template " + path, e);
+    }
+  }
+}
@@ -0,0 +1,24 @@
+package com.routelink.notification;
+
+/** One queued email. {@code attempt} counts failed sends so far. */
+public record OutboundEmail(
+    String to,
+    String subject,
+    String body,
+    String html,      // nullable; when set the mail is multipart/alternative
+    String replyTo,   // nullable
+    int attempt,
+    long enqueuedAtNanos
+) {
+  public static OutboundEmail of(String to, String subject, String body, String replyTo) {
+    return of(to, subject, body, null, replyTo);
+  }
+
+  public static OutboundEmail of(String to, String subject, String body, String html, String replyTo) {
+    return new OutboundEmail(to, subject, body, html, replyTo, 0, System.nanoTime());
+  }
+
+  OutboundEmail nextAttempt() {
+    return new OutboundEmail(to, subject, body, html, replyTo, attempt + 1, enqueuedAtNanos);
+  }
+}
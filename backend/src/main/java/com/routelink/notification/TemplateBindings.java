@@ -0,0 +1,35 @@
+package com.routelink.notification;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * Typed placeholder registry for one model type. Templates are compiled against it,
+ * so an unknown {@code {{name}}} fails at startup instead of rendering blank at send time.
+ */
+public final class TemplateBindings<M> {
+
+  /** How a bound value is appended. */
+  sealed interface Binding<M> permits Text, Int {}
+  record Text<M>(Function<M, String> getter) implements Binding<M> {}
+  record Int<M>(ToIntFunction<M> getter) implements Binding<M> {}
+
+  private final Map<String, Binding<M>> byName = new HashMap<>();
+
+  public TemplateBindings<M> text(String name, Function<M, String> getter) {
+    return put(name, new Text<>(getter));
+  }
+
+  public TemplateBindings<M> number(String name, ToIntFunction<M> getter) {
+    return put(name, new Int<>(getter));
+  }
+
+  Binding<M> get(String name) { return byName.get(name); }
+
+  private TemplateBindings<M> put(String name, Binding<M> b) {
+    if (byName.putIfAbsent(name, b) != null) throw new IllegalArgumentException("Duplicate placeholder: " + name);
+    return this;
+  }
+}
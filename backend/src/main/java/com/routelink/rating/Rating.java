@@ -9,18 +9,21 @@ import java.time.Instant;
 @Entity
 @Table(
   name = "ratings",
-  uniqueConstraints = @UniqueConstraint(columnNames = {"booking_id","rater_id"})
+  uniqueConstraints = @UniqueConstraint(name = "uq_ratings_booking_rater", columnNames = {"booking_id","rater_id"}),
+  // keyset pagination of a user's received ratings, newest first
+  indexes = @Index(name = "idx_ratings_ratee_created", columnList = "ratee_id, created_at DESC, id DESC")
 )
 public class Rating {
   @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
   private Long id;
 
-  @ManyToOne(optional = false) private Booking booking;
+  // all lazy: reading ratings must not pull in bookings, trips and users
+  @ManyToOne(fetch = FetchType.LAZY, optional = false) private Booking booking;
 
-  @ManyToOne(optional = false) @JoinColumn(name = "rater_id")
+  @ManyToOne(fetch = FetchType.LAZY, optional = false) @JoinColumn(name = "rater_id")
   private User rater;
 
-  @ManyToOne(optional = false) @JoinColumn(name = "ratee_id")
+  @ManyToOne(fetch = FetchType.LAZY, optional = false) @JoinColumn(name = "ratee_id")
   private User ratee;
 
   private int stars;
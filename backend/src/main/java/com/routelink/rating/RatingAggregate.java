@@ -0,0 +1,41 @@
+// src/main/java/com/routelink/rating/RatingAggregate.java
+package com.routelink.rating;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * Running reputation totals for one user (the ratee).
+ *
+ * Only ever changed by the atomic upsert in {@link RatingAggregateRepository#record}, never by
+ * loading and saving the entity, so concurrent ratings can't lose updates.
+ */
+@Entity
+@Table(name = "rating_aggregates")
+public class RatingAggregate {
+  @Id
+  @Column(name = "user_id")
+  private Long userId;
+
+  @Column(name = "rating_sum", nullable = false) private long ratingSum;
+  @Column(name = "rating_count", nullable = false) private int ratingCount;
+
+  // histogram: number of 1..5 star ratings received
+  @Column(name = "stars_1", nullable = false) private int stars1;
+  @Column(name = "stars_2", nullable = false) private int stars2;
+  @Column(name = "stars_3", nullable = false) private int stars3;
+  @Column(name = "stars_4", nullable = false) private int stars4;
+  @Column(name = "stars_5", nullable = false) private int stars5;
+
+  @Column(name = "updated_at", nullable = false)
+  private Instant updatedAt;
+
+  protected RatingAggregate() {}
+
+  public Long getUserId() { return userId; }
+  public long getRatingSum() { return ratingSum; }
+  public int getRatingCount() { return ratingCount; }
+  public double getAverage() { return ratingCount == 0 ? 0.0 : (double) ratingSum / ratingCount; }
+  public int[] getHistogram() { return new int[] { stars1, stars2, stars3, stars4, stars5 }; }
+  public Instant getUpdatedAt() { return updatedAt; }
+}
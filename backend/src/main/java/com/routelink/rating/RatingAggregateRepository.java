@@ -0,0 +1,52 @@
+// src/main/java/com/routelink/rating/RatingAggregateRepository.java
+package com.routelink.rating;
+
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+public interface RatingAggregateRepository extends JpaRepository<RatingAggregate, Long> {
+
+  /**
+   * Adds one rating to the ratee's totals in a single statement: upsert with in-place
+   * increments (the row lock serialises concurrent raters), then copy the new count/average
+   * into the two denormalised users columns. No other users column is written.
+   *
+   * Declares only rating_aggregates as its query space: left undeclared, Hibernate would drop
+   * every second-level cache region on each rating. The caller evicts the one cached user
+   * ({@code UserCache.evictAfterCommit}); cached user queries don't read the rating columns.
+   */
+  @Modifying
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "rating_aggregates"))
+  @Query(nativeQuery = true, value = """
+      with agg as (
+        insert into rating_aggregates
+          (user_id, rating_sum, rating_count, stars_1, stars_2, stars_3, stars_4, stars_5, updated_at)
+        values
+          (:userId, :stars, 1,
+           case when :stars = 1 then 1 else 0 end, case when :stars = 2 then 1 else 0 end,
+           case when :stars = 3 then 1 else 0 end, case when :stars = 4 then 1 else 0 end,
+           case when :stars = 5 then 1 else 0 end, now())
+        on conflict (user_id) do update set
+          rating_sum   = rating_aggregates.rating_sum + excluded.rating_sum,
+          rating_count = rating_aggregates.rating_count + 1,
+          stars_1      = rating_aggregates.stars_1 + excluded.stars_1,
+          stars_2      = rating_aggregates.stars_2 + excluded.stars_2,
+          stars_3      = rating_aggregates.stars_3 + excluded.stars_3,
+          stars_4      = rating_aggregates.stars_4 + excluded.stars_4,
+          stars_5      = rating_aggregates.stars_5 + excluded.stars_5,
+          updated_at   = excluded.updated_at
+        returning user_id, rating_sum, rating_count
+      )
+      update users u
+         set rating_count = agg.rating_count,
+             rating_avg   = cast(agg.rating_sum as double precision) / agg.rating_count
+        from agg
+       where u.id = agg.user_id
+      """)
+  int record(@Param("userId") Long userId, @Param("stars") int stars);
+}
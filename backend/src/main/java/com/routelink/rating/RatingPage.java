@@ -0,0 +1,7 @@
+// src/main/java/com/routelink/rating/RatingPage.java
+package com.routelink.rating;
+
+import java.util.List;
+
+/** A page of ratings; pass {@code nextCursor} back as {@code ?cursor=} for the next one (null at the end). */
+public record RatingPage(List<RatingView> items, String nextCursor) {}
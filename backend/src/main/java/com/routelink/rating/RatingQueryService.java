@@ -0,0 +1,66 @@
+// src/main/java/com/routelink/rating/RatingQueryService.java
+package com.routelink.rating;
+
+import com.routelink.common.BadRequestException;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+
+@Service
+public class RatingQueryService {
+  static final int MAX_PAGE = 100;
+
+  /** Position after the last row of a page: (createdAt, id) of that row. */
+  record Cursor(Instant at, long id) {}
+
+  // first page: a cursor past anything that can exist
+  private static final Instant FAR_FUTURE = Instant.parse("9999-12-31T23:59:59Z");
+
+  private final RatingRepository ratings;
+  private final ReputationService reputations;
+
+  public RatingQueryService(RatingRepository ratings, ReputationService reputations) {
+    this.ratings = ratings;
+    this.reputations = reputations;
+  }
+
+  @Transactional(readOnly = true)
+  public RatingPage received(Long userId, String cursor, int limit) {
+    int size = Math.max(1, Math.min(MAX_PAGE, limit));
+    Cursor after = (cursor == null || cursor.isBlank()) ? new Cursor(FAR_FUTURE, Long.MAX_VALUE) : decode(cursor);
+
+    // one extra row tells us whether there is a next page without a count query
+    List<RatingView> rows = ratings.findReceivedBefore(userId, after.at(), after.id(), Limit.of(size + 1));
+    if (rows.size() <= size) return new RatingPage(rows, null);
+
+    List<RatingView> page = rows.subList(0, size);
+    RatingView last = page.get(size - 1);
+    return new RatingPage(List.copyOf(page), encode(new Cursor(last.createdAt(), last.id())));
+  }
+
+  /** Cached; see {@link ReputationService}. */
+  public Reputation summary(Long userId) {
+    return reputations.forUsers(List.of(userId)).get(userId);
+  }
+
+  static String encode(Cursor c) {
+    String raw = c.at() + "|" + c.id();
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  static Cursor decode(String cursor) {
+    try {
+      String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+      int bar = raw.lastIndexOf('|');
+      return new Cursor(Instant.parse(raw.substring(0, bar)), Long.parseLong(raw.substring(bar + 1)));
+    } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+      throw new BadRequestException("Invalid cursor");
+    }
+  }
+}
@@ -1,8 +1,31 @@
 // src/main/java/com/routelink/rating/RatingRepository.java
 package com.routelink.rating;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
 
 public interface RatingRepository extends JpaRepository<Rating, Long> {
   boolean existsByBooking_IdAndRater_Id(Long bookingId, Long raterId);
+
+  /**
+   * Ratings received by a user, newest first, strictly after the (createdAt, id) cursor.
+   * Narrow projection plus keyset: cost is independent of page depth and never loads entities.
+   */
+  @Query("""
+      select new com.routelink.rating.RatingView(
+               r.id, r.booking.id, rater.id, rater.name, r.stars, r.comment, r.createdAt)
+        from Rating r join r.rater rater
+       where r.ratee.id = :rateeId
+         and (r.createdAt < :beforeAt or (r.createdAt = :beforeAt and r.id < :beforeId))
+       order by r.createdAt desc, r.id desc
+      """)
+  List<RatingView> findReceivedBefore(@Param("rateeId") Long rateeId,
+                                      @Param("beforeAt") Instant beforeAt,
+                                      @Param("beforeId") Long beforeId,
+                                      Limit limit);
 }
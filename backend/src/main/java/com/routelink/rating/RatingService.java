@@ -6,10 +6,11 @@ import com.routelink.booking.BookingRepository;
 import com.routelink.common.BadRequestException;
 import com.routelink.common.ForbiddenException;
 import com.routelink.common.NotFoundException;
+import com.routelink.security.CurrentUser;
+import com.routelink.trip.TripSearchIndex;
 import com.routelink.trip.TripStatus;
 import com.routelink.user.User;
-import com.routelink.user.UserRepository;
-import org.springframework.security.core.context.SecurityContextHolder;
+import com.routelink.user.UserCache;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -18,30 +19,34 @@ public class RatingService {
 
   private final RatingRepository ratings;
   private final BookingRepository bookings;
-  private final UserRepository users;
-
-  public RatingService(RatingRepository ratings, BookingRepository bookings, UserRepository users) {
+  private final RatingAggregateRepository aggregates;
+  private final ReputationService reputations;
+  private final UserCache userCache;
+  private final TripSearchIndex searchIndex;
+  private final CurrentUser currentUser;
+
+  public RatingService(RatingRepository ratings, BookingRepository bookings,
+                       RatingAggregateRepository aggregates, ReputationService reputations,
+                       UserCache userCache, TripSearchIndex searchIndex, CurrentUser currentUser) {
     this.ratings = ratings;
     this.bookings = bookings;
-    this.users = users;
+    this.aggregates = aggregates;
+    this.reputations = reputations;
+    this.userCache = userCache;
+    this.searchIndex = searchIndex;
+    this.currentUser = currentUser;
   }
 
   public record CreateRating(Long bookingId, int stars, String comment) {}
 
-  private User requireMe() {
-    var auth = SecurityContextHolder.getContext().getAuthentication();
-    if (auth == null || auth.getName() == null) throw new BadRequestException("Unauthenticated");
-    return users.findByEmail(auth.getName()).orElseThrow(() -> new NotFoundException("User not found"));
-  }
-
   @Transactional
   public Rating rate(CreateRating req) {
     if (req.bookingId() == null) throw new BadRequestException("bookingId is required");
     if (req.stars() < 1 || req.stars() > 5) throw new BadRequestException("stars must be 1..5");
 
-    User me = requireMe();
+    Long meId = currentUser.id();
 
-    Booking b = bookings.findById(req.bookingId())
+    Booking b = bookings.findWithTripById(req.bookingId()) // trip fetched in the same statement
         .orElseThrow(() -> new NotFoundException("Booking not found"));
 
     // Only after the trip is CLOSED
@@ -53,36 +58,32 @@ public class RatingService {
 
     // Who am I rating?
     final User ratee;
-    if (me.getId().equals(riderId)) {
+    if (meId.equals(riderId)) {
       ratee = b.getTrip().getDriver();             // rider rates driver
-    } else if (me.getId().equals(driverId)) {
+    } else if (meId.equals(driverId)) {
       ratee = b.getRider();                        // driver rates rider
     } else {
       throw new ForbiddenException("Not your booking");
     }
 
     // Only one rating per person per booking
-    if (ratings.existsByBooking_IdAndRater_Id(b.getId(), me.getId()))
+    if (ratings.existsByBooking_IdAndRater_Id(b.getId(), meId))
       throw new BadRequestException("You already rated this booking");
 
     // Save rating
     Rating r = new Rating();
     r.setBooking(b);
-    r.setRater(me);
+    r.setRater(currentUser.reference()); // FK only, no user SELECT
     r.setRatee(ratee);
     r.setStars(req.stars());
     r.setComment(req.comment());
     Rating saved = ratings.save(r);
 
-    // Roll-up into user's average + count (simple incremental)
-    int    count = ratee.getRatingCount();   // e.g., 0 on a new user
-    double avg   = ratee.getRatingAvg();     // e.g., 0.0 on a new user
-
-    double newAvg = ((avg * count) + req.stars()) / (count + 1.0);
-
-    ratee.setRatingCount(count + 1);
-    ratee.setRatingAvg(newAvg);
-    users.save(ratee);
+    // Roll-up: one atomic upsert (sum/count/histogram), no read-modify-write on User
+    aggregates.record(ratee.getId(), req.stars());
+    reputations.evictAfterCommit(ratee.getId());
+    userCache.evictAfterCommit(ratee.getId()); // cached row still has the old rating columns
+    searchIndex.driverRated(ratee.getId());     // no-op unless the ratee drives open trips
 
     return saved;
   }
@@ -0,0 +1,10 @@
+// src/main/java/com/routelink/rating/RatingView.java
+package com.routelink.rating;
+
+import java.time.Instant;
+
+/** One received rating as shown on a profile page (no entity graph behind it). */
+public record RatingView(
+    Long id, Long bookingId, Long raterId, String raterName,
+    int stars, String comment, Instant createdAt
+) {}
@@ -0,0 +1,23 @@
+// src/main/java/com/routelink/rating/Reputation.java
+package com.routelink.rating;
+
+/** Read-only reputation summary embedded in search results. histogram[i] = number of (i+1)-star ratings. */
+public record Reputation(Long userId, double avg, int count, int[] histogram) {
+
+  public static Reputation none(Long userId) {
+    return new Reputation(userId, 0.0, 0, new int[5]);
+  }
+
+  public static Reputation from(RatingAggregate a) {
+    return new Reputation(a.getUserId(), a.getAverage(), a.getRatingCount(), a.getHistogram());
+  }
+
+  /**
+   * Average pulled toward {@code prior} by {@code weight} phantom ratings, so one 5-star review
+   * doesn't outrank fifty 4.8s. Returns 0..1.
+   */
+  public double smoothedScore(double prior, int weight) {
+    double smoothed = (prior * weight + avg * count) / (weight + count);
+    return smoothed / 5.0;
+  }
+}
@@ -0,0 +1,73 @@
+// src/main/java/com/routelink/rating/ReputationService.java
+package com.routelink.rating;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Batched reputation lookup for a page of results.
+ *
+ * Answers from a short-lived in-memory cache and fetches all misses with one
+ * {@code findAllById} on rating_aggregates, so a result page costs at most one query
+ * instead of one client round trip per trip. New ratings evict the ratee after commit.
+ */
+@Service
+public class ReputationService {
+  private record Cached(Reputation value, long loadedAtMs) {}
+
+  private final RatingAggregateRepository aggregates;
+  private final long ttlMs;
+  private final int maxEntries;
+  private final Map<Long, Cached> cache = new ConcurrentHashMap<>();
+
+  public ReputationService(RatingAggregateRepository aggregates,
+                           @Value("${app.reputation.cache-ttl-sec:60}") long ttlSec,
+                           @Value("${app.reputation.cache-max-entries:10000}") int maxEntries) {
+    this.aggregates = aggregates;
+    this.ttlMs = Math.max(0, ttlSec) * 1000L;
+    this.maxEntries = Math.max(1, maxEntries);
+  }
+
+  /** Reputation for every id (users without ratings get {@link Reputation#none}). Null ids are skipped. */
+  public Map<Long, Reputation> forUsers(Collection<Long> userIds) {
+    Map<Long, Reputation> out = new HashMap<>();
+    Set<Long> missing = new HashSet<>();
+    long now = System.currentTimeMillis();
+    for (Long id : userIds) {
+      if (id == null || out.containsKey(id)) continue;
+      Cached c = cache.get(id);
+      if (c != null && now - c.loadedAtMs() < ttlMs) out.put(id, c.value());
+      else missing.add(id);
+    }
+    if (missing.isEmpty()) return out;
+
+    for (RatingAggregate a : aggregates.findAllById(missing)) out.put(a.getUserId(), Reputation.from(a));
+    for (Long id : missing) out.putIfAbsent(id, Reputation.none(id));
+
+    if (ttlMs > 0) {
+      if (cache.size() > maxEntries) cache.clear(); // crude bound; entries are cheap to reload
+      for (Long id : missing) cache.put(id, new Cached(out.get(id), now));
+    }
+    return out;
+  }
+
+  /** Drops the cached entry once the current transaction commits (immediately if there is none). */
+  public void evictAfterCommit(Long userId) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      cache.remove(userId);
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override public void afterCommit() { cache.remove(userId); }
+    });
+  }
+}
@@ -0,0 +1,25 @@
+// src/main/java/com/routelink/rating/UserRatingsController.java
+package com.routelink.rating;
+
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/users/{userId}/ratings")
+public class UserRatingsController {
+  private final RatingQueryService service;
+  public UserRatingsController(RatingQueryService service) { this.service = service; }
+
+  // Ratings received by the user, newest first: ?limit=20&cursor=<nextCursor from previous page>
+  @GetMapping
+  public RatingPage list(@PathVariable Long userId,
+                         @RequestParam(required = false) String cursor,
+                         @RequestParam(defaultValue = "20") int limit) {
+    return service.received(userId, cursor, limit);
+  }
+
+  // avg / count / histogram, cached and refreshed after each new rating
+  @GetMapping("/summary")
+  public Reputation summary(@PathVariable Long userId) {
+    return service.summary(userId);
+  }
+}
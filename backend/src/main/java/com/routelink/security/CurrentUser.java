@@ -0,0 +1,73 @@
+package com.routelink.security;
+
+import com.routelink.user.User;
+import com.routelink.user.UserRepository;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.function.Supplier;
+
+/**
+ * Single place to resolve "who is calling".
+ *
+ * The id comes from the token's uid claim ({@link JwtPrincipal}) without touching the DB.
+ * {@link #reference()} is a JPA proxy for setting associations (no query); {@link #user()}
+ * loads the full row once and caches it for the rest of the HTTP request.
+ */
+@Component
+public class CurrentUser {
+  private static final String ID_ATTR = CurrentUser.class.getName() + ".id";
+  private static final String USER_ATTR = CurrentUser.class.getName() + ".user";
+
+  private final UserRepository users;
+
+  public CurrentUser(UserRepository users) { this.users = users; }
+
+  public String email() {
+    return authentication().getName();
+  }
+
+  public Long id() {
+    Authentication auth = authentication();
+    if (auth.getPrincipal() instanceof JwtPrincipal p) return p.uid();
+    // legacy principal (UserDetails): one lookup per request
+    return requestCached(ID_ATTR, () -> users.findByEmail(auth.getName())
+        .map(User::getId)
+        .orElseThrow(() -> new IllegalStateException("Unauthenticated")));
+  }
+
+  /** Uninitialized proxy; use inside a transaction to set a foreign key without a SELECT. */
+  public User reference() {
+    return users.getReferenceById(id());
+  }
+
+  /** Full entity, loaded at most once per request. Detached outside the loading transaction. */
+  public User user() {
+    Long id = id();
+    return requestCached(USER_ATTR, () -> users.findById(id)
+        .orElseThrow(() -> new IllegalStateException("Unauthenticated")));
+  }
+
+  private static Authentication authentication() {
+    Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+    if (auth == null || auth.getName() == null || auth instanceof AnonymousAuthenticationToken)
+      throw new IllegalStateException("Unauthenticated");
+    return auth;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> T requestCached(String key, Supplier<T> loader) {
+    RequestAttributes attrs = RequestContextHolder.getRequestAttributes();
+    if (attrs == null) return loader.get(); // not in a web request (jobs, tests)
+    Object v = attrs.getAttribute(key, RequestAttributes.SCOPE_REQUEST);
+    if (v == null) {
+      v = loader.get();
+      attrs.setAttribute(key, v, RequestAttributes.SCOPE_REQUEST);
+    }
+    return (T) v;
+  }
+}
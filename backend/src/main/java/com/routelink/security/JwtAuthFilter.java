@@ -4,7 +4,10 @@ import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import io.jsonwebtoken.Claims;
 import java.io.IOException;
+import java.util.Optional;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -16,12 +19,22 @@ import org.springframework.web.filter.OncePerRequestFilter;
 @Component
 public class JwtAuthFilter extends OncePerRequestFilter {
 
+  private static final String STREAM_PATH = "/api/bookings/stream";
+
   private final JwtUtil jwt;
   private final UserDetailsService uds;
+  private final TokenRevalidator revalidator;
+  private final StreamTickets tickets;
+  private final boolean stateless;
 
-  public JwtAuthFilter(JwtUtil jwt, AppUserDetailsService uds) {
+  public JwtAuthFilter(JwtUtil jwt, AppUserDetailsService uds, TokenRevalidator revalidator,
+                       StreamTickets tickets,
+                       @Value("${security.jwt.stateless:true}") boolean stateless) {
     this.jwt = jwt;
     this.uds = uds;
+    this.revalidator = revalidator;
+    this.tickets = tickets;
+    this.stateless = stateless;
   }
 
   @Override
@@ -36,19 +49,38 @@ public class JwtAuthFilter extends OncePerRequestFilter {
     }
 
     String header = req.getHeader(HttpHeaders.AUTHORIZATION);
-    if (header == null || !header.startsWith("Bearer ")) {
+    String token;
+    if (header != null && header.startsWith("Bearer ")) {
+      token = header.substring(7);
+    } else if (STREAM_PATH.equals(path) && req.getParameter("ticket") != null) {
+      // EventSource can't send headers: a single-use ticket from POST /api/bookings/stream/ticket
+      UsernamePasswordAuthenticationToken auth = tickets.redeem(req.getParameter("ticket"));
+      if (auth != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+        auth.setDetails(new WebAuthenticationDetailsSource().buildDetails(req));
+        SecurityContextHolder.getContext().setAuthentication(auth);
+      }
+      chain.doFilter(req, res);
+      return;
+    } else {
       chain.doFilter(req, res);
       return;
     }
 
-    String token = header.substring(7);
     try {
-      String email = jwt.subject(token);
-      if (email != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-        UserDetails ud = uds.loadUserByUsername(email);
-        if (jwt.isTokenValid(token, ud)) {
-          UsernamePasswordAuthenticationToken auth =
-              new UsernamePasswordAuthenticationToken(ud, null, ud.getAuthorities());
+      if (SecurityContextHolder.getContext().getAuthentication() == null) {
+        Claims claims = jwt.claims(token); // signature + exp verified once
+        UsernamePasswordAuthenticationToken auth = null;
+        var principal = stateless ? jwt.principal(claims) : Optional.<JwtPrincipal>empty();
+        if (principal.isPresent()) {
+          // principal straight from claims: no DB round trip unless revalidation is on
+          JwtPrincipal p = principal.get();
+          if (revalidator.stillValid(p)) auth = new UsernamePasswordAuthenticationToken(p, null, p.authorities());
+        } else {
+          // legacy mode, or a token issued before the uid/roles claims existed
+          UserDetails ud = uds.loadUserByUsername(claims.getSubject());
+          if (jwt.isTokenValid(claims, ud)) auth = new UsernamePasswordAuthenticationToken(ud, null, ud.getAuthorities());
+        }
+        if (auth != null) {
           auth.setDetails(new WebAuthenticationDetailsSource().buildDetails(req));
           SecurityContextHolder.getContext().setAuthentication(auth);
         }
@@ -0,0 +1,20 @@
+package com.routelink.security;
+
+import org.springframework.security.core.AuthenticatedPrincipal;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+
+/**
+ * Principal built straight from verified token claims (sub, uid, roles).
+ * {@link #getName()} is the email, so {@code Authentication.getName()} keeps working everywhere.
+ */
+public record JwtPrincipal(Long uid, String email, List<String> roles) implements AuthenticatedPrincipal {
+
+  @Override public String getName() { return email; }
+
+  public List<GrantedAuthority> authorities() {
+    return roles.stream().<GrantedAuthority>map(r -> new SimpleGrantedAuthority("ROLE_" + r)).toList();
+  }
+}
@@ -2,15 +2,25 @@ package com.routelink.security;
 
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.Collection;
+import java.util.Base64;
 import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import javax.crypto.SecretKey;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -18,20 +28,53 @@ import org.springframework.stereotype.Component;
 
 @Component
 public class JwtUtil {
+  /** Verified claims, valid until the token's own exp. */
+  private record Verified(Claims claims, long expMillis) {}
+
+  private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  });
+
   private final String issuer;
   private final SecretKey key;
   private final long ttlMillis;
   private final long skewMillis;
 
+  // immutable and thread-safe once built; building it per call was most of the parse cost
+  private final JwtParser parser;
+
+  // sha256(token) -> claims; tokens are only cached after the signature checked out
+  private final Map<String, Verified> verified = new ConcurrentHashMap<>();
+  private final int cacheSize;
+  private final Counter cacheHits;
+  private final Counter cacheMisses;
+
   public JwtUtil(
       @Value("${security.jwt.issuer:routelink}") String issuer,
       @Value("${security.jwt.secret:change_me_change_me_change_me_change_me_32bytes}") String secret,
-      @Value("${security.jwt.ttl-min:1440}") long ttlMin) {
+      @Value("${security.jwt.ttl-min:1440}") long ttlMin,
+      @Value("${security.jwt.cache-size:10000}") int cacheSize,
+      MeterRegistry meters) {
 
     this.issuer = issuer;
     this.key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8)); // >=32 bytes
     this.ttlMillis = ttlMin * 60_000L;
     this.skewMillis = Duration.ofSeconds(30).toMillis();
+    this.parser = Jwts.parser()
+        .clock(Date::new)
+        .clockSkewSeconds(skewMillis / 1000)
+        .verifyWith(key)
+        .build();
+
+    this.cacheSize = Math.max(0, cacheSize);
+    this.cacheHits = meters.counter("routelink.jwt.cache", "result", "hit");
+    this.cacheMisses = meters.counter("routelink.jwt.cache", "result", "miss");
+    meters.gauge("routelink.jwt.cache.size", verified, Map::size);
+    meters.gauge("routelink.jwt.cache.hit_ratio", this, JwtUtil::cacheHitRatio);
   }
 
   public String create(String subject, Map<String, Object> claims) {
@@ -46,28 +89,101 @@ public class JwtUtil {
         .compact();
   }
 
+  /**
+   * Verified claims for the token. A token seen recently is served from the cache without
+   * re-checking the signature or re-parsing the JSON; entries expire with the token.
+   * Throws {@link JwtException} for invalid or expired tokens, same as the parser.
+   */
   public Claims claims(String token) {
-    return Jwts.parser()
-        .clock(Date::new)
-        .setAllowedClockSkewSeconds(skewMillis / 1000)
-        .verifyWith(key)
-        .build()
-        .parseSignedClaims(token)
-        .getPayload();
+    if (cacheSize == 0 || token == null) return parser.parseSignedClaims(token).getPayload();
+
+    String digest = digest(token);
+    long now = System.currentTimeMillis();
+    Verified hit = verified.get(digest);
+    if (hit != null) {
+      if (now < hit.expMillis()) {
+        cacheHits.increment();
+        return hit.claims();
+      }
+      verified.remove(digest, hit);
+    }
+
+    cacheMisses.increment();
+    Claims c = parser.parseSignedClaims(token).getPayload();
+    Date exp = c.getExpiration();
+    if (exp != null && exp.getTime() > now) remember(digest, new Verified(c, exp.getTime()));
+    return c;
+  }
+
+  public double cacheHitRatio() {
+    double hits = cacheHits.count(), total = hits + cacheMisses.count();
+    return total == 0 ? 0 : hits / total;
+  }
+
+  private void remember(String digest, Verified v) {
+    if (verified.size() >= cacheSize) {
+      long now = System.currentTimeMillis();
+      verified.values().removeIf(e -> e.expMillis() <= now);
+      // still full of live tokens: drop an arbitrary slice rather than grow
+      Iterator<String> it = verified.keySet().iterator();
+      for (int n = cacheSize / 10 + 1; verified.size() >= cacheSize && n > 0 && it.hasNext(); n--) {
+        it.next();
+        it.remove();
+      }
+    }
+    verified.put(digest, v);
+  }
+
+  private static String digest(String token) {
+    byte[] h = SHA256.get().digest(token.getBytes(StandardCharsets.US_ASCII));
+    return Base64.getEncoder().withoutPadding().encodeToString(h);
   }
 
   public String subject(String token) { return claims(token).getSubject(); }
 
   public boolean isTokenValid(String token, UserDetails ud) {
     try {
-      Claims c = claims(token);
-      if (issuer != null && !issuer.equals(c.getIssuer())) return false;
-      String sub = c.getSubject();
-      if (sub == null || ud == null || !sub.equalsIgnoreCase(ud.getUsername())) return false;
-      Date exp = c.getExpiration();
-      return exp != null && exp.toInstant().isAfter(Instant.now().minusMillis(skewMillis));
+      return isTokenValid(claims(token), ud);
     } catch (JwtException | IllegalArgumentException e) {
       return false;
     }
   }
+
+  /** Same checks on already-verified claims, so callers don't parse the token twice. */
+  public boolean isTokenValid(Claims c, UserDetails ud) {
+    if (!issuedByUs(c)) return false;
+    String sub = c.getSubject();
+    return sub != null && ud != null && sub.equalsIgnoreCase(ud.getUsername());
+  }
+
+  /**
+   * Verifies the token once and builds the principal from its claims.
+   * Empty if the token is invalid/expired, or predates the uid/roles claims.
+   */
+  public Optional<JwtPrincipal> principal(String token) {
+    Claims c;
+    try {
+      c = claims(token);
+    } catch (JwtException | IllegalArgumentException e) {
+      return Optional.empty();
+    }
+    return principal(c);
+  }
+
+  public Optional<JwtPrincipal> principal(Claims c) {
+    if (!issuedByUs(c) || c.getSubject() == null) return Optional.empty();
+    if (!(c.get("uid") instanceof Number uid)) return Optional.empty();
+    Object raw = c.get("roles");
+    List<String> roles;
+    if (raw instanceof Collection<?> col) roles = col.stream().map(String::valueOf).toList();
+    else if (raw instanceof String one && !one.isBlank()) roles = List.of(one);  // AuthService issues a plain string
+    else return Optional.empty();
+    return Optional.of(new JwtPrincipal(uid.longValue(), c.getSubject(), roles));
+  }
+
+  private boolean issuedByUs(Claims c) {
+    if (issuer != null && !issuer.equals(c.getIssuer())) return false;
+    Date exp = c.getExpiration();
+    return exp != null && exp.toInstant().isAfter(Instant.now().minusMillis(skewMillis));
+  }
 }
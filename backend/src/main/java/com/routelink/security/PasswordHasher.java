@@ -0,0 +1,111 @@
+package com.routelink.security;
+
+import com.routelink.common.ServiceUnavailableException;
+import com.routelink.common.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs BCrypt off the Tomcat worker threads.
+ *
+ * Hashing gets its own fixed pool with a short bounded queue, sized independently of the web
+ * thread pool, so a login burst costs at most {@code threads} cores and never parks request
+ * threads. When the queue is full callers get 429 straight away; work that waited longer than
+ * {@code max-queue-wait-ms} is dropped with 503 because the client has likely given up.
+ */
+@Component
+public class PasswordHasher {
+  private final PasswordEncoder encoder;
+  private final ThreadPoolExecutor pool;
+  private final long maxQueueWaitNanos;
+  private final long retryAfterSec;
+
+  private final Timer encodeLatency;
+  private final Timer matchLatency;
+  private final Timer queueWait;
+  private final Counter rejectedFull;
+  private final Counter rejectedStale;
+
+  public PasswordHasher(
+      PasswordEncoder encoder,
+      MeterRegistry meters,
+      @Value("${app.auth.hash.threads:2}") int threads,
+      @Value("${app.auth.hash.queue-capacity:32}") int queueCapacity,
+      @Value("${app.auth.hash.max-queue-wait-ms:2000}") long maxQueueWaitMs,
+      @Value("${app.auth.hash.retry-after-sec:2}") long retryAfterSec) {
+    this.encoder = encoder;
+    this.maxQueueWaitNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, maxQueueWaitMs));
+    this.retryAfterSec = Math.max(1, retryAfterSec);
+
+    int n = Math.max(1, threads);
+    AtomicInteger seq = new AtomicInteger();
+    this.pool = new ThreadPoolExecutor(n, n, 0, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+        r -> {
+          Thread t = new Thread(r, "password-hash-" + seq.incrementAndGet());
+          t.setDaemon(true);
+          return t;
+        },
+        new ThreadPoolExecutor.AbortPolicy());
+
+    this.encodeLatency = Timer.builder("routelink.auth.hash.latency").tag("op", "encode").register(meters);
+    this.matchLatency = Timer.builder("routelink.auth.hash.latency").tag("op", "matches").register(meters);
+    this.queueWait = Timer.builder("routelink.auth.hash.queue.wait")
+        .description("Time a hashing task spent waiting for a thread").register(meters);
+    this.rejectedFull = meters.counter("routelink.auth.hash.rejected", "reason", "queue_full");
+    this.rejectedStale = meters.counter("routelink.auth.hash.rejected", "reason", "queue_timeout");
+    meters.gauge("routelink.auth.hash.queue.depth", pool, p -> p.getQueue().size());
+    meters.gauge("routelink.auth.hash.active", pool, ThreadPoolExecutor::getActiveCount);
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    pool.shutdownNow();
+  }
+
+  public CompletableFuture<String> encode(String raw) {
+    return submit(encodeLatency, () -> encoder.encode(raw));
+  }
+
+  public CompletableFuture<Boolean> matches(String raw, String hash) {
+    return submit(matchLatency, () -> encoder.matches(raw, hash));
+  }
+
+  private <T> CompletableFuture<T> submit(Timer latency, Supplier<T> work) {
+    CompletableFuture<T> result = new CompletableFuture<>();
+    long queuedAt = System.nanoTime();
+    try {
+      pool.execute(() -> {
+        long waited = System.nanoTime() - queuedAt;
+        queueWait.record(waited, TimeUnit.NANOSECONDS);
+        if (waited > maxQueueWaitNanos) {
+          rejectedStale.increment();
+          result.completeExceptionally(new ServiceUnavailableException("Authentication is busy, please retry", retryAfterSec));
+          return;
+        }
+        try {
+          result.complete(latency.record(work));
+        } catch (RuntimeException e) {
+          result.completeExceptionally(e);
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      rejectedFull.increment();
+      throw new TooManyRequestsException("Too many sign-in attempts, please retry shortly", retryAfterSec);
+    }
+    return result;
+  }
+}
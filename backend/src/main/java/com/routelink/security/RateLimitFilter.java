@@ -0,0 +1,149 @@
+package com.routelink.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throttles the public trip endpoints and the auth endpoints.
+ *
+ * Runs after {@link JwtAuthFilter}, so signed-in callers are limited per uid and anonymous
+ * ones per client IP. Each request takes a cost from its group's bucket: searches (which
+ * scan a day of trips and decode polylines) cost more than a get-by-id. Over the limit the
+ * request is answered with 429 and Retry-After and never reaches the controller.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+  private enum Group { TRIPS, AUTH }
+
+  private final boolean enabled;
+  private final TokenBuckets trips;
+  private final TokenBuckets auth;
+  private final int searchCost;
+  private final int readCost;
+  private final int authCost;
+
+  private final Counter throttledTrips;
+  private final Counter throttledAuth;
+  private final ScheduledExecutorService sweeper;
+  private final ObjectMapper om = new ObjectMapper();
+
+  public RateLimitFilter(
+      MeterRegistry meters,
+      @Value("${app.ratelimit.enabled:true}") boolean enabled,
+      @Value("${app.ratelimit.trips.rate-per-sec:10}") double tripsRate,
+      @Value("${app.ratelimit.trips.burst:40}") int tripsBurst,
+      @Value("${app.ratelimit.auth.rate-per-sec:1}") double authRate,
+      @Value("${app.ratelimit.auth.burst:10}") int authBurst,
+      @Value("${app.ratelimit.cost.search:5}") int searchCost,
+      @Value("${app.ratelimit.cost.read:1}") int readCost,
+      @Value("${app.ratelimit.cost.auth:1}") int authCost,
+      @Value("${app.ratelimit.shards:16}") int shards,
+      @Value("${app.ratelimit.idle-evict-sec:300}") long idleEvictSec) {
+    this.enabled = enabled;
+    this.trips = new TokenBuckets(tripsRate, tripsBurst, shards);
+    this.auth = new TokenBuckets(authRate, authBurst, shards);
+    this.searchCost = searchCost;
+    this.readCost = readCost;
+    this.authCost = authCost;
+
+    this.throttledTrips = meters.counter("routelink.ratelimit.throttled", "group", "trips");
+    this.throttledAuth = meters.counter("routelink.ratelimit.throttled", "group", "auth");
+    meters.gauge("routelink.ratelimit.keys", this, f -> f.trips.size() + f.auth.size());
+
+    long idleNanos = TimeUnit.SECONDS.toNanos(Math.max(1, idleEvictSec));
+    this.sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+      Thread t = new Thread(r, "ratelimit-evict");
+      t.setDaemon(true);
+      return t;
+    });
+    long period = Math.max(1, idleEvictSec / 2);
+    sweeper.scheduleWithFixedDelay(() -> {
+      long now = System.nanoTime();
+      trips.evictIdle(now, idleNanos);
+      auth.evictIdle(now, idleNanos);
+    }, period, period, TimeUnit.SECONDS);
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    sweeper.shutdownNow();
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest req) {
+    return !enabled || group(req) == null;
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest req, HttpServletResponse res, FilterChain chain)
+      throws ServletException, IOException {
+    Group g = group(req);
+    TokenBuckets buckets = g == Group.AUTH ? auth : trips;
+    int cost = g == Group.AUTH ? authCost : cost(req);
+
+    var d = buckets.tryTake(clientKey(req, g), cost, System.nanoTime());
+    if (d.allowed()) {
+      chain.doFilter(req, res);
+      return;
+    }
+
+    (g == Group.AUTH ? throttledAuth : throttledTrips).increment();
+    long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(d.retryAfterNanos() + 999_999_999L));
+    res.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+    res.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfter));
+    res.setContentType(MediaType.APPLICATION_JSON_VALUE);
+    om.writeValue(res.getOutputStream(), Map.of(
+        "code", "TOO_MANY_REQUESTS",
+        "message", "Rate limit exceeded, retry in " + retryAfter + "s",
+        "timestamp", Instant.now().toString()));
+  }
+
+  private static Group group(HttpServletRequest req) {
+    String path = req.getServletPath();
+    if (path == null) return null;
+    String m = req.getMethod();
+    if (path.startsWith("/auth/") && HttpMethod.POST.matches(m)) return Group.AUTH;
+    if (path.equals("/api/trips/search-unified") && HttpMethod.POST.matches(m)) return Group.TRIPS;
+    if ((path.equals("/api/trips") || path.startsWith("/api/trips/")) && HttpMethod.GET.matches(m)) return Group.TRIPS;
+    return null;
+  }
+
+  /** Searches and the unpaged list scan many rows; everything else under /api/trips is a point read. */
+  private int cost(HttpServletRequest req) {
+    String path = req.getServletPath();
+    boolean heavy = path.equals("/api/trips") || path.startsWith("/api/trips/search");
+    return heavy ? searchCost : readCost;
+  }
+
+  /** Login/signup always go by IP so one address can't rotate accounts to dodge the limit. */
+  private static String clientKey(HttpServletRequest req, Group g) {
+    if (g != Group.AUTH) {
+      Authentication a = SecurityContextHolder.getContext().getAuthentication();
+      if (a != null && a.getPrincipal() instanceof JwtPrincipal p) return "u:" + p.uid();
+    }
+    return "ip:" + req.getRemoteAddr(); // honours X-Forwarded-For when server.forward-headers-strategy is set
+  }
+}
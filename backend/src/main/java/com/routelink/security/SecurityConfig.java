@@ -1,6 +1,8 @@
 package com.routelink.security;
 
+import jakarta.servlet.DispatcherType;
 import java.util.Arrays;
+import java.util.List;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -25,11 +27,14 @@ import static org.springframework.security.config.Customizer.withDefaults;
 public class SecurityConfig {
 
   private final JwtAuthFilter jwtFilter;
+  private final RateLimitFilter rateLimitFilter;
   private final com.routelink.common.SecurityErrorHandlers securityErrors;
 
   public SecurityConfig(JwtAuthFilter jwtFilter,
+                        RateLimitFilter rateLimitFilter,
                         com.routelink.common.SecurityErrorHandlers securityErrors) {
     this.jwtFilter = jwtFilter;
+    this.rateLimitFilter = rateLimitFilter;
     this.securityErrors = securityErrors;
   }
 
@@ -53,12 +58,16 @@ public class SecurityConfig {
 
       .authorizeHttpRequests(auth -> auth
 
+        // SSE: the initial request was already authorized; async re-dispatches carry no token
+        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+
         // ---- Public endpoints ----
         .requestMatchers(HttpMethod.POST, "/api/trips/search-unified").permitAll()
         .requestMatchers(HttpMethod.GET,  "/api/trips/**").permitAll()
         .requestMatchers("/auth/**", "/actuator/health",
             "/v3/api-docs/**", "/swagger-ui/**", "/swagger-ui.html").permitAll()
         .requestMatchers("/dev/mail/test").permitAll() 
+        .requestMatchers("/actuator/admission", "/actuator/l2cache").hasRole("ADMIN")
 
         // ---- Trip mutations: DRIVERS only ----
         .requestMatchers(HttpMethod.POST,   "/api/trips").hasRole("DRIVER")
@@ -80,7 +89,8 @@ public class SecurityConfig {
         .anyRequest().authenticated()
       )
 
-      .addFilterBefore(jwtFilter, UsernamePasswordAuthenticationFilter.class);
+      .addFilterBefore(jwtFilter, UsernamePasswordAuthenticationFilter.class)
+      .addFilterAfter(rateLimitFilter, JwtAuthFilter.class); // needs the uid, if any
 
     return http.build();
   }
@@ -89,7 +99,7 @@ public class SecurityConfig {
   public CorsConfigurationSource corsConfigurationSource(
       @Value("${app.cors.allowed-origins:http://localhost:5173,http://localhost:5174,http://localhost:5175,http://localhost:5176}") String origins,
       @Value("${app.cors.allowed-methods:GET,POST,PUT,PATCH,DELETE,OPTIONS}") String methods,
-      @Value("${app.cors.allowed-headers:Authorization,Content-Type,Accept}") String headers,
+      @Value("${app.cors.allowed-headers:Authorization,Content-Type,Accept,X-Deadline-Ms}") String headers,
       @Value("${app.cors.allow-credentials:true}") boolean allowCredentials
   ) {
     CorsConfiguration cfg = new CorsConfiguration();
@@ -97,6 +107,7 @@ public class SecurityConfig {
     cfg.setAllowedMethods(Arrays.asList(methods.split(",")));
     cfg.setAllowedHeaders(Arrays.asList(headers.split(",")));
     cfg.setAllowCredentials(allowCredentials);
+    cfg.setExposedHeaders(List.of("Retry-After", "X-Search-Partial"));
 
     UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
     source.registerCorsConfiguration("/**", cfg);
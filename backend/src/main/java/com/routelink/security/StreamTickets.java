@@ -0,0 +1,62 @@
+package com.routelink.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Short-lived, single-use tickets for /api/bookings/stream.
+ *
+ * Browsers' EventSource can't send an Authorization header, and a JWT in the query string ends
+ * up in access logs and proxies for as long as it is valid. Instead the client, already signed
+ * in, asks for a ticket that stands for its current authentication; the stream request redeems
+ * it once, within ttl-sec. Held in memory, so a ticket only works on the node that issued it.
+ */
+@Component
+public class StreamTickets {
+  private record Ticket(Authentication auth, long expiresAtMs) {}
+
+  private final SecureRandom random = new SecureRandom();
+  private final Map<String, Ticket> tickets = new ConcurrentHashMap<>();
+  private final long ttlMs;
+
+  public StreamTickets(@Value("${app.sse.ticket-ttl-sec:30}") long ttlSec) {
+    this.ttlMs = Math.max(1, ttlSec) * 1000L;
+  }
+
+  public long ttlSec() { return ttlMs / 1000L; }
+
+  public String issue(Authentication auth) {
+    return issue(auth, System.currentTimeMillis());
+  }
+
+  String issue(Authentication auth, long nowMs) {
+    // tickets are few and short-lived; sweeping here keeps unredeemed ones from piling up
+    tickets.values().removeIf(t -> t.expiresAtMs() <= nowMs);
+    byte[] bytes = new byte[32];
+    random.nextBytes(bytes);
+    String ticket = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    tickets.put(ticket, new Ticket(auth, nowMs + ttlMs));
+    return ticket;
+  }
+
+  /** Authentication the ticket was issued for, or null if unknown, expired or already used. */
+  public UsernamePasswordAuthenticationToken redeem(String ticket) {
+    return redeem(ticket, System.currentTimeMillis());
+  }
+
+  UsernamePasswordAuthenticationToken redeem(String ticket, long nowMs) {
+    if (ticket == null) return null;
+    Ticket t = tickets.remove(ticket);
+    if (t == null || t.expiresAtMs() <= nowMs) return null;
+    return new UsernamePasswordAuthenticationToken(t.auth().getPrincipal(), null, t.auth().getAuthorities());
+  }
+
+  int size() { return tickets.size(); }
+}
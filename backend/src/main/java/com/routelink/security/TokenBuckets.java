@@ -0,0 +1,70 @@
+package com.routelink.security;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token buckets, one per key, spread over independent shards.
+ *
+ * Each bucket is a single {@code AtomicLong} holding its "theoretical arrival time" (GCRA):
+ * taking {@code cost} tokens pushes it forward by {@code cost / rate}, and the request is
+ * allowed while it stays within {@code burst / rate} of now. That is exactly a token bucket
+ * of size {@code burst} refilled at {@code rate}/s, updated with one CAS and no timer.
+ */
+final class TokenBuckets {
+
+  /** Outcome of {@link #tryTake}: allowed, or how long until {@code cost} tokens are available. */
+  record Decision(boolean allowed, long retryAfterNanos) {}
+
+  private static final Decision ALLOWED = new Decision(true, 0);
+
+  private final long nanosPerToken;
+  private final long burstNanos;
+  private final ConcurrentHashMap<String, AtomicLong>[] shards;
+
+  @SuppressWarnings("unchecked")
+  TokenBuckets(double ratePerSec, int burst, int shardCount) {
+    this.nanosPerToken = (long) (1_000_000_000L / Math.max(0.001, ratePerSec));
+    this.burstNanos = nanosPerToken * Math.max(1, burst);
+    int n = Integer.highestOneBit(Math.max(1, shardCount) * 2 - 1); // round up to a power of two
+    this.shards = new ConcurrentHashMap[n];
+    for (int i = 0; i < n; i++) shards[i] = new ConcurrentHashMap<>();
+  }
+
+  Decision tryTake(String key, int cost, long nowNanos) {
+    AtomicLong tat = shard(key).computeIfAbsent(key, k -> new AtomicLong(nowNanos));
+    long step = nanosPerToken * Math.max(1, cost);
+    while (true) {
+      long cur = tat.get();
+      long next = Math.max(cur, nowNanos) + step;
+      long over = next - nowNanos - burstNanos;
+      if (over > 0) return new Decision(false, over);
+      if (tat.compareAndSet(cur, next)) return ALLOWED;
+    }
+  }
+
+  /** Drops buckets that have been full for at least {@code idleNanos}; they carry no state. */
+  int evictIdle(long nowNanos, long idleNanos) {
+    int removed = 0;
+    for (ConcurrentHashMap<String, AtomicLong> shard : shards) {
+      for (var it = shard.entrySet().iterator(); it.hasNext(); ) {
+        if (nowNanos - it.next().getValue().get() >= idleNanos) {
+          it.remove();
+          removed++;
+        }
+      }
+    }
+    return removed;
+  }
+
+  int size() {
+    int n = 0;
+    for (ConcurrentHashMap<String, AtomicLong> shard : shards) n += shard.size();
+    return n;
+  }
+
+  private ConcurrentHashMap<String, AtomicLong> shard(String key) {
+    int h = key.hashCode();
+    return shards[(h ^ (h >>> 16)) & (shards.length - 1)];
+  }
+}
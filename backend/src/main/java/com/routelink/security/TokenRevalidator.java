@@ -0,0 +1,50 @@
+package com.routelink.security;
+
+import com.routelink.user.Role;
+import com.routelink.user.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Optional check that a token's user still exists and still has the role the token claims.
+ * Looks the role up at most once per user per {@code security.jwt.revalidate-sec}
+ * (0 = disabled: authenticated requests then never touch the DB).
+ */
+@Component
+public class TokenRevalidator {
+
+  private record Entry(Optional<Role> role, long checkedAtMs) {}
+
+  private static final int MAX_ENTRIES = 50_000;
+
+  private final UserRepository users;
+  private final long ttlMs;
+  private final Map<Long, Entry> cache = new ConcurrentHashMap<>();
+
+  public TokenRevalidator(UserRepository users,
+                          @Value("${security.jwt.revalidate-sec:0}") long revalidateSec) {
+    this.users = users;
+    this.ttlMs = Math.max(0, revalidateSec) * 1000L;
+  }
+
+  public boolean enabled() { return ttlMs > 0; }
+
+  public boolean stillValid(JwtPrincipal p) {
+    if (!enabled()) return true;
+    long now = System.currentTimeMillis();
+    Entry e = cache.get(p.uid());
+    if (e == null || now - e.checkedAtMs() >= ttlMs) {
+      if (cache.size() >= MAX_ENTRIES) cache.entrySet().removeIf(en -> now - en.getValue().checkedAtMs() >= ttlMs);
+      e = new Entry(users.findRoleById(p.uid()), now);
+      cache.put(p.uid(), e);
+    }
+    return e.role().map(r -> p.roles().contains(r.name())).orElse(false);
+  }
+
+  /** Call after a role change or account removal to make it effective immediately on this node. */
+  public void evict(Long uid) { cache.remove(uid); }
+}
@@ -1,11 +1,9 @@
 package com.routelink.trip;
 
+import com.routelink.common.Deadline;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDate;
-import java.time.ZoneId;
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -15,8 +13,6 @@ import java.util.List;
  */
 @Service
 public class AlongRouteSearchService {
-  private final TripRepository trips;
-
   // Wider, realistic defaults for inter-city rides (override in application.yml)
   @Value("${search.near.radius.km:25}")   // corridor radius around path (km)
   private double NEAR_RADIUS_KM;
@@ -24,53 +20,58 @@ public class AlongRouteSearchService {
   @Value("${search.max.detour.km:40}")    // cap on allowable off-path distance (km)
   private double MAX_DETOUR_KM;
 
-  public AlongRouteSearchService(TripRepository trips) { this.trips = trips; }
-
-  public List<TripMatch> search(double pLat, double pLng, double qLat, double qLng,
-                                int seats, LocalDate date, ZoneId zone) {
-    var from = date.atStartOfDay(zone).toOffsetDateTime();
-    var to   = date.plusDays(1).atStartOfDay(zone).toOffsetDateTime();
-
-    var candidates = trips.searchActiveOpenList(from, to, List.of(TripStatus.OPEN), seats, null, null);
-    List<TripMatch> out = new ArrayList<>();
-
-    for (Trip t : candidates) {
-      if (t.getSeatsLeft() < seats) continue;
+  /**
+   * Scores trips {@code [from, to)} of the snapshot against the rider's pickup/drop. Trips whose
+   * route box is out of reach of either point are skipped on int comparisons; the rest walk
+   * their slice of the shared route array. Checks {@code deadline} every 16 trips; returns
+   * false if it stopped early, leaving the matches found so far in {@code out}.
+   */
+  public boolean match(TripDaySnapshot s, int from, int to, double pLat, double pLng, double qLat, double qLng,
+                       int seats, Deadline deadline, List<TripMatch> out) {
+    double reach = reachKm();
+    int pLatE6 = TripDaySnapshot.e6(pLat), pLngE6 = TripDaySnapshot.e6(pLng);
+    int qLatE6 = TripDaySnapshot.e6(qLat), qLngE6 = TripDaySnapshot.e6(qLng);
+    int dLat = TripDaySnapshot.reachLatE6(reach);
+    int dpLng = TripDaySnapshot.reachLngE6(pLat, reach), dqLng = TripDaySnapshot.reachLngE6(qLat, reach);
+
+    for (int i = from; i < to; i++) {
+      if ((i & 15) == 0 && deadline.expired()) return false;
+      if (s.seatsLeft[i] < seats) continue;
+      if (!s.boxReaches(i, pLatE6, pLngE6, dLat, dpLng) || !s.boxReaches(i, qLatE6, qLngE6, dLat, dqLng)) continue;
 
       double dPick, dDrop;
       boolean orderOk;
       double orderScore;
 
-      if (t.getPolyline() != null && !t.getPolyline().isBlank()) {
-        var path = com.routelink.geo.Polyline.decode(t.getPolyline());
+      if (s.hasRoute(i)) {
+        int first = s.routeStart[i], last = s.routeStart[i + 1] - 1; // simplified by TripSearchIndex
+        int[] path = s.routeLatLng;
 
-        dPick = com.routelink.geo.Geo.distancePointToPathKm(pLat, pLng, path);
-        dDrop = com.routelink.geo.Geo.distancePointToPathKm(qLat, qLng, path);
+        dPick = distanceToPathKm(pLat, pLng, path, first, last);
+        dDrop = distanceToPathKm(qLat, qLng, path, first, last);
 
         // both must be inside corridor and under detour cap
         if (dPick > NEAR_RADIUS_KM || dDrop > NEAR_RADIUS_KM) continue;
         if (dPick > MAX_DETOUR_KM || dDrop > MAX_DETOUR_KM) continue;
 
-        int iPick = closestIndexOnPath(pLat, pLng, path);
-        int iDrop = closestIndexOnPath(qLat, qLng, path);
+        int iPick = closestIndexOnPath(pLat, pLng, path, first, last);
+        int iDrop = closestIndexOnPath(qLat, qLng, path, first, last);
         orderOk = iPick < iDrop;
 
         // prefer longer usable segment
-        orderScore = Math.max(0, iDrop - iPick) / (double) Math.max(1, path.size() - 1);
+        orderScore = Math.max(0, iDrop - iPick) / (double) Math.max(1, last - first);
       } else {
+        double aLat = s.startLat[i] * TripDaySnapshot.E6, aLng = s.startLng[i] * TripDaySnapshot.E6;
+        double bLat = s.endLat[i] * TripDaySnapshot.E6, bLng = s.endLng[i] * TripDaySnapshot.E6;
         // fallback: straight segment distance & order using projection
-        dPick = com.routelink.geo.Geo.distancePointToSegmentKm(
-            pLat, pLng, t.getStartLat(), t.getStartLng(), t.getEndLat(), t.getEndLng());
-        dDrop = com.routelink.geo.Geo.distancePointToSegmentKm(
-            qLat, qLng, t.getStartLat(), t.getStartLng(), t.getEndLat(), t.getEndLng());
+        dPick = com.routelink.geo.Geo.distancePointToSegmentKm(pLat, pLng, aLat, aLng, bLat, bLng);
+        dDrop = com.routelink.geo.Geo.distancePointToSegmentKm(qLat, qLng, aLat, aLng, bLat, bLng);
 
         if (dPick > NEAR_RADIUS_KM || dDrop > NEAR_RADIUS_KM) continue;
         if (dPick > MAX_DETOUR_KM || dDrop > MAX_DETOUR_KM) continue;
 
-        double tp = com.routelink.geo.Geo.projectionT(
-            pLat, pLng, t.getStartLat(), t.getStartLng(), t.getEndLat(), t.getEndLng());
-        double tq = com.routelink.geo.Geo.projectionT(
-            qLat, qLng, t.getStartLat(), t.getStartLng(), t.getEndLat(), t.getEndLng());
+        double tp = com.routelink.geo.Geo.projectionT(pLat, pLng, aLat, aLng, bLat, bLng);
+        double tq = com.routelink.geo.Geo.projectionT(qLat, qLng, aLat, aLng, bLat, bLng);
         orderOk = tp <= tq;                 // allow near-equal due to rounding
         orderScore = Math.max(0, tq - tp);  // longer in-path distance is better
       }
@@ -81,18 +82,33 @@ public class AlongRouteSearchService {
       double score = 1.0 / (1.0 + dPick + dDrop) + orderScore;
 
       // ✅ IMPORTANT: use lean TripMatch and tag the source as "route"
-      out.add(TripMatch.from(t, score, "route"));
+      out.add(new TripMatch(s.ids[i], score, "route"));
     }
-    return out;
+    return true;
+  }
+
+  /** Farthest a matched pickup/drop can be from the route (corridor, capped by the detour limit). */
+  public double reachKm() { return Math.min(NEAR_RADIUS_KM, MAX_DETOUR_KM); }
+
+  /** As {@link com.routelink.geo.Geo#distancePointToPathKm}, over points first..last of a snapshot route. */
+  private static double distanceToPathKm(double lat, double lng, int[] path, int first, int last) {
+    double best = Double.POSITIVE_INFINITY;
+    for (int p = first; p < last; p++) {
+      double d = com.routelink.geo.Geo.distancePointToSegmentKm(lat, lng,
+          path[2 * p] * TripDaySnapshot.E6, path[2 * p + 1] * TripDaySnapshot.E6,
+          path[2 * p + 2] * TripDaySnapshot.E6, path[2 * p + 3] * TripDaySnapshot.E6);
+      if (d < best) best = d;
+    }
+    return best;
   }
 
-  private static int closestIndexOnPath(double lat, double lng, List<double[]> path) {
+  /** Position (0-based from {@code first}) of the route point closest to lat/lng. */
+  private static int closestIndexOnPath(double lat, double lng, int[] path, int first, int last) {
     int best = 0;
     double bestD = Double.MAX_VALUE;
-    for (int i = 0; i < path.size(); i++) {
-      double[] p = path.get(i);
-      double d = com.routelink.geo.Geo.haversineKm(lat, lng, p[0], p[1]);
-      if (d < bestD) { bestD = d; best = i; }
+    for (int p = first; p <= last; p++) {
+      double d = com.routelink.geo.Geo.haversineKm(lat, lng, path[2 * p] * TripDaySnapshot.E6, path[2 * p + 1] * TripDaySnapshot.E6);
+      if (d < bestD) { bestD = d; best = p - first; }
     }
     return best;
   }
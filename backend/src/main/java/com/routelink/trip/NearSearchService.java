@@ -1,44 +1,49 @@
 package com.routelink.trip;
 
+import com.routelink.common.Deadline;
 import com.routelink.trip.TripMatch;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDate;
-import java.time.ZoneId;
-import java.util.ArrayList;
 import java.util.List;
 
 @Service
 public class NearSearchService {
-  private final TripRepository trips;
-
   @Value("${search.near.radius.km:5}")
   private double RADIUS_KM;
 
-  public NearSearchService(TripRepository trips) { this.trips = trips; }
-
-  public List<TripMatch> search(double sLat, double sLng, double eLat, double eLng,
-                                int seats, LocalDate date, ZoneId zone) {
-    var from = date.atStartOfDay(zone).toOffsetDateTime();
-    var to   = date.plusDays(1).atStartOfDay(zone).toOffsetDateTime();
-
-    var candidates = trips.searchActiveOpenList(from, to, List.of(TripStatus.OPEN), seats, null, null);
-    List<TripMatch> out = new ArrayList<>();
-
-    for (Trip t : candidates) {
-      if (t.getSeatsLeft() < seats) continue;
-
-      double dStart = com.routelink.geo.Geo.haversineKm(sLat, sLng, t.getStartLat(), t.getStartLng());
+  /**
+   * Scores trips {@code [from, to)} of the snapshot by endpoint proximity. Endpoints are first
+   * compared as microdegrees against the radius box, so most trips cost two int comparisons.
+   * Stops early once {@code deadline} expires (checked every 64 trips); {@code out} then holds
+   * what was scored so far. Returns true if every trip was examined.
+   */
+  public boolean match(TripDaySnapshot s, int from, int to, double sLat, double sLng, double eLat, double eLng,
+                       int seats, Deadline deadline, List<TripMatch> out) {
+    int sLatE6 = TripDaySnapshot.e6(sLat), sLngE6 = TripDaySnapshot.e6(sLng);
+    int eLatE6 = TripDaySnapshot.e6(eLat), eLngE6 = TripDaySnapshot.e6(eLng);
+    int dLat = TripDaySnapshot.reachLatE6(RADIUS_KM);
+    int dsLng = TripDaySnapshot.reachLngE6(sLat, RADIUS_KM), deLng = TripDaySnapshot.reachLngE6(eLat, RADIUS_KM);
+
+    for (int i = from; i < to; i++) {
+      if ((i & 63) == 0 && deadline.expired()) return false;
+      if (s.seatsLeft[i] < seats) continue;
+      if (Math.abs(s.startLat[i] - sLatE6) > dLat || Math.abs(s.startLng[i] - sLngE6) > dsLng) continue;
+      if (Math.abs(s.endLat[i] - eLatE6) > dLat || Math.abs(s.endLng[i] - eLngE6) > deLng) continue;
+
+      double dStart = com.routelink.geo.Geo.haversineKm(sLat, sLng, s.startLat[i] * TripDaySnapshot.E6, s.startLng[i] * TripDaySnapshot.E6);
       if (dStart > RADIUS_KM) continue;
 
-      double dEnd   = com.routelink.geo.Geo.haversineKm(eLat, eLng, t.getEndLat(), t.getEndLng());
+      double dEnd   = com.routelink.geo.Geo.haversineKm(eLat, eLng, s.endLat[i] * TripDaySnapshot.E6, s.endLng[i] * TripDaySnapshot.E6);
       if (dEnd > RADIUS_KM) continue;
 
       double score = 1.0 / (1.0 + dStart + dEnd);
-      out.add(TripMatch.from(t, score, "near"));
+      out.add(new TripMatch(s.ids[i], score, "near"));
     }
-    return out;
+    return true;
   }
+
+  /** Farthest a matched pickup/drop can be from the trip's endpoints. */
+  public double reachKm() { return RADIUS_KM; }
 }
@@ -1,32 +1,49 @@
 package com.routelink.trip;
 
+import com.routelink.admission.Admission;
+import com.routelink.admission.AdmissionControl;
+import com.routelink.rating.ReputationService;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMax;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
 import java.net.URI;
+import java.time.DateTimeException;
+import java.time.DayOfWeek;
 import java.time.LocalDate;
+import java.time.LocalTime;
 import java.time.OffsetDateTime;
+import java.time.ZoneId;
 import java.time.ZoneOffset;
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/trips")
 public class TripController {
   private final TripRepository trips;
   private final TripService tripService;
+  private final ReputationService reputations;
+  private final TripSearchIndex searchIndex;
 
-  public TripController(TripRepository trips, TripService tripService) {
+  public TripController(TripRepository trips, TripService tripService, ReputationService reputations,
+                        TripSearchIndex searchIndex) {
     this.trips = trips;
     this.tripService = tripService;
+    this.reputations = reputations;
+    this.searchIndex = searchIndex;
   }
 
   // --- DTO for create (no driverId here; driver = current user) ---
@@ -35,27 +52,73 @@ public class TripController {
       @NotBlank String endPlace,   double endLat,   double endLng,
       String polyline,
       @NotNull OffsetDateTime rideAt,
-      @NotNull @Min(0) BigDecimal pricePerSeat,
+      @NotNull @Min(0) @DecimalMax(TripService.MAX_PRICE_PER_SEAT) BigDecimal pricePerSeat,
       @Min(1) int seatsTotal
   ) {}
 
   // Create a trip (driver = authenticated user via TripService)
   @PostMapping
   public ResponseEntity<TripDto> create(@Valid @RequestBody CreateTripReq req) {
-    Trip t = tripService.create(new TripService.CreateTrip(
+    Trip t = tripService.create(toCreate(req));
+    return ResponseEntity.created(URI.create("/api/trips/" + t.getId()))
+        .body(TripDto.from(t));
+  }
+
+  // Post many trips at once (one transaction, batched inserts)
+  public record BulkCreateReq(@NotEmpty @Size(max = TripService.MAX_BULK) List<@Valid CreateTripReq> trips) {}
+
+  @PostMapping("/bulk")
+  public ResponseEntity<List<TripDto>> createBulk(@Valid @RequestBody BulkCreateReq req) {
+    List<Trip> created = tripService.createAll(req.trips().stream().map(TripController::toCreate).toList());
+    return ResponseEntity.status(HttpStatus.CREATED).body(created.stream().map(TripDto::from).toList());
+  }
+
+  // Recurring commute: the same trip on the given weekdays of a date range, minus exceptions
+  public record RecurringTripReq(
+      @NotBlank String startPlace, double startLat, double startLng,
+      @NotBlank String endPlace,   double endLat,   double endLng,
+      String polyline,
+      @NotNull @Min(0) @DecimalMax(TripService.MAX_PRICE_PER_SEAT) BigDecimal pricePerSeat,
+      @Min(1) int seatsTotal,
+      @NotNull LocalDate from,
+      @NotNull LocalDate to,
+      @NotEmpty Set<DayOfWeek> days,            // e.g. ["MONDAY","TUESDAY"]
+      @NotNull LocalTime departAt,              // local time in "zone"
+      String zone,                              // IANA id, default UTC
+      Set<LocalDate> except                     // holidays etc.
+  ) {}
+
+  @PostMapping("/recurring")
+  public ResponseEntity<List<TripDto>> createRecurring(@Valid @RequestBody RecurringTripReq req) {
+    ZoneId zone;
+    try { zone = req.zone() == null || req.zone().isBlank() ? ZoneOffset.UTC : ZoneId.of(req.zone()); }
+    catch (DateTimeException e) { throw new IllegalArgumentException("Unknown zone: " + req.zone()); }
+
+    List<Trip> created = tripService.createRecurring(
+        new TripService.CreateTrip(
+            req.startPlace(), req.startLat(), req.startLng(),
+            req.endPlace(), req.endLat(), req.endLng(),
+            req.polyline(),
+            null, // per occurrence
+            req.pricePerSeat(),
+            req.seatsTotal()),
+        new TripRecurrence(req.from(), req.to(), req.days(), req.departAt(), zone, req.except()));
+    return ResponseEntity.status(HttpStatus.CREATED).body(created.stream().map(TripDto::from).toList());
+  }
+
+  private static TripService.CreateTrip toCreate(CreateTripReq req) {
+    return new TripService.CreateTrip(
         req.startPlace(), req.startLat(), req.startLng(),
         req.endPlace(), req.endLat(), req.endLng(),
         req.polyline(),
         req.rideAt(),
         req.pricePerSeat(),
-        req.seatsTotal()
-    ));
-    return ResponseEntity.created(URI.create("/api/trips/" + t.getId()))
-        .body(TripDto.from(t));
+        req.seatsTotal());
   }
 
   // List all (debug)
   @GetMapping
+  @Admission(AdmissionControl.SEARCH)
   public List<TripDto> list() {
     return trips.findAll().stream().map(TripDto::from).toList();
   }
@@ -71,6 +134,7 @@ public class TripController {
   // Search 1: date search (DB paging + sorting + filters)
   // ------------------------------
   @GetMapping("/search")
+  @Admission(AdmissionControl.SEARCH)
   public ResponseEntity<List<TripDto>> searchByDate(
       @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
       @RequestParam(required = false) OffsetDateTime at,       // e.g. 2025-10-01T09:00:00-04:00
@@ -110,13 +174,14 @@ public class TripController {
 
     return ResponseEntity.ok()
         .header("X-Total-Count", String.valueOf(pageResult.getTotalElements()))
-        .body(pageResult.getContent().stream().map(TripDto::from).toList());
+        .body(TripDto.withDriverRatings(pageResult.getContent().stream().map(TripDto::from).toList(), reputations));
   }
 
   // ------------------------------
   // Search 2: start/end within radius (prefilter in DB, geo + paginate in-memory)
   // ------------------------------
   @GetMapping("/search/near")
+  @Admission(AdmissionControl.SEARCH)
   public ResponseEntity<List<TripDto>> searchNear(
       @RequestParam double startLat,
       @RequestParam double startLng,
@@ -173,13 +238,14 @@ public class TripController {
 
     return ResponseEntity.ok()
         .header("X-Total-Count", String.valueOf(filtered.size()))
-        .body(pageItems);
+        .body(TripDto.withDriverRatings(pageItems, reputations));
   }
 
   // ------------------------------
   // Search 3: along-route (point-to-path distance using polyline)
   // ------------------------------
   @GetMapping("/search/route")
+  @Admission(AdmissionControl.SEARCH)
   public ResponseEntity<List<TripDto>> searchAlongRoute(
       @RequestParam double pickupLat,
       @RequestParam double pickupLng,
@@ -247,7 +313,7 @@ public class TripController {
 
     return ResponseEntity.ok()
         .header("X-Total-Count", String.valueOf(filtered.size()))
-        .body(pageItems);
+        .body(TripDto.withDriverRatings(pageItems, reputations));
   }
 
   // --- Set/replace a trip's polyline so /search/route can use it ---
@@ -262,6 +328,7 @@ public class TripController {
       String enc = com.routelink.geo.Polyline.encode(path);
       t.setPolyline(enc);
       trips.save(t);
+      searchIndex.markDirty(t); // new route and envelope for unified search
       return ResponseEntity.ok(TripDto.from(t));
     }).orElse(ResponseEntity.notFound().build());
   }
@@ -4,11 +4,10 @@ package com.routelink.trip;
 import com.routelink.common.BadRequestException;
 import com.routelink.common.ForbiddenException;
 import com.routelink.common.NotFoundException;
-import com.routelink.user.User;
-import com.routelink.user.UserRepository;
+import com.routelink.security.CurrentUser;
 import jakarta.transaction.Transactional;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.security.core.context.SecurityContextHolder;
 
 import java.util.Map;
 import java.util.Objects;
@@ -18,27 +17,19 @@ import java.util.Objects;
 public class TripControllerExtra {
 
   private final TripRepository tripRepo;
-  private final UserRepository userRepo;
+  private final CurrentUser currentUser;
+  private final ApplicationEventPublisher events;
 
-  public TripControllerExtra(TripRepository tripRepo, UserRepository userRepo) {
+  public TripControllerExtra(TripRepository tripRepo, CurrentUser currentUser, ApplicationEventPublisher events) {
     this.tripRepo = tripRepo;
-    this.userRepo = userRepo;
-  }
-
-  private Long currentUserId() {
-    var auth = SecurityContextHolder.getContext().getAuthentication();
-    if (auth == null || auth.getName() == null) {
-      throw new BadRequestException("Unauthenticated");
-    }
-    User u = userRepo.findByEmail(auth.getName())
-        .orElseThrow(() -> new NotFoundException("User not found"));
-    return u.getId();
+    this.currentUser = currentUser;
+    this.events = events;
   }
 
   @PostMapping("/{id}/complete")
   @Transactional
   public Map<String, Object> complete(@PathVariable Long id) {
-    Long me = currentUserId();
+    Long me = currentUser.id();
 
     // lock the trip row to avoid races
     Trip trip = tripRepo.findByIdForUpdate(id)
@@ -60,6 +51,7 @@ public class TripControllerExtra {
     trip.setStatus(TripStatus.CLOSED);
     trip.setActive(false);
     tripRepo.save(trip);
+    events.publishEvent(TripStateChanged.of(trip));
 
     // return a minimal, safe payload
     return Map.of(
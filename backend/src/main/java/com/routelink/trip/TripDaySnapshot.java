@@ -0,0 +1,205 @@
+package com.routelink.trip;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Immutable, column-per-field copy of one day's bookable trips, for the search matchers.
+ *
+ * Trips are sorted by departure, so a time window is two binary searches and the matchers
+ * scan a contiguous index range over primitive arrays: coordinates in microdegrees, departure
+ * in epoch seconds, prices in cents. Routes of all trips share one array, sliced by
+ * {@code routeStart}. Changes produce a new snapshot ({@link #with}); readers never see one
+ * half-updated.
+ */
+public final class TripDaySnapshot {
+  static final double E6 = 1e-6;
+
+  final long[] ids;
+  final long[] driverIds;
+  final long[] rideEpochSec;
+  final int[] startLat, startLng, endLat, endLng;
+  /** Bounding box of route and endpoints. */
+  final int[] minLat, minLng, maxLat, maxLng;
+  final int[] priceCents;
+  final int[] seatsLeft;
+  final float[] ratingAvg;
+  final int[] ratingCount;
+  /** Points of trip i are routeLatLng[2*routeStart[i] .. 2*routeStart[i+1]), lat/lng interleaved. */
+  final int[] routeStart;
+  final int[] routeLatLng;
+
+  private TripDaySnapshot(int n, int points) {
+    ids = new long[n];
+    driverIds = new long[n];
+    rideEpochSec = new long[n];
+    startLat = new int[n]; startLng = new int[n]; endLat = new int[n]; endLng = new int[n];
+    minLat = new int[n]; minLng = new int[n]; maxLat = new int[n]; maxLng = new int[n];
+    priceCents = new int[n];
+    seatsLeft = new int[n];
+    ratingAvg = new float[n];
+    ratingCount = new int[n];
+    routeStart = new int[n + 1];
+    routeLatLng = new int[points * 2];
+  }
+
+  public static final TripDaySnapshot EMPTY = of(List.of());
+
+  public static TripDaySnapshot of(Collection<TripSearchRow> rows) {
+    List<TripSearchRow> sorted = new ArrayList<>(rows);
+    sorted.sort(Comparator.comparing(TripSearchRow::rideAt).thenComparingLong(TripSearchRow::tripId));
+    int points = 0;
+    for (TripSearchRow r : sorted) if (r.hasRoute()) points += r.route().size();
+
+    TripDaySnapshot s = new TripDaySnapshot(sorted.size(), points);
+    int p = 0;
+    for (int i = 0; i < sorted.size(); i++) {
+      TripSearchRow r = sorted.get(i);
+      s.ids[i] = r.tripId();
+      s.driverIds[i] = r.driverId();
+      s.rideEpochSec[i] = r.rideAt().toEpochSecond();
+      s.startLat[i] = e6(r.startLat()); s.startLng[i] = e6(r.startLng());
+      s.endLat[i] = e6(r.endLat());     s.endLng[i] = e6(r.endLng());
+      s.minLat[i] = Math.min(s.startLat[i], s.endLat[i]); s.maxLat[i] = Math.max(s.startLat[i], s.endLat[i]);
+      s.minLng[i] = Math.min(s.startLng[i], s.endLng[i]); s.maxLng[i] = Math.max(s.startLng[i], s.endLng[i]);
+      s.priceCents[i] = r.priceCents();
+      s.seatsLeft[i] = r.seatsLeft();
+      s.ratingAvg[i] = (float) r.driverRatingAvg();
+      s.ratingCount[i] = r.driverRatingCount();
+      s.routeStart[i] = p;
+      if (r.hasRoute()) {
+        for (double[] pt : r.route()) {
+          int lat = e6(pt[0]), lng = e6(pt[1]);
+          s.routeLatLng[2 * p] = lat;
+          s.routeLatLng[2 * p + 1] = lng;
+          s.minLat[i] = Math.min(s.minLat[i], lat); s.maxLat[i] = Math.max(s.maxLat[i], lat);
+          s.minLng[i] = Math.min(s.minLng[i], lng); s.maxLng[i] = Math.max(s.maxLng[i], lng);
+          p++;
+        }
+      }
+    }
+    s.routeStart[sorted.size()] = p;
+    return s;
+  }
+
+  /**
+   * Copy with {@code upserts} added or replaced and {@code removed} dropped: the kept trips and
+   * the (sorted) upserts are merged column by column, O(n) array copies with no per-trip objects.
+   */
+  public TripDaySnapshot with(Collection<TripSearchRow> upserts, Collection<Long> removed) {
+    if (upserts.isEmpty() && removed.isEmpty()) return this;
+    Set<Long> drop = new HashSet<>(removed);
+    for (TripSearchRow r : upserts) drop.add(r.tripId());
+    TripDaySnapshot add = of(upserts);
+
+    int kept = 0, keptPoints = 0;
+    for (int i = 0; i < size(); i++) {
+      if (!drop.contains(ids[i])) { kept++; keptPoints += routeStart[i + 1] - routeStart[i]; }
+    }
+    TripDaySnapshot s = new TripDaySnapshot(kept + add.size(), keptPoints + add.routeLatLng.length / 2);
+    int i = 0, j = 0, p = 0;
+    for (int k = 0; k < s.size(); k++) {
+      while (i < size() && drop.contains(ids[i])) i++;
+      boolean mine = j == add.size()
+          || (i < size() && (rideEpochSec[i] < add.rideEpochSec[j] || rideEpochSec[i] == add.rideEpochSec[j] && ids[i] < add.ids[j]));
+      p = mine ? copy(this, i++, s, k, p) : copy(add, j++, s, k, p);
+    }
+    s.routeStart[s.size()] = p;
+    return s;
+  }
+
+  /** Copies trip {@code i} of {@code src} into slot {@code k} of {@code dst}, its route at point {@code p}; returns the next point. */
+  private static int copy(TripDaySnapshot src, int i, TripDaySnapshot dst, int k, int p) {
+    dst.ids[k] = src.ids[i];
+    dst.driverIds[k] = src.driverIds[i];
+    dst.rideEpochSec[k] = src.rideEpochSec[i];
+    dst.startLat[k] = src.startLat[i]; dst.startLng[k] = src.startLng[i];
+    dst.endLat[k] = src.endLat[i];     dst.endLng[k] = src.endLng[i];
+    dst.minLat[k] = src.minLat[i]; dst.minLng[k] = src.minLng[i];
+    dst.maxLat[k] = src.maxLat[i]; dst.maxLng[k] = src.maxLng[i];
+    dst.priceCents[k] = src.priceCents[i];
+    dst.seatsLeft[k] = src.seatsLeft[i];
+    dst.ratingAvg[k] = src.ratingAvg[i];
+    dst.ratingCount[k] = src.ratingCount[i];
+    dst.routeStart[k] = p;
+    int points = src.routeStart[i + 1] - src.routeStart[i];
+    System.arraycopy(src.routeLatLng, 2 * src.routeStart[i], dst.routeLatLng, 2 * p, 2 * points);
+    return p + points;
+  }
+
+  public int size() { return ids.length; }
+
+  public boolean contains(long tripId) {
+    for (long id : ids) if (id == tripId) return true;
+    return false;
+  }
+
+  /** First index departing at or after {@code epochSec}. */
+  public int lowerBound(long epochSec) {
+    int i = Arrays.binarySearch(rideEpochSec, epochSec);
+    if (i < 0) return -i - 1;
+    while (i > 0 && rideEpochSec[i - 1] == epochSec) i--;
+    return i;
+  }
+
+  /** First index departing after {@code epochSec}. */
+  public int upperBound(long epochSec) {
+    int i = Arrays.binarySearch(rideEpochSec, epochSec);
+    if (i < 0) return -i - 1;
+    while (i < rideEpochSec.length && rideEpochSec[i] == epochSec) i++;
+    return i;
+  }
+
+  public boolean hasRoute(int i) { return routeStart[i + 1] - routeStart[i] > 1; }
+
+  /** Whether trip i's box comes within (dLat, dLng) microdegrees of the point. */
+  boolean boxReaches(int i, int lat, int lng, int dLat, int dLng) {
+    return minLat[i] <= lat + dLat && maxLat[i] >= lat - dLat && minLng[i] <= lng + dLng && maxLng[i] >= lng - dLng;
+  }
+
+  /** Microdegrees of latitude spanning {@code km}, rounded up. */
+  static int reachLatE6(double km) {
+    return (int) Math.ceil(km / 110.574 * 1e6);
+  }
+
+  /** Microdegrees of longitude spanning {@code km} near latitude {@code lat} (they shrink poleward). */
+  static int reachLngE6(double lat, double km) {
+    double cos = Math.cos(Math.toRadians(Math.min(89.0, Math.abs(lat) + km / 110.574)));
+    return (int) Math.min(360_000_000L, (long) Math.ceil(km / (111.320 * cos) * 1e6));
+  }
+
+  /** Driver rating pulled toward {@code prior}, as {@link TripSearchRow#driverScore}. */
+  public double driverScore(int i, double prior, int weight) {
+    return (prior * weight + ratingAvg[i] * ratingCount[i]) / (weight + ratingCount[i]) / 5.0;
+  }
+
+  TripSearchRow row(int i) {
+    List<double[]> route = new ArrayList<>(routeStart[i + 1] - routeStart[i]);
+    for (int p = routeStart[i]; p < routeStart[i + 1]; p++) {
+      route.add(new double[]{ routeLatLng[2 * p] * E6, routeLatLng[2 * p + 1] * E6 });
+    }
+    return new TripSearchRow(ids[i], driverIds[i], OffsetDateTime.ofInstant(Instant.ofEpochSecond(rideEpochSec[i]), ZoneOffset.UTC),
+        startLat[i] * E6, startLng[i] * E6, endLat[i] * E6, endLng[i] * E6, route,
+        priceCents[i], seatsLeft[i], ratingAvg[i], ratingCount[i]);
+  }
+
+  /** Heap held by the arrays (16-byte array headers included). */
+  public long footprintBytes() {
+    long n = size();
+    return 16L * 17
+        + n * 8 * 3          // ids, driverIds, rideEpochSec
+        + n * 4 * 12         // endpoints, box, price, seats, rating avg/count
+        + (n + 1) * 4        // routeStart
+        + routeLatLng.length * 4L;
+  }
+
+  static int e6(double deg) { return (int) Math.round(deg * 1e6); }
+}
@@ -0,0 +1,150 @@
+package com.routelink.trip;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory {@link TripDaySnapshot}s per UTC day, loaded from trip_search on first use.
+ *
+ * This node's own writes ({@link TripSearchChanged}, after commit) are applied to cached days
+ * straight away as a copy-on-write rebuild. Anything it cannot see (other nodes, driver
+ * rating refreshes) shows up when the day is reloaded, at most max-age-sec after loading.
+ * At most max-days days are held; past that the least recently searched day is evicted.
+ * Only one load per day runs at a time: concurrent readers of an expired day keep getting the
+ * old snapshot meanwhile, and readers of a day not cached at all wait for that one load.
+ */
+@Component
+public class TripDaySnapshots {
+  private record Cached(TripDaySnapshot snapshot, long loadedAtMs) {}
+
+  private final TripSearchIndex index;
+  private final long maxAgeMs;
+  private final int maxDays;
+  /** Access-ordered LRU; guarded by itself. Loads and rebuilds run outside the lock. */
+  private final LinkedHashMap<LocalDate, Cached> days;
+  /** Loads in progress, so concurrent misses for one day share a single trip_search scan. */
+  private final Map<LocalDate, CompletableFuture<TripDaySnapshot>> loading = new ConcurrentHashMap<>();
+  /** Bumped by every applied change, so a load that raced one is not trusted for long. */
+  private final AtomicLong changes = new AtomicLong();
+
+  public TripDaySnapshots(TripSearchIndex index, MeterRegistry meters,
+                          @Value("${app.search.snapshot.max-age-sec:30}") long maxAgeSec,
+                          @Value("${app.search.snapshot.max-days:14}") int maxDays) {
+    this.index = index;
+    this.maxAgeMs = Math.max(0, maxAgeSec) * 1000L;
+    this.maxDays = Math.max(1, maxDays);
+    this.days = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override protected boolean removeEldestEntry(Map.Entry<LocalDate, Cached> eldest) {
+        return size() > TripDaySnapshots.this.maxDays;
+      }
+    };
+    Gauge.builder("routelink.search.snapshot.days", this, x -> x.cached().size()).register(meters);
+    Gauge.builder("routelink.search.snapshot.trips", this,
+        x -> x.cached().values().stream().mapToInt(c -> c.snapshot().size()).sum()).register(meters);
+    Gauge.builder("routelink.search.snapshot.memory", this,
+        x -> x.cached().values().stream().mapToLong(c -> c.snapshot().footprintBytes()).sum()).baseUnit("bytes").register(meters);
+  }
+
+  /** Bookable trips departing on {@code utcDay} (UTC), reloading it once older than max-age. */
+  public TripDaySnapshot get(LocalDate utcDay) {
+    return get(utcDay, System.currentTimeMillis());
+  }
+
+  TripDaySnapshot get(LocalDate utcDay, long now) {
+    Cached c = cachedDay(utcDay);
+    if (c != null && now - c.loadedAtMs() < maxAgeMs) return c.snapshot();
+
+    // one load per day at a time: others serve what they have, or wait for it on a cold miss
+    CompletableFuture<TripDaySnapshot> mine = new CompletableFuture<>();
+    CompletableFuture<TripDaySnapshot> running = loading.putIfAbsent(utcDay, mine);
+    if (running != null) return c != null ? c.snapshot() : await(running);
+    try {
+      Cached again = cachedDay(utcDay); // a load may have finished since we looked
+      TripDaySnapshot s = again != null && now - again.loadedAtMs() < maxAgeMs ? again.snapshot() : load(utcDay, now);
+      mine.complete(s);
+      return s;
+    } catch (RuntimeException e) {
+      mine.completeExceptionally(e);
+      throw e;
+    } finally {
+      loading.remove(utcDay, mine);
+    }
+  }
+
+  private Cached cachedDay(LocalDate utcDay) {
+    synchronized (days) { return days.get(utcDay); }
+  }
+
+  private TripDaySnapshot load(LocalDate utcDay, long now) {
+    long seen = changes.get();
+    TripDaySnapshot s = TripDaySnapshot.of(index.departing(
+        utcDay.atStartOfDay().atOffset(ZoneOffset.UTC), utcDay.plusDays(1).atStartOfDay().atOffset(ZoneOffset.UTC)));
+    if (maxAgeMs > 0) {
+      // a change committed while loading may or may not be in s: keep it, but only until the next read
+      Cached loaded = new Cached(s, changes.get() == seen ? now : 0);
+      synchronized (days) { days.put(utcDay, loaded); }
+    }
+    return s;
+  }
+
+  private static TripDaySnapshot await(CompletableFuture<TripDaySnapshot> load) {
+    try {
+      return load.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException r) throw r;
+      throw e;
+    }
+  }
+
+  @EventListener
+  public void on(TripSearchChanged e) {
+    changes.incrementAndGet();
+    Map<LocalDate, Cached> current = cached();
+    if (current.isEmpty()) return;
+    Map<LocalDate, List<TripSearchRow>> byDay = new HashMap<>();
+    for (TripSearchRow r : e.upserted()) {
+      byDay.computeIfAbsent(r.rideAt().atZoneSameInstant(ZoneOffset.UTC).toLocalDate(), d -> new ArrayList<>()).add(r);
+    }
+    // a trip may have moved day: drop it everywhere, re-add on its current day
+    List<Long> gone = new ArrayList<>(e.removed());
+    for (TripSearchRow r : e.upserted()) gone.add(r.tripId());
+    current.forEach((day, c) -> {
+      List<TripSearchRow> upserts = byDay.getOrDefault(day, List.of());
+      TripDaySnapshot next = c.snapshot().with(upserts, upserts.isEmpty() ? onlyPresent(c.snapshot(), gone) : gone);
+      if (next == c.snapshot()) return;
+      synchronized (days) {
+        // replace only what we rebuilt from; evicted stays evicted, and if a concurrent reload or
+        // rebuild got there first (possibly without this change) the day is reloaded on next use
+        Cached now = days.get(day);
+        if (now == c) days.put(day, new Cached(next, c.loadedAtMs()));
+        else if (now != null) days.put(day, new Cached(now.snapshot(), 0));
+      }
+    });
+  }
+
+  /** Copy of the cached days, without touching their recency. */
+  private Map<LocalDate, Cached> cached() {
+    synchronized (days) { return new HashMap<>(days); }
+  }
+
+  private static List<Long> onlyPresent(TripDaySnapshot s, List<Long> ids) {
+    List<Long> present = new ArrayList<>();
+    for (Long id : ids) if (s.contains(id)) present.add(id);
+    return present;
+  }
+}
@@ -1,7 +1,11 @@
 package com.routelink.trip;
 
+import com.routelink.rating.Reputation;
+import com.routelink.rating.ReputationService;
 import java.math.BigDecimal;
 import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
 
 public record TripDto(
     Long id,
@@ -14,7 +18,8 @@ public record TripDto(
     int seatsTotal,
     int seatsLeft,
     TripStatus status,
-    boolean active
+    boolean active,
+    Reputation driverRating // null unless the endpoint batch-loads it
 ) {
   public static TripDto from(Trip t) {
     return new TripDto(
@@ -28,7 +33,20 @@ public record TripDto(
         t.getSeatsTotal(),
         t.getSeatsLeft(),
         t.getStatus(),
-        t.isActive()
+        t.isActive(),
+        null
     );
   }
+
+  public TripDto withDriverRating(Reputation r) {
+    return new TripDto(id, driverId, startPlace, startLat, startLng, endPlace, endLat, endLng,
+        polyline, rideAt, pricePerSeat, seatsTotal, seatsLeft, status, active, r);
+  }
+
+  /** Attaches driver reputation to a page of trips using one batched lookup. */
+  public static List<TripDto> withDriverRatings(List<TripDto> page, ReputationService reputations) {
+    if (page.isEmpty()) return page;
+    Map<Long, Reputation> byDriver = reputations.forUsers(page.stream().map(TripDto::driverId).toList());
+    return page.stream().map(d -> d.withDriverRating(byDriver.get(d.driverId()))).toList();
+  }
 }
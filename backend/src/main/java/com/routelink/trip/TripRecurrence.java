@@ -0,0 +1,52 @@
+package com.routelink.trip;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A weekly schedule: the given weekdays between {@code from} and {@code to} (inclusive), leaving
+ * out {@code except}, departing at {@code departAt} local time in {@code zone}. Local time is kept
+ * across DST changes, so a 07:30 commute stays 07:30 all year.
+ */
+public record TripRecurrence(
+    LocalDate from,
+    LocalDate to,
+    Set<DayOfWeek> days,
+    LocalTime departAt,
+    ZoneId zone,
+    Set<LocalDate> except
+) {
+  /** Longest schedule materialised in one go; longer series are posted again later. */
+  public static final int MAX_DAYS = 92;
+
+  public TripRecurrence {
+    if (from == null || to == null) throw new IllegalArgumentException("from and to are required");
+    if (to.isBefore(from)) throw new IllegalArgumentException("to must not be before from");
+    if (ChronoUnit.DAYS.between(from, to) >= MAX_DAYS)
+      throw new IllegalArgumentException("A schedule can span at most " + MAX_DAYS + " days");
+    if (days == null || days.isEmpty()) throw new IllegalArgumentException("At least one weekday is required");
+    if (departAt == null) throw new IllegalArgumentException("departAt is required");
+    if (zone == null) zone = ZoneId.of("UTC");
+    days = Set.copyOf(days);
+    except = except == null ? Set.of() : Set.copyOf(except);
+  }
+
+  /** Departure times in date order. */
+  public List<OffsetDateTime> occurrences() {
+    List<OffsetDateTime> out = new ArrayList<>();
+    for (LocalDate d = from; !d.isAfter(to); d = d.plusDays(1)) {
+      if (days.contains(d.getDayOfWeek()) && !except.contains(d)) {
+        out.add(ZonedDateTime.of(d, departAt, zone).toOffsetDateTime());
+      }
+    }
+    return out;
+  }
+}
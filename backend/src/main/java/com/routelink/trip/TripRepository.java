@@ -1,18 +1,18 @@
 package com.routelink.trip;
 
 import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.data.repository.query.Param;
-import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
 import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
-public interface TripRepository extends JpaRepository<Trip, Long> {
+public interface TripRepository extends JpaRepository<Trip, Long>, TripSearchRepository {
 
 	  // ...everything you already have...
 
@@ -48,48 +48,16 @@ public interface TripRepository extends JpaRepository<Trip, Long> {
   @Query("select t from Trip t where t.id = :id")
   Optional<Trip> findByIdForUpdate(@Param("id") Long id);
 
-  // Paged + filterable (used by /api/trips/search)
-  @Query("""
-    select t from Trip t
-    where t.active = true
-      and t.status in :statuses
-      and t.rideAt between :from and :to
-      and t.seatsLeft >= :minSeats
-      and (:minPrice is null or t.pricePerSeat >= :minPrice)
-      and (:maxPrice is null or t.pricePerSeat <= :maxPrice)
-    """)
-  Page<Trip> searchActiveOpenPaged(
-      @Param("from") OffsetDateTime from,
-      @Param("to") OffsetDateTime to,
-      @Param("statuses") List<TripStatus> statuses,
-      @Param("minSeats") int minSeats,
-      @Param("minPrice") BigDecimal minPrice,
-      @Param("maxPrice") BigDecimal maxPrice,
-      Pageable pageable
-  );
+  // searchActiveOpenPaged / searchActiveOpenList: built per call in TripSearchRepositoryImpl
 
-  // List + filterable (used by /search/near and /search/route before geo filtering)
+  // Expiry sweep: departed trips not yet closed, oldest first; rows locked elsewhere are skipped
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2")) // -2 = SKIP LOCKED
   @Query("""
     select t from Trip t
-    where t.active = true
-      and t.status in :statuses
-      and t.rideAt between :from and :to
-      and t.seatsLeft >= :minSeats
-      and (:minPrice is null or t.pricePerSeat >= :minPrice)
-      and (:maxPrice is null or t.pricePerSeat <= :maxPrice)
+    where t.rideAt < :cutoff
+      and (t.active = true or t.status <> com.routelink.trip.TripStatus.CLOSED)
+    order by t.rideAt, t.id
     """)
-  List<Trip> searchActiveOpenList(
-      @Param("from") OffsetDateTime from,
-      @Param("to") OffsetDateTime to,
-      @Param("statuses") List<TripStatus> statuses,
-      @Param("minSeats") int minSeats,
-      @Param("minPrice") BigDecimal minPrice,
-      @Param("maxPrice") BigDecimal maxPrice
-  );
-
-  // Cleanup job (explicit JPQL delete)
-  @Modifying(clearAutomatically = true, flushAutomatically = true)
-  @Transactional
-  @Query("delete from Trip t where t.active = false and t.rideAt < :cutoff")
-  int deleteInactiveBefore(@Param("cutoff") OffsetDateTime cutoff);
+  List<Trip> findDepartedForUpdate(@Param("cutoff") OffsetDateTime cutoff, Limit limit);
 }
@@ -0,0 +1,6 @@
+package com.routelink.trip;
+
+import java.util.List;
+
+/** Published after commit with what {@link TripSearchIndex} wrote: rows upserted and trip ids removed. */
+public record TripSearchChanged(List<TripSearchRow> upserted, List<Long> removed) {}
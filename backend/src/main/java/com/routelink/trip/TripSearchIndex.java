@@ -0,0 +1,281 @@
+package com.routelink.trip;
+
+import com.routelink.booking.BookingStateChanged;
+import com.routelink.booking.BookingStatus;
+import com.routelink.geo.Polyline;
+import com.routelink.rating.Reputation;
+import com.routelink.rating.ReputationService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Types;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains and queries trip_search (V9), the read model behind unified search.
+ *
+ * Writers mark trips dirty ({@link #markDirty}; trip and seat-changing booking events do so
+ * automatically). Just before the transaction commits, every dirty trip is written once from
+ * its in-memory state: upserted while bookable, deleted otherwise. The row therefore commits
+ * atomically with the change, and a transaction touching many trips costs one batch. After the
+ * commit the written rows are published for in-memory copies ({@link TripDaySnapshots}).
+ */
+@Component
+public class TripSearchIndex {
+
+  private static final String COLUMNS = """
+      trip_id, driver_id, ride_at, start_lat, start_lng, end_lat, end_lng,
+      min_lat, min_lng, max_lat, max_lng, route, price_cents, seats_left,
+      driver_rating_avg, driver_rating_count""";
+
+  private static final String VALUES = """
+      :tripId, :driverId, :rideAt, :startLat, :startLng, :endLat, :endLng,
+      :minLat, :minLng, :maxLat, :maxLng, :route, :priceCents, :seatsLeft,
+      :ratingAvg, :ratingCount""";
+
+  private static final String UPSERT = "insert into trip_search (" + COLUMNS + ") values (" + VALUES + """
+      )
+      on conflict (trip_id) do update set
+        driver_id = excluded.driver_id, ride_at = excluded.ride_at,
+        start_lat = excluded.start_lat, start_lng = excluded.start_lng,
+        end_lat = excluded.end_lat, end_lng = excluded.end_lng,
+        min_lat = excluded.min_lat, min_lng = excluded.min_lng,
+        max_lat = excluded.max_lat, max_lng = excluded.max_lng,
+        route = excluded.route, price_cents = excluded.price_cents, seats_left = excluded.seats_left,
+        driver_rating_avg = excluded.driver_rating_avg, driver_rating_count = excluded.driver_rating_count
+      """;
+
+  /** Used by the reconciler: never overwrites a row a live transaction wrote meanwhile. */
+  private static final String INSERT_MISSING =
+      "insert into trip_search (" + COLUMNS + ") values (" + VALUES + ") on conflict (trip_id) do nothing";
+
+  private static final RowMapper<TripSearchRow> ROW = (rs, i) -> new TripSearchRow(
+      rs.getLong("trip_id"), rs.getLong("driver_id"), rs.getObject("ride_at", OffsetDateTime.class),
+      rs.getDouble("start_lat"), rs.getDouble("start_lng"), rs.getDouble("end_lat"), rs.getDouble("end_lng"),
+      TripSearchRow.unpackRoute(rs.getBytes("route")),
+      rs.getInt("price_cents"), rs.getInt("seats_left"),
+      rs.getDouble("driver_rating_avg"), rs.getInt("driver_rating_count"));
+
+  private static final BigDecimal MAX_CENTS = BigDecimal.valueOf(Integer.MAX_VALUE);
+
+  private final NamedParameterJdbcTemplate jdbc;
+  private final ReputationService reputations;
+  private final ApplicationEventPublisher events;
+  private final double routeToleranceKm;
+
+  @PersistenceContext
+  private EntityManager em;
+
+  public TripSearchIndex(NamedParameterJdbcTemplate jdbc, ReputationService reputations, ApplicationEventPublisher events,
+                         @Value("${app.search.read-model.route-tolerance-km:0.1}") double routeToleranceKm) {
+    this.jdbc = jdbc;
+    this.reputations = reputations;
+    this.events = events;
+    this.routeToleranceKm = Math.max(0, routeToleranceKm);
+  }
+
+  /* ---------- writes ---------- */
+
+  /** The trip was created or edited in this transaction; its row follows at commit. */
+  public void markDirty(Trip t) {
+    Map<Long, Trip> dirty = pending();
+    if (dirty == null) events.publishEvent(write(Map.of(t.getId(), t)));
+    else dirty.put(t.getId(), t);
+  }
+
+  public void markDirty(Collection<Trip> trips) {
+    trips.forEach(this::markDirty);
+  }
+
+  @EventListener
+  public void on(TripStateChanged e) { markDirty(e.tripId()); }
+
+  /** Only confirm and cancel move seats; requests and declines leave the trip as it was. */
+  @EventListener
+  public void on(BookingStateChanged e) {
+    if (e.status() == BookingStatus.CONFIRMED || e.status() == BookingStatus.CANCELLED) markDirty(e.tripId());
+  }
+
+  private void markDirty(Long tripId) {
+    Map<Long, Trip> dirty = pending();
+    if (dirty == null) {
+      Map<Long, Trip> one = new LinkedHashMap<>();
+      one.put(tripId, null);
+      events.publishEvent(write(one));
+    } else {
+      dirty.putIfAbsent(tripId, null); // resolved from the persistence context at commit
+    }
+  }
+
+  /** Copies the driver's current aggregate (after RatingAggregateRepository.record) onto their rows. */
+  public void driverRated(Long driverId) {
+    jdbc.update("""
+        update trip_search s
+           set driver_rating_avg   = cast(a.rating_sum as double precision) / a.rating_count,
+               driver_rating_count = a.rating_count
+          from rating_aggregates a
+         where a.user_id = :driverId and s.driver_id = :driverId and a.rating_count > 0
+        """, Map.of("driverId", driverId));
+  }
+
+  /**
+   * This transaction's dirty set, registering the before-commit write on first use; null without
+   * one. What was written is announced ({@link TripSearchChanged}) only once the commit succeeded.
+   */
+  @SuppressWarnings("unchecked")
+  private Map<Long, Trip> pending() {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) return null;
+    Map<Long, Trip> dirty = (Map<Long, Trip>) TransactionSynchronizationManager.getResource(this);
+    if (dirty != null) return dirty;
+
+    Map<Long, Trip> fresh = new LinkedHashMap<>();
+    TransactionSynchronizationManager.bindResource(this, fresh);
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      TripSearchChanged written;
+      @Override public void beforeCommit(boolean readOnly) { written = write(fresh); }
+      @Override public void afterCommit() { if (written != null) events.publishEvent(written); }
+      @Override public void afterCompletion(int status) { TransactionSynchronizationManager.unbindResourceIfPossible(TripSearchIndex.this); }
+    });
+    return fresh;
+  }
+
+  private TripSearchChanged write(Map<Long, Trip> dirty) {
+    List<Trip> bookable = new ArrayList<>();
+    List<Long> gone = new ArrayList<>();
+    dirty.forEach((id, t) -> {
+      Trip trip = t != null ? t : em.find(Trip.class, id);
+      if (trip != null && isBookable(trip)) bookable.add(trip);
+      else gone.add(id);
+    });
+    if (!gone.isEmpty()) jdbc.update("delete from trip_search where trip_id in (:ids)", Map.of("ids", gone));
+    List<TripSearchRow> rows = rows(bookable);
+    if (!rows.isEmpty()) jdbc.batchUpdate(UPSERT, params(rows));
+    return new TripSearchChanged(rows, gone);
+  }
+
+  /* ---------- reconciliation (TripSearchReconciler) ---------- */
+
+  /** Deletes rows whose trip is gone, no longer bookable, or has moved time or seats. */
+  @Transactional
+  public int removeStale() {
+    return jdbc.getJdbcTemplate().update("""
+        delete from trip_search s
+         where not exists (
+           select 1 from trips t
+            where t.id = s.trip_id and t.ride_at = s.ride_at
+              and t.active and t.status = 'OPEN' and t.seats_left = s.seats_left and t.seats_left > 0)
+        """);
+  }
+
+  /**
+   * Adds rows for up to {@code limit} upcoming bookable trips that have none; returns how many
+   * trips were examined (0 when nothing is missing). Never overwrites a row written meanwhile.
+   */
+  @Transactional
+  public int addMissing(int limit) {
+    List<Long> ids = jdbc.queryForList("""
+        select t.id from trips t
+         where t.ride_at >= now() and t.active and t.status = 'OPEN' and t.seats_left > 0
+           and not exists (select 1 from trip_search s where s.trip_id = t.id)
+         order by t.ride_at
+         limit :limit
+        """, Map.of("limit", Math.max(1, limit)), Long.class);
+    if (ids.isEmpty()) return 0;
+    List<Trip> trips = em.createQuery("select t from Trip t where t.id in :ids", Trip.class)
+        .setParameter("ids", ids).getResultList();
+    List<TripSearchRow> rows = rows(trips.stream().filter(TripSearchIndex::isBookable).toList());
+    if (!rows.isEmpty()) jdbc.batchUpdate(INSERT_MISSING, params(rows));
+    return ids.size();
+  }
+
+  static boolean isBookable(Trip t) {
+    return t.isActive() && t.getStatus() == TripStatus.OPEN && t.getSeatsLeft() > 0 && t.getRideAt() != null;
+  }
+
+  private List<TripSearchRow> rows(List<Trip> trips) {
+    if (trips.isEmpty()) return List.of();
+    Set<Long> driverIds = trips.stream().map(t -> t.getDriver().getId()).collect(Collectors.toSet());
+    Map<Long, Reputation> reps = reputations.forUsers(driverIds);
+    return trips.stream().map(t -> row(t, reps.get(t.getDriver().getId()))).toList();
+  }
+
+  private TripSearchRow row(Trip t, Reputation rep) {
+    return new TripSearchRow(
+        t.getId(), t.getDriver().getId(), t.getRideAt(), // proxy id, no user load
+        t.getStartLat(), t.getStartLng(), t.getEndLat(), t.getEndLng(),
+        Polyline.simplify(Polyline.decode(t.getPolyline()), routeToleranceKm),
+        priceCents(t.getPricePerSeat()),
+        t.getSeatsLeft(),
+        rep == null ? 0.0 : rep.avg(),
+        rep == null ? 0 : rep.count());
+  }
+
+  /**
+   * Price in cents. TripService caps new prices well inside int range; older rows above it are
+   * clamped rather than failing the commit this write runs in.
+   */
+  static int priceCents(BigDecimal price) {
+    BigDecimal cents = price.movePointRight(2).setScale(0, RoundingMode.HALF_UP);
+    return cents.compareTo(MAX_CENTS) > 0 ? Integer.MAX_VALUE : cents.intValueExact();
+  }
+
+  private static MapSqlParameterSource[] params(List<TripSearchRow> rows) {
+    return rows.stream().map(TripSearchIndex::params).toArray(MapSqlParameterSource[]::new);
+  }
+
+  private static MapSqlParameterSource params(TripSearchRow r) {
+    double minLat = Math.min(r.startLat(), r.endLat()), maxLat = Math.max(r.startLat(), r.endLat());
+    double minLng = Math.min(r.startLng(), r.endLng()), maxLng = Math.max(r.startLng(), r.endLng());
+    for (double[] p : r.route()) {
+      minLat = Math.min(minLat, p[0]); maxLat = Math.max(maxLat, p[0]);
+      minLng = Math.min(minLng, p[1]); maxLng = Math.max(maxLng, p[1]);
+    }
+    return new MapSqlParameterSource()
+        .addValue("tripId", r.tripId())
+        .addValue("driverId", r.driverId())
+        .addValue("rideAt", r.rideAt())
+        .addValue("startLat", r.startLat()).addValue("startLng", r.startLng())
+        .addValue("endLat", r.endLat()).addValue("endLng", r.endLng())
+        .addValue("minLat", minLat).addValue("minLng", minLng)
+        .addValue("maxLat", maxLat).addValue("maxLng", maxLng)
+        .addValue("route", TripSearchRow.packRoute(r.route()), Types.BINARY)
+        .addValue("priceCents", r.priceCents())
+        .addValue("seatsLeft", r.seatsLeft())
+        .addValue("ratingAvg", r.driverRatingAvg())
+        .addValue("ratingCount", r.driverRatingCount());
+  }
+
+  /* ---------- reads ---------- */
+
+  /**
+   * Every bookable trip departing in [from, to), in departure order: the input of a
+   * {@link TripDaySnapshot}. Geometry and seat filters run in memory over the snapshot.
+   */
+  @Transactional(readOnly = true)
+  public List<TripSearchRow> departing(OffsetDateTime from, OffsetDateTime to) {
+    return jdbc.query("select " + COLUMNS + """
+          from trip_search
+         where ride_at >= :from and ride_at < :to
+         order by ride_at, trip_id
+        """, Map.of("from", from, "to", to), ROW);
+  }
+}
@@ -0,0 +1,40 @@
+package com.routelink.trip;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/**
+ * Trip search queries assembled per call (see {@link TripSearchRepositoryImpl}).
+ *
+ * Only the filters actually supplied become predicates; a null price bound is simply absent
+ * from the SQL instead of being an {@code (:p is null or ...)} branch the planner can't drop.
+ * The status filter is never dropped: a null or empty list means OPEN only.
+ * Read-only, so with replica routing enabled they run on a replica.
+ */
+@Transactional(readOnly = true)
+public interface TripSearchRepository {
+
+  Page<Trip> searchActiveOpenPaged(
+      OffsetDateTime from,
+      OffsetDateTime to,
+      List<TripStatus> statuses,
+      int minSeats,
+      BigDecimal minPrice,
+      BigDecimal maxPrice,
+      Pageable pageable
+  );
+
+  List<Trip> searchActiveOpenList(
+      OffsetDateTime from,
+      OffsetDateTime to,
+      List<TripStatus> statuses,
+      int minSeats,
+      BigDecimal minPrice,
+      BigDecimal maxPrice
+  );
+}
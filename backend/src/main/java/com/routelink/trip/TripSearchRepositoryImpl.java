@@ -0,0 +1,104 @@
+package com.routelink.trip;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Hand-built JPQL for the trip searches.
+ *
+ * {@code active} and the status list are written as literals, so Postgres can match the
+ * partial index idx_trips_open_ride_at ({@code where active and status = 'OPEN'}) even from
+ * a generic plan; the ride_at window is always bound, which also drives partition pruning.
+ * Optional filters are appended only when present, so each filter combination gets its own
+ * statement text and plan.
+ */
+class TripSearchRepositoryImpl implements TripSearchRepository {
+
+  /** Sortable properties; anything else from the client is ignored. */
+  private static final Set<String> SORTABLE = Set.of("rideAt", "pricePerSeat");
+
+  @PersistenceContext
+  private EntityManager em;
+
+  /** A where clause and the parameters it references. */
+  record Filter(String where, Map<String, Object> params) {
+
+    static Filter of(OffsetDateTime from, OffsetDateTime to, List<TripStatus> statuses,
+                     int minSeats, BigDecimal minPrice, BigDecimal maxPrice) {
+      StringBuilder w = new StringBuilder("t.active = true");
+      Map<String, Object> p = new LinkedHashMap<>();
+
+      // no statuses means the default, not "any status": these are searches for open trips
+      List<String> literals = (statuses == null || statuses.isEmpty() ? List.of(TripStatus.OPEN) : statuses)
+          .stream().distinct().map(s -> TripStatus.class.getName() + "." + s.name()).toList();
+      w.append(literals.size() == 1 ? " and t.status = " : " and t.status in (")
+       .append(String.join(", ", literals))
+       .append(literals.size() == 1 ? "" : ")");
+      w.append(" and t.rideAt between :from and :to");
+      p.put("from", from);
+      p.put("to", to);
+      if (minSeats > 0) {
+        w.append(" and t.seatsLeft >= :minSeats");
+        p.put("minSeats", minSeats);
+      }
+      if (minPrice != null) {
+        w.append(" and t.pricePerSeat >= :minPrice");
+        p.put("minPrice", minPrice);
+      }
+      if (maxPrice != null) {
+        w.append(" and t.pricePerSeat <= :maxPrice");
+        p.put("maxPrice", maxPrice);
+      }
+      return new Filter(w.toString(), p);
+    }
+
+    <T> TypedQuery<T> bind(TypedQuery<T> q) {
+      params.forEach(q::setParameter);
+      return q;
+    }
+  }
+
+  @Override
+  public Page<Trip> searchActiveOpenPaged(OffsetDateTime from, OffsetDateTime to, List<TripStatus> statuses,
+                                          int minSeats, BigDecimal minPrice, BigDecimal maxPrice,
+                                          Pageable pageable) {
+    Filter f = Filter.of(from, to, statuses, minSeats, minPrice, maxPrice);
+    TypedQuery<Trip> q = f.bind(em.createQuery(
+        "select t from Trip t where " + f.where() + orderBy(pageable.getSort()), Trip.class));
+    if (pageable.isPaged()) {
+      q.setFirstResult((int) pageable.getOffset());
+      q.setMaxResults(pageable.getPageSize());
+    }
+    List<Trip> content = q.getResultList();
+    return PageableExecutionUtils.getPage(content, pageable, () ->
+        f.bind(em.createQuery("select count(t) from Trip t where " + f.where(), Long.class)).getSingleResult());
+  }
+
+  @Override
+  public List<Trip> searchActiveOpenList(OffsetDateTime from, OffsetDateTime to, List<TripStatus> statuses,
+                                         int minSeats, BigDecimal minPrice, BigDecimal maxPrice) {
+    Filter f = Filter.of(from, to, statuses, minSeats, minPrice, maxPrice);
+    return f.bind(em.createQuery("select t from Trip t where " + f.where(), Trip.class)).getResultList();
+  }
+
+  private static String orderBy(Sort sort) {
+    String cols = sort.stream()
+        .filter(o -> SORTABLE.contains(o.getProperty()))
+        .map(o -> "t." + o.getProperty() + (o.isAscending() ? " asc" : " desc"))
+        .collect(Collectors.joining(", "));
+    return cols.isEmpty() ? "" : " order by " + cols + ", t.id";
+  }
+}
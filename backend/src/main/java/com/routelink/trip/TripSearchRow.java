@@ -0,0 +1,48 @@
+package com.routelink.trip;
+
+import java.nio.ByteBuffer;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One trip_search row: what the matchers need about a bookable trip and nothing else.
+ *
+ * {@code route} is the simplified polyline, empty when the driver gave none (matchers then use
+ * the straight start-end segment). Rating columns are a copy of the driver's aggregate.
+ */
+public record TripSearchRow(
+    long tripId,
+    long driverId,
+    OffsetDateTime rideAt,
+    double startLat, double startLng,
+    double endLat,   double endLng,
+    List<double[]> route,
+    int priceCents,
+    int seatsLeft,
+    double driverRatingAvg,
+    int driverRatingCount
+) {
+  public boolean hasRoute() { return route != null && route.size() > 1; }
+
+  /** Same smoothing as {@link com.routelink.rating.Reputation#smoothedScore}, from the copied columns. */
+  public double driverScore(double prior, int weight) {
+    return (prior * weight + driverRatingAvg * driverRatingCount) / (weight + driverRatingCount) / 5.0;
+  }
+
+  /** lat/lng pairs as big-endian float32 (about 2 m precision): 8 bytes per point. */
+  static byte[] packRoute(List<double[]> path) {
+    if (path == null || path.size() < 2) return null;
+    ByteBuffer buf = ByteBuffer.allocate(path.size() * 8);
+    for (double[] p : path) buf.putFloat((float) p[0]).putFloat((float) p[1]);
+    return buf.array();
+  }
+
+  static List<double[]> unpackRoute(byte[] bytes) {
+    if (bytes == null || bytes.length < 16) return List.of();
+    ByteBuffer buf = ByteBuffer.wrap(bytes);
+    List<double[]> path = new ArrayList<>(bytes.length / 8);
+    while (buf.remaining() >= 8) path.add(new double[]{ buf.getFloat(), buf.getFloat() });
+    return path;
+  }
+}
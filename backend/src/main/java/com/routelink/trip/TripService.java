@@ -1,23 +1,35 @@
 package com.routelink.trip;
 
+import com.routelink.security.CurrentUser;
 import com.routelink.user.User;
-import com.routelink.user.UserRepository;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
 
 @Service
 public class TripService {
   private final TripRepository trips;
-  private final UserRepository users;
-
-  public TripService(TripRepository trips, UserRepository users) {
+  private final CurrentUser currentUser;
+  private final ApplicationEventPublisher events;
+  private final TripSearchIndex searchIndex;
+  private final int aheadMonths;
+
+  public TripService(TripRepository trips, CurrentUser currentUser, ApplicationEventPublisher events,
+                     TripSearchIndex searchIndex,
+                     @Value("${app.partitions.ahead-months:3}") int aheadMonths) {
     this.trips = trips;
-    this.users = users;
+    this.currentUser = currentUser;
+    this.events = events;
+    this.searchIndex = searchIndex;
+    this.aheadMonths = Math.max(1, aheadMonths);
   }
 
   /* -------- DTO used by TripController.create(...) -------- */
@@ -28,21 +40,19 @@ public class TripService {
       OffsetDateTime rideAt,
       BigDecimal pricePerSeat,
       int seatsTotal
-  ) {}
-
-  /* ----------------- helpers ----------------- */
-  private static String currentEmail() {
-    Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-    if (auth == null || auth.getName() == null) throw new IllegalStateException("Unauthenticated");
-    return auth.getName();
+  ) {
+    CreateTrip at(OffsetDateTime when) {
+      return new CreateTrip(startPlace, startLat, startLng, endPlace, endLat, endLng,
+          polyline, when, pricePerSeat, seatsTotal);
+    }
   }
 
-  private User requireCurrentUser() {
-    String email = currentEmail();
-    return users.findByEmail(email)
-        .orElseThrow(() -> new IllegalArgumentException("User not found: " + email));
-  }
+  /** Largest bulk post: a long weekday schedule, twice a day. */
+  public static final int MAX_BULK = 200;
+  /** Highest seat price accepted; keeps trip_search.price_cents (an int) in range. */
+  public static final String MAX_PRICE_PER_SEAT = "100000.00";
 
+  /* ----------------- helpers ----------------- */
   private void ensureDriverOwns(Trip t, Long meId) {
     if (t.getDriver() == null || !t.getDriver().getId().equals(meId)) {
       throw new IllegalStateException("Only the driver who posted this trip can perform this action");
@@ -53,13 +63,60 @@ public class TripService {
 
   @Transactional
   public Trip create(CreateTrip req) {
+    Trip saved = trips.save(newTrip(req, currentUser.reference())); // FK only, no user SELECT
+    searchIndex.markDirty(saved);
+    return saved;
+  }
+
+  /**
+   * Posts several trips for the current driver in one transaction. Ids come from the pooled
+   * trips sequence, so the inserts go out as JDBC batches at commit (hibernate.jdbc.batch_size):
+   * a month of commutes is a handful of statements. All or nothing.
+   */
+  @Transactional
+  public List<Trip> createAll(List<CreateTrip> reqs) {
+    if (reqs == null || reqs.isEmpty()) throw new IllegalArgumentException("At least one trip is required");
+    if (reqs.size() > MAX_BULK) throw new IllegalArgumentException("At most " + MAX_BULK + " trips per request");
+
+    User driver = currentUser.reference();
+    List<Trip> out = new ArrayList<>(reqs.size());
+    for (CreateTrip req : reqs) out.add(newTrip(req, driver));
+    List<Trip> saved = trips.saveAll(out);
+    searchIndex.markDirty(saved); // one batched upsert at commit
+    return saved;
+  }
+
+  /** Materialises every occurrence of a weekly schedule, with {@code template.rideAt()} ignored. */
+  @Transactional
+  public List<Trip> createRecurring(CreateTrip template, TripRecurrence schedule) {
+    if (template == null || schedule == null) throw new IllegalArgumentException("Request is required");
+    List<OffsetDateTime> departures = schedule.occurrences();
+    if (departures.isEmpty()) throw new IllegalArgumentException("The schedule has no departures");
+    OffsetDateTime horizon = recurringHorizon();
+    if (!departures.get(departures.size() - 1).isBefore(horizon))
+      throw new IllegalArgumentException("Recurring trips can be scheduled up to " + horizon.toLocalDate().minusDays(1));
+
+    List<CreateTrip> reqs = new ArrayList<>(departures.size());
+    for (OffsetDateTime at : departures) reqs.add(template.at(at));
+    return createAll(reqs);
+  }
+
+  /**
+   * End of the last month whose trips partition PartitionMaintenance keeps ready (ahead-months).
+   * Series past it would pile up in the default partition until their month is created.
+   */
+  OffsetDateTime recurringHorizon() {
+    return YearMonth.now(ZoneOffset.UTC).plusMonths(aheadMonths + 1L).atDay(1).atStartOfDay().atOffset(ZoneOffset.UTC);
+  }
+
+  private static Trip newTrip(CreateTrip req, User driver) {
     if (req == null) throw new IllegalArgumentException("Request is required");
     if (req.seatsTotal() <= 0) throw new IllegalArgumentException("seatsTotal must be > 0");
     if (req.rideAt() == null) throw new IllegalArgumentException("rideAt is required");
     if (req.pricePerSeat() == null || req.pricePerSeat().signum() < 0)
       throw new IllegalArgumentException("pricePerSeat must be >= 0");
-
-    User driver = requireCurrentUser();
+    if (req.pricePerSeat().compareTo(new BigDecimal(MAX_PRICE_PER_SEAT)) > 0)
+      throw new IllegalArgumentException("pricePerSeat must be <= " + MAX_PRICE_PER_SEAT);
 
     Trip t = new Trip();
     t.setDriver(driver);
@@ -80,22 +137,21 @@ public class TripService {
     t.setSeatsLeft(req.seatsTotal());
     t.setStatus(TripStatus.OPEN);
     t.setActive(true);
-
-    return trips.save(t);
+    return t;
   }
 
   @Transactional
   public Trip close(Long id) {
     Trip t = trips.findByIdForUpdate(id)
         .orElseThrow(() -> new IllegalArgumentException("Trip not found"));
-    Long me = requireCurrentUser().getId();
-    ensureDriverOwns(t, me);
+    ensureDriverOwns(t, currentUser.id());
 
     if (t.getStatus() == TripStatus.CLOSED && !t.isActive()) {
       return t; // idempotent
     }
     t.setStatus(TripStatus.CLOSED);
     t.setActive(false);
+    events.publishEvent(TripStateChanged.of(t));
     return t; // managed; flushed on commit
   }
 
@@ -103,12 +159,12 @@ public class TripService {
   public Trip reopen(Long id) {
     Trip t = trips.findByIdForUpdate(id)
         .orElseThrow(() -> new IllegalArgumentException("Trip not found"));
-    Long me = requireCurrentUser().getId();
-    ensureDriverOwns(t, me);
+    ensureDriverOwns(t, currentUser.id());
 
     if (t.getSeatsLeft() <= 0) throw new IllegalStateException("Cannot reopen: no seats left");
     if (t.getStatus() != TripStatus.OPEN) t.setStatus(TripStatus.OPEN);
     t.setActive(true);
+    events.publishEvent(TripStateChanged.of(t));
     return t;
   }
 }
@@ -0,0 +1,8 @@
+package com.routelink.trip;
+
+/** Published (in-transaction) whenever a trip's status/visibility changes; consumed after commit. */
+public record TripStateChanged(Long tripId, Long driverId, TripStatus status, boolean active, int seatsLeft) {
+  public static TripStateChanged of(Trip t) {
+    return new TripStateChanged(t.getId(), t.getDriver().getId(), t.getStatus(), t.isActive(), t.getSeatsLeft());
+  }
+}
@@ -1,9 +1,22 @@
 // src/main/java/com/routelink/trip/UnifiedSearchController.java
 package com.routelink.trip;
 
+import com.routelink.admission.Admission;
+import com.routelink.admission.AdmissionControl;
+import com.routelink.common.Deadline;
+import com.routelink.rating.Reputation;
+import com.routelink.rating.ReputationService;
 import com.routelink.trip.dto.TripSearchDto;
 import com.routelink.trip.dto.UnifiedSearchRequest;
 import com.routelink.trip.dto.UnifiedSearchResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionTimedOutException;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.ZoneId;
@@ -13,53 +26,108 @@ import java.util.stream.Collectors;
 @RestController
 @RequestMapping("/api/trips")
 public class UnifiedSearchController {
+  /** Client's time budget in ms; the mobile app gives up after ~1500. */
+  public static final String DEADLINE_HEADER = "X-Deadline-Ms";
+  /** "true" when the deadline cut the search short and only the best matches so far are returned. */
+  public static final String PARTIAL_HEADER = "X-Search-Partial";
+
+  private static final Logger log = LoggerFactory.getLogger(UnifiedSearchController.class);
+
   private final UnifiedSearchService service;
   private final TripRepository trips;
+  private final ReputationService reputations;
+  private final PlatformTransactionManager txManager;
   private final ZoneId zone = ZoneId.systemDefault();
+  private final long defaultDeadlineMs;
+  private final long maxDeadlineMs;
+  private final long hydrateReserveMs;
 
-  public UnifiedSearchController(UnifiedSearchService service, TripRepository trips) {
+  public UnifiedSearchController(UnifiedSearchService service, TripRepository trips, ReputationService reputations,
+                                 PlatformTransactionManager txManager,
+                                 @Value("${search.deadline.default-ms:0}") long defaultDeadlineMs,
+                                 @Value("${search.deadline.max-ms:10000}") long maxDeadlineMs,
+                                 @Value("${search.deadline.hydrate-reserve-ms:150}") long hydrateReserveMs) {
     this.service = service;
     this.trips = trips;
+    this.reputations = reputations;
+    this.txManager = txManager;
+    this.defaultDeadlineMs = defaultDeadlineMs;
+    this.maxDeadlineMs = maxDeadlineMs;
+    this.hydrateReserveMs = hydrateReserveMs;
   }
 
   @PostMapping("/search-unified")
-  public List<TripSearchDto> search(@RequestBody UnifiedSearchRequest q) {
+  @Admission(AdmissionControl.SEARCH)
+  public ResponseEntity<List<TripSearchDto>> search(
+      @RequestBody UnifiedSearchRequest q,
+      @RequestHeader(name = DEADLINE_HEADER, required = false) Long deadlineHeader,
+      @RequestParam(name = "deadlineMs", required = false) Long deadlineParam) {
+    long budget = deadlineHeader != null ? deadlineHeader : deadlineParam != null ? deadlineParam : defaultDeadlineMs;
+    if (budget > 0 && maxDeadlineMs > 0) budget = Math.min(budget, maxDeadlineMs);
+    Deadline deadline = Deadline.in(budget);
+    log.debug("[search-unified] start='{}' ({},{})  end='{}' ({},{})  seats={}  date={}",
+        q.startText(), q.startLat(), q.startLng(), q.endText(), q.endLat(), q.endLng(), q.seats(), q.date());
+
+    // 1) run unified matcher; it stops early enough to leave time for the hydration below
+    UnifiedSearchService.Outcome outcome = service.search(q, zone, deadline.minus(hydrateReserveMs));
+    List<UnifiedSearchResult> results = outcome.results();
+    log.debug("[search-unified] unified results: {}{}", results.size(), outcome.partial() ? " (partial)" : "");
+
+    if (results.isEmpty()) {
+      return respond(List.of(), outcome.partial());
+    }
+
+    // 2) trips with driver, plus reputations, within what is left of the budget
+    List<TripSearchDto> out = hydrate(results, deadline);
+    if (out == null) return respond(List.of(), true);
+    return respond(out, outcome.partial());
+  }
+
+  /**
+   * Loads the matched trips (driver fetch-joined) and their drivers' reputations. With a
+   * bounded deadline this runs in a read-only transaction whose timeout becomes the JDBC query
+   * timeout, so slow queries are cancelled; null when the deadline passed first.
+   */
+  private List<TripSearchDto> hydrate(List<UnifiedSearchResult> results, Deadline deadline) {
+    if (!deadline.isBounded()) return rows(results);
+    if (deadline.expired()) return null;
+    TransactionTemplate tx = new TransactionTemplate(txManager);
+    tx.setReadOnly(true);
+    tx.setTimeout((int) Math.max(1, (deadline.remainingMillis() + 999) / 1000));
     try {
-      System.out.printf(
-          "[search-unified] start='%s' (%.6f,%.6f)  end='%s' (%.6f,%.6f)  seats=%d  date=%s%n",
-          q.startText(), q.startLat(), q.startLng(),
-          q.endText(),   q.endLat(),   q.endLng(),
-          q.seats(), q.date()
-      );
-
-      // 1) run unified matcher
-      List<UnifiedSearchResult> results = service.search(q, zone);
-      System.out.println("[search-unified] unified results: " + results.size());
-
-      if (results.isEmpty()) {
-        return List.of();
-      }
-
-      // 2) fetch trips with driver eagerly to avoid LazyInitializationException
-      Set<Long> ids = results.stream()
-          .map(UnifiedSearchResult::tripId)
-          .collect(Collectors.toSet());
-
-      // IMPORTANT: use the fetch-join method
-      Map<Long, Trip> byId = trips.findAllByIdFetchDriver(ids).stream()
-          .collect(Collectors.toMap(Trip::getId, t -> t));
-
-      // 3) build view rows
-      List<TripSearchDto> out = new ArrayList<>(results.size());
-      for (UnifiedSearchResult r : results) {
-        Trip t = byId.get(r.tripId());
-        if (t == null) continue; // was removed meanwhile
-        out.add(new TripSearchDto(TripDto.from(t), r.score(), r.matchedBy()));
-      }
+      List<TripSearchDto> out = tx.execute(s -> rows(results));
+      if (deadline.expired()) log.debug("[search-unified] hydration finished past the deadline");
       return out;
-    } catch (Exception ex) {
-      ex.printStackTrace(); // keep a stack in server logs
-      throw ex;             // surface 500 so you notice during dev
+    } catch (QueryTimeoutException | TransactionTimedOutException e) {
+      log.debug("[search-unified] hydration abandoned at deadline: {}", e.getMessage());
+      return null;
     }
   }
+
+  private List<TripSearchDto> rows(List<UnifiedSearchResult> results) {
+    Set<Long> ids = results.stream().map(UnifiedSearchResult::tripId).collect(Collectors.toSet());
+
+    // IMPORTANT: use the fetch-join method (avoids LazyInitializationException on the driver)
+    Map<Long, Trip> byId = trips.findAllByIdFetchDriver(ids).stream()
+        .collect(Collectors.toMap(Trip::getId, t -> t));
+
+    // one batched lookup (usually a cache hit: ranking just loaded the same drivers)
+    Map<Long, Reputation> ratings = reputations.forUsers(
+        byId.values().stream().map(t -> t.getDriver().getId()).toList());
+
+    List<TripSearchDto> out = new ArrayList<>(results.size());
+    for (UnifiedSearchResult r : results) {
+      Trip t = byId.get(r.tripId());
+      if (t == null) continue; // was removed meanwhile
+      TripDto dto = TripDto.from(t).withDriverRating(ratings.get(t.getDriver().getId()));
+      out.add(new TripSearchDto(dto, r.score(), r.matchedBy()));
+    }
+    return out;
+  }
+
+  private static ResponseEntity<List<TripSearchDto>> respond(List<TripSearchDto> rows, boolean partial) {
+    var res = ResponseEntity.ok();
+    if (partial) res.header(PARTIAL_HEADER, "true");
+    return res.body(rows);
+  }
 }
@@ -1,30 +1,127 @@
 // src/main/java/com/routelink/trip/UnifiedSearchService.java
 package com.routelink.trip;
 
+import com.routelink.common.Deadline;
 import com.routelink.trip.dto.UnifiedSearchRequest;
 import com.routelink.trip.dto.UnifiedSearchResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.QueryTimeoutException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionTimedOutException;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
 import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.util.*;
+import java.util.function.ToDoubleFunction;
 import java.util.stream.Collectors;
 
 @Service
 public class UnifiedSearchService {
+  private static final Logger log = LoggerFactory.getLogger(UnifiedSearchService.class);
+
+  /** Ranked matches; {@code partial} when the deadline cut the search short. */
+  public record Outcome(List<UnifiedSearchResult> results, boolean partial) {}
+
+  private final TripDaySnapshots snapshots;
   private final NearSearchService near;
   private final AlongRouteSearchService along;
+  private final PlatformTransactionManager txManager;
+  private final double reputationWeight;
 
-  public UnifiedSearchService(NearSearchService near, AlongRouteSearchService along) {
+  public UnifiedSearchService(TripDaySnapshots snapshots, NearSearchService near, AlongRouteSearchService along,
+                              PlatformTransactionManager txManager,
+                              @Value("${search.ranking.reputation-weight:0}") double reputationWeight) {
+    this.snapshots = snapshots;
     this.near = near;
     this.along = along;
+    this.txManager = txManager;
+    this.reputationWeight = Math.max(0, Math.min(1, reputationWeight));
   }
 
   public List<UnifiedSearchResult> search(UnifiedSearchRequest q, ZoneId zone) {
-    // Each returns List<TripMatch> where TripMatch = (tripId, score, matchedBy)
-    var nearHits  = near.search(q.startLat(), q.startLng(), q.endLat(), q.endLng(),
-                                q.seats(), q.date(), zone);
-    var alongHits = along.search(q.startLat(), q.startLng(), q.endLat(), q.endLng(),
-                                 q.seats(), q.date(), zone);
+    return search(q, zone, Deadline.none()).results();
+  }
+
+  /**
+   * Scans the in-memory snapshots of the UTC days the local date overlaps ({@link TripDaySnapshots},
+   * reloaded from the trip_search read model when stale), each cut to the local date's
+   * departures by binary search. NEAR (cheap) is scored before ALONG (route walk). Both loops check {@code deadline}; when it
+   * passes, whatever was scored so far is ranked and returned with {@code partial=true} instead
+   * of finishing work nobody will read.
+   */
+  public Outcome search(UnifiedSearchRequest q, ZoneId zone, Deadline deadline) {
+    var from = q.date().atStartOfDay(zone).toOffsetDateTime();
+    var to   = q.date().plusDays(1).atStartOfDay(zone).toOffsetDateTime();
+    List<TripDaySnapshot> days = snapshots(from, to, deadline);
+    if (days == null) return new Outcome(List.of(), true);
+
+    List<TripMatch> nearHits = new ArrayList<>();
+    List<TripMatch> alongHits = new ArrayList<>();
+    boolean complete = true;
+    for (TripDaySnapshot s : days) {
+      int lo = s.lowerBound(from.toEpochSecond()), hi = s.lowerBound(to.toEpochSecond());
+      complete = complete
+          && near.match(s, lo, hi, q.startLat(), q.startLng(), q.endLat(), q.endLng(), q.seats(), deadline, nearHits);
+    }
+    for (TripDaySnapshot s : days) {
+      int lo = s.lowerBound(from.toEpochSecond()), hi = s.lowerBound(to.toEpochSecond());
+      complete = complete
+          && along.match(s, lo, hi, q.startLat(), q.startLng(), q.endLat(), q.endLng(), q.seats(), deadline, alongHits);
+    }
+    return new Outcome(rankAndMerge(nearHits, alongHits, reputationOf(days, nearHits, alongHits)), !complete);
+  }
+
+  /**
+   * Per-trip driver reputation in 0..1 (smoothed toward a 4-star prior), read from the rating
+   * columns the snapshot carries. Constant 0 when reputation-weight is 0.
+   */
+  private ToDoubleFunction<Long> reputationOf(List<TripDaySnapshot> days, List<TripMatch> nearHits, List<TripMatch> alongHits) {
+    if (reputationWeight == 0 || (nearHits.isEmpty() && alongHits.isEmpty())) return id -> 0;
+    Set<Long> matched = new HashSet<>();
+    nearHits.forEach(m -> matched.add(m.tripId()));
+    alongHits.forEach(m -> matched.add(m.tripId()));
+    Map<Long, Double> byTrip = new HashMap<>();
+    for (TripDaySnapshot s : days) {
+      for (int i = 0; i < s.size(); i++) {
+        if (matched.contains(s.ids[i])) byTrip.put(s.ids[i], s.driverScore(i, 4.0, 5));
+      }
+    }
+    return tripId -> byTrip.getOrDefault(tripId, 0.0);
+  }
+
+  /**
+   * Snapshots of the UTC days overlapping [from, to); null if the deadline passed before a
+   * stale one could be reloaded. Fresh snapshots need no database at all.
+   */
+  private List<TripDaySnapshot> snapshots(OffsetDateTime from, OffsetDateTime to, Deadline deadline) {
+    List<LocalDate> utcDays = new ArrayList<>();
+    for (LocalDate d = from.atZoneSameInstant(ZoneOffset.UTC).toLocalDate();
+         !d.isAfter(to.minusNanos(1).atZoneSameInstant(ZoneOffset.UTC).toLocalDate()); d = d.plusDays(1)) {
+      utcDays.add(d);
+    }
+    if (!deadline.isBounded()) return utcDays.stream().map(snapshots::get).toList();
+    if (deadline.expired()) return null;
+
+    // the transaction timeout becomes the JDBC query timeout, so Postgres stops too
+    TransactionTemplate tx = new TransactionTemplate(txManager);
+    tx.setReadOnly(true);
+    tx.setTimeout((int) Math.max(1, (deadline.remainingMillis() + 999) / 1000));
+    try {
+      return tx.execute(s -> utcDays.stream().map(snapshots::get).toList());
+    } catch (QueryTimeoutException | TransactionTimedOutException e) {
+      log.debug("Snapshot load abandoned at deadline: {}", e.getMessage());
+      return null;
+    }
+  }
+
+  private List<UnifiedSearchResult> rankAndMerge(List<TripMatch> nearHits, List<TripMatch> alongHits,
+                                                 ToDoubleFunction<Long> reputation) {
 
     // Merge by tripId, accumulate near/along scores
     Map<Long, Acc> map = new HashMap<>();
@@ -39,6 +136,9 @@ public class UnifiedSearchService {
     // Build lean results (tripId, score, matchedBy) and sort
     return map.entrySet().stream()
         .map(e -> e.getValue().toUnified(e.getKey()))
+        .map(u -> reputationWeight == 0 ? u : new UnifiedSearchResult(u.tripId(),
+            u.score() * (1 - reputationWeight) + reputationWeight * reputation.applyAsDouble(u.tripId()),
+            u.matchedBy()))
         .sorted(
             Comparator.comparing((UnifiedSearchResult r) -> rank(r.matchedBy()))
                       .thenComparingDouble(UnifiedSearchResult::score).reversed()
@@ -3,9 +3,19 @@ package com.routelink.user;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
+
 import java.time.Instant;
 
+// Second-level cached (regions in ehcache.xml): by id, and email -> id via the natural-id cache.
+// Hibernate writes keep both in step; the native rating roll-up evicts through UserCache.
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "users")
+@NaturalIdCache(region = "users-by-email")
 @Table(
     name = "users",
     uniqueConstraints = { @UniqueConstraint(name = "uq_users_email", columnNames = "email") }
@@ -21,6 +31,7 @@ public class User {
   private String name;
 
   @Email
+  @NaturalId(mutable = true)
   @Column(nullable = false, unique = true)
   private String email;
 
@@ -39,10 +50,11 @@ public class User {
   @Column(nullable = false)
   private boolean verified = false;
 
-  @Column(nullable = false)
+  // Denormalised copy of rating_aggregates, written only by RatingAggregateRepository.record
+  @Column(nullable = false, updatable = false)
   private double ratingAvg = 0.0;
 
-  @Column(nullable = false)
+  @Column(nullable = false, updatable = false)
   private int ratingCount = 0;
 
   @Column(nullable = false, updatable = false)
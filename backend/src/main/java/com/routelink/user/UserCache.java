@@ -0,0 +1,32 @@
+package com.routelink.user;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Evicts users from the second-level cache after writes Hibernate can't see, i.e. native
+ * updates of users columns such as the rating roll-up. The email -> id entry stays valid.
+ */
+@Component
+public class UserCache {
+  private final EntityManagerFactory emf;
+
+  public UserCache(EntityManagerFactory emf) { this.emf = emf; }
+
+  /** Drops the cached row once the current transaction commits (immediately if there is none). */
+  public void evictAfterCommit(Long userId) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      evict(userId);
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override public void afterCommit() { evict(userId); }
+    });
+  }
+
+  public void evict(Long userId) {
+    emf.getCache().evict(User.class, userId);
+  }
+}
@@ -1,26 +1,32 @@
 package com.routelink.user;
 
+import com.routelink.security.PasswordHasher;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
 import java.net.URI;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 @RestController
 @RequestMapping("/api/users")
 public class UserController {
   private final UserRepository repo;
-  private final PasswordEncoder encoder;
+  private final PasswordHasher hasher;
+  private final Executor requests;
 
-  public UserController(UserRepository repo, PasswordEncoder encoder) {
+  public UserController(UserRepository repo, PasswordHasher hasher,
+                        @Qualifier("applicationTaskExecutor") Executor requests) {
     this.repo = repo;
-    this.encoder = encoder;
+    this.hasher = hasher;
+    this.requests = requests;
   }
 
   /** Admin: list all users */
@@ -50,22 +56,25 @@ public class UserController {
   /** Admin: create a user (sets passwordHash + role) */
   @PostMapping
   @PreAuthorize("hasRole('ADMIN')")
-  public ResponseEntity<?> create(@Valid @RequestBody CreateUserReq req) {
+  public CompletableFuture<ResponseEntity<?>> create(@Valid @RequestBody CreateUserReq req) {
     String email = req.email().toLowerCase().trim();
     if (repo.existsByEmail(email)) {
-      return ResponseEntity.status(409).body(Map.of("error", "Email already registered"));
+      return CompletableFuture.completedFuture(ResponseEntity.status(409).body(Map.of("error", "Email already registered")));
     }
 
-    User u = new User();
-    u.setName(req.name().trim());
-    u.setEmail(email);
-    u.setPhone(req.phone() != null ? req.phone().trim() : null);
-    u.setPasswordHash(encoder.encode(req.password()));
-    u.setRole(req.role() == null ? Role.RIDER : req.role());
+    // the insert runs on the async executor, not on one of the few hashing threads
+    return hasher.encode(req.password()).thenApplyAsync(hash -> {
+      User u = new User();
+      u.setName(req.name().trim());
+      u.setEmail(email);
+      u.setPhone(req.phone() != null ? req.phone().trim() : null);
+      u.setPasswordHash(hash);
+      u.setRole(req.role() == null ? Role.RIDER : req.role());
 
-    User saved = repo.save(u);
-    return ResponseEntity
-        .created(URI.create("/api/users/" + saved.getId()))
-        .body(UserDto.from(saved));
+      User saved = repo.save(u);
+      return ResponseEntity
+          .created(URI.create("/api/users/" + saved.getId()))
+          .body(UserDto.from(saved));
+    }, requests);
   }
 }
@@ -0,0 +1,16 @@
+package com.routelink.user;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+/**
+ * Lookups by email go through Hibernate's natural-id API (see {@link UserNaturalIdRepositoryImpl}),
+ * so a warm lookup is answered from the users-by-email and users cache regions without SQL.
+ * Emails are stored lower-cased; callers pass them normalised.
+ */
+@Transactional(readOnly = true)
+public interface UserNaturalIdRepository {
+
+  Optional<User> findByEmail(String email);
+}
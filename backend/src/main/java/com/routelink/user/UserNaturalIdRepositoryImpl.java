@@ -0,0 +1,19 @@
+package com.routelink.user;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+
+import java.util.Optional;
+
+class UserNaturalIdRepositoryImpl implements UserNaturalIdRepository {
+
+  @PersistenceContext
+  private EntityManager em;
+
+  @Override
+  public Optional<User> findByEmail(String email) {
+    if (email == null) return Optional.empty();
+    return em.unwrap(Session.class).bySimpleNaturalId(User.class).loadOptional(email);
+  }
+}
@@ -0,0 +1,52 @@
+-- ensure_month_partition used to fail for good once rows of the month had landed in the default
+-- partition (Postgres refuses to create a partition whose range the default already holds).
+-- It now moves them: rows are parked in temp tables and deleted from the default, the partition
+-- is created, and the rows are re-inserted through the parent, all in the caller's transaction.
+-- For trips, the bookings of the moved trips are parked first so the foreign key holds throughout;
+-- they return to whichever bookings partition covers their month.
+
+create or replace function ensure_month_partition(base text, month date) returns text
+language plpgsql as $$
+declare
+  lo timestamptz := date_trunc('month', month)::timestamp at time zone 'UTC';
+  hi timestamptz := (date_trunc('month', month) + interval '1 month')::timestamp at time zone 'UTC';
+  part text := format('%s_p%s', base, to_char(date_trunc('month', month), 'YYYY_MM'));
+  def text := base || '_default';
+  key text := case base when 'trips' then 'ride_at' when 'bookings' then 'trip_ride_at' end;
+  stranded boolean := false;
+begin
+  if to_regclass(part) is not null then
+    return part;
+  end if;
+  if key is not null and to_regclass(def) is not null then
+    execute format('select exists (select 1 from %I where %I >= %L and %I < %L)', def, key, lo, key, hi)
+       into stranded;
+  end if;
+
+  if not stranded then
+    execute format('create table %I partition of %I for values from (%L) to (%L)', part, base, lo, hi);
+    return part;
+  end if;
+
+  drop table if exists pg_temp.moving_rows, pg_temp.moving_bookings;
+  if base = 'trips' then
+    create temp table moving_bookings as
+      select b.* from bookings b
+        join trips_default t on t.id = b.trip_id and t.ride_at = b.trip_ride_at
+       where t.ride_at >= lo and t.ride_at < hi;
+    delete from bookings b using moving_bookings m
+     where b.id = m.id and b.trip_ride_at = m.trip_ride_at;
+  end if;
+
+  execute format('create temp table moving_rows as select * from %I where %I >= %L and %I < %L', def, key, lo, key, hi);
+  execute format('delete from %I where %I >= %L and %I < %L', def, key, lo, key, hi);
+  execute format('create table %I partition of %I for values from (%L) to (%L)', part, base, lo, hi);
+  execute format('insert into %I select * from moving_rows', base);
+
+  if base = 'trips' then
+    insert into bookings select * from moving_bookings;
+    drop table moving_bookings;
+  end if;
+  drop table moving_rows;
+  return part;
+end$$;
@@ -0,0 +1,26 @@
+-- One-time seed of rating_aggregates for users rated before the table existed (this used to run
+-- on every boot as RatingAggregateBackfill). Archived ratings (V6) count too. Existing rows are
+-- left alone: since they were created, RatingAggregateRepository.record has kept them current.
+
+insert into rating_aggregates
+  (user_id, rating_sum, rating_count, stars_1, stars_2, stars_3, stars_4, stars_5, updated_at)
+select ratee_id, sum(stars), count(*),
+       count(*) filter (where stars = 1), count(*) filter (where stars = 2),
+       count(*) filter (where stars = 3), count(*) filter (where stars = 4),
+       count(*) filter (where stars = 5), now()
+  from (select ratee_id, stars from ratings
+        union all
+        select ratee_id, stars from ratings_archive) r
+ group by ratee_id
+on conflict (user_id) do nothing;
+
+-- Repair users.rating_count/rating_avg drifted by the old read-modify-write path. Lost updates
+-- could leave the count right and the average wrong, so both are compared.
+update users u
+   set rating_count = a.rating_count,
+       rating_avg   = cast(a.rating_sum as double precision) / a.rating_count
+  from rating_aggregates a
+ where u.id = a.user_id
+   and a.rating_count > 0
+   and (u.rating_count, u.rating_avg)
+       is distinct from (a.rating_count, cast(a.rating_sum as double precision) / a.rating_count);
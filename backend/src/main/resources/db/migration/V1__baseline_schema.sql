@@ -0,0 +1,75 @@
+-- Baseline: the tables as the entities map them (User, Trip, Booking, Rating, RatingAggregate).
+-- Written with "if not exists" so databases previously built by ddl-auto=update are brought
+-- under Flyway by running this on top of them (baseline-version=0); V2 then repairs what such
+-- schemas may be missing or have wrong.
+
+create table if not exists users (
+  id            bigint generated by default as identity primary key,
+  name          varchar(255) not null,
+  email         varchar(255) not null,
+  phone         varchar(32),
+  password_hash varchar(120) not null,
+  role          varchar(16)  not null,
+  verified      boolean      not null default false,
+  rating_avg    float8       not null default 0,
+  rating_count  integer      not null default 0,
+  created_at    timestamp(6) with time zone not null default now(),
+  constraint uq_users_email unique (email),
+  constraint users_role_chk check (role in ('RIDER','DRIVER','ADMIN'))
+);
+
+create table if not exists trips (
+  id             bigint generated by default as identity primary key,
+  driver_id      bigint        not null references users(id),
+  start_place    varchar(255)  not null,
+  start_lat      float8        not null,
+  start_lng      float8        not null,
+  end_place      varchar(255)  not null,
+  end_lat        float8        not null,
+  end_lng        float8        not null,
+  polyline       text,
+  ride_at        timestamptz   not null,
+  price_per_seat numeric(10,2) not null,
+  seats_total    integer       not null,
+  seats_left     integer       not null,
+  status         varchar(16)   not null,
+  active         boolean       not null default true
+);
+create index if not exists idx_trips_ride_at on trips (ride_at);
+create index if not exists idx_trips_status on trips (status);
+
+create table if not exists bookings (
+  id         bigint generated by default as identity primary key,
+  trip_id    bigint      not null references trips(id),
+  rider_id   bigint      not null references users(id),
+  seats      integer     not null,
+  status     varchar(16) not null,
+  created_at timestamp(6) with time zone not null default now(),
+  constraint uq_booking_trip_rider unique (trip_id, rider_id)
+);
+create index if not exists idx_bookings_trip on bookings (trip_id);
+create index if not exists idx_bookings_rider on bookings (rider_id);
+
+create table if not exists ratings (
+  id         bigint generated by default as identity primary key,
+  booking_id bigint       not null references bookings(id),
+  rater_id   bigint       not null references users(id),
+  ratee_id   bigint       not null references users(id),
+  stars      integer      not null check (stars between 1 and 5),
+  comment    varchar(400),
+  created_at timestamp(6) with time zone,
+  constraint uq_ratings_booking_rater unique (booking_id, rater_id)
+);
+create index if not exists idx_ratings_ratee_created on ratings (ratee_id, created_at desc, id desc);
+
+create table if not exists rating_aggregates (
+  user_id      bigint  primary key,
+  rating_sum   bigint  not null,
+  rating_count integer not null,
+  stars_1      integer not null,
+  stars_2      integer not null,
+  stars_3      integer not null,
+  stars_4      integer not null,
+  stars_5      integer not null,
+  updated_at   timestamp(6) with time zone not null
+);
@@ -0,0 +1,22 @@
+-- Catch-up for schemas that predate Flyway (built by ddl-auto=update or the old hand-written scripts).
+-- On a database created by V1 every statement here is a no-op.
+
+-- pre-auth schemas: accounts without credentials get an unusable placeholder and the RIDER role
+alter table users add column if not exists password_hash varchar(120);
+alter table users add column if not exists role varchar(16);
+alter table users add column if not exists verified boolean not null default false;
+alter table users add column if not exists rating_avg float8 not null default 0;
+alter table users add column if not exists rating_count integer not null default 0;
+alter table users add column if not exists created_at timestamp(6) with time zone not null default now();
+update users set password_hash = '$2a$10$P1e95wD7f7YQnYvE8g9ZFew3qVZC5oWcKJg1K4v7D2in1JmG9dB9S' where password_hash is null;
+update users set role = 'RIDER' where role is null;
+alter table users
+  alter column password_hash set not null,
+  alter column role set not null;
+alter table users drop constraint if exists users_role_chk;
+alter table users drop constraint if exists users_role_check;
+alter table users add constraint users_role_chk check (role in ('RIDER','DRIVER','ADMIN'));
+
+-- an early hand-written bookings script only allowed CONFIRMED/CANCELLED; V4 recreates the table with the full set
+alter table bookings drop constraint if exists bookings_status_check;
+alter table bookings drop constraint if exists bookings_seats_check;
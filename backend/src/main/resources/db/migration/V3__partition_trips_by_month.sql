@@ -0,0 +1,76 @@
+-- trips becomes a table range-partitioned by ride_at, one partition per calendar month (UTC).
+-- Searches always bound ride_at, so the planner prunes to the one or two months they touch.
+-- The primary key must contain the partition key, hence (id, ride_at); id stays unique via its sequence.
+
+-- Creates <base>_pYYYY_MM for the month containing `month` unless it already exists.
+-- Also called by the partition maintenance job to keep future months ready.
+create or replace function ensure_month_partition(base text, month date) returns text
+language plpgsql as $$
+declare
+  lo timestamptz := date_trunc('month', month)::timestamp at time zone 'UTC';
+  hi timestamptz := (date_trunc('month', month) + interval '1 month')::timestamp at time zone 'UTC';
+  part text := format('%s_p%s', base, to_char(date_trunc('month', month), 'YYYY_MM'));
+begin
+  if to_regclass(part) is null then
+    execute format('create table %I partition of %I for values from (%L) to (%L)', part, base, lo, hi);
+  end if;
+  return part;
+end$$;
+
+alter table trips rename to trips_unpartitioned;
+alter index if exists trips_pkey rename to trips_unpartitioned_pkey;
+alter index if exists idx_trips_ride_at rename to idx_trips_unpartitioned_ride_at;
+alter index if exists idx_trips_status rename to idx_trips_unpartitioned_status;
+
+create table trips (
+  id             bigint         not null,
+  driver_id      bigint         not null references users(id),
+  start_place    varchar(255)   not null,
+  start_lat      float8         not null,
+  start_lng      float8         not null,
+  end_place      varchar(255)   not null,
+  end_lat        float8         not null,
+  end_lng        float8         not null,
+  polyline       text,
+  ride_at        timestamptz    not null,
+  price_per_seat numeric(10,2)  not null,
+  seats_total    integer        not null,
+  seats_left     integer        not null,
+  status         varchar(16)    not null check (status in ('OPEN','FULL','CLOSED')),
+  active         boolean        not null,
+  constraint trips_pkey primary key (id, ride_at)
+) partition by range (ride_at);
+
+-- Every month that has data, plus three ahead; anything outside lands in the default partition.
+do $$
+declare
+  m date;
+  first_month date := coalesce((select date_trunc('month', min(ride_at) at time zone 'UTC') from trips_unpartitioned),
+                               date_trunc('month', now() at time zone 'UTC'))::date;
+  last_month date := greatest(
+      coalesce((select date_trunc('month', max(ride_at) at time zone 'UTC') from trips_unpartitioned), first_month),
+      date_trunc('month', now() at time zone 'UTC') + interval '3 months')::date;
+begin
+  m := first_month;
+  while m <= last_month loop
+    perform ensure_month_partition('trips', m);
+    m := (m + interval '1 month')::date;
+  end loop;
+end$$;
+create table trips_default partition of trips default;
+
+insert into trips (id, driver_id, start_place, start_lat, start_lng, end_place, end_lat, end_lng, polyline,
+                   ride_at, price_per_seat, seats_total, seats_left, status, active)
+select id, driver_id, start_place, start_lat, start_lng, end_place, end_lat, end_lng, polyline,
+       ride_at, price_per_seat, seats_total, seats_left, status, active
+  from trips_unpartitioned;
+
+-- also drops the bookings -> trips foreign key; V4 recreates it against (id, ride_at)
+drop table trips_unpartitioned cascade;
+
+create sequence trips_id_seq owned by trips.id;
+select setval('trips_id_seq', coalesce((select max(id) from trips), 0) + 1, false);
+alter table trips alter column id set default nextval('trips_id_seq');
+
+create index idx_trips_ride_at on trips (ride_at);
+create index idx_trips_status on trips (status);
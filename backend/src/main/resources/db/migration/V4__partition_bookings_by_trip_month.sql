@@ -0,0 +1,53 @@
+-- bookings follow their trip: partitioned by the trip's ride_at month, copied into trip_ride_at.
+-- That keeps a trip and its bookings in matching partitions, so old months detach together,
+-- and lets the foreign key to the partitioned trips table reference its (id, ride_at) key.
+
+alter table bookings rename to bookings_unpartitioned;
+alter index if exists bookings_pkey rename to bookings_unpartitioned_pkey;
+alter index if exists uq_booking_trip_rider rename to uq_booking_trip_rider_unpartitioned;
+alter index if exists idx_bookings_trip rename to idx_bookings_unpartitioned_trip;
+alter index if exists idx_bookings_rider rename to idx_bookings_unpartitioned_rider;
+
+create table bookings (
+  id           bigint      not null,
+  trip_id      bigint      not null,
+  trip_ride_at timestamptz not null,
+  rider_id     bigint      not null references users(id),
+  seats        integer     not null check (seats >= 1),
+  status       varchar(16) not null check (status in ('REQUESTED','CONFIRMED','DECLINED','CANCELLED')),
+  created_at   timestamp(6) with time zone not null,
+  constraint bookings_pkey primary key (id, trip_ride_at),
+  -- a trip has one ride_at, so this is still "one booking per rider per trip"
+  constraint uq_booking_trip_rider unique (trip_id, rider_id, trip_ride_at),
+  constraint fk_bookings_trip foreign key (trip_id, trip_ride_at)
+    references trips (id, ride_at) on update cascade
+) partition by range (trip_ride_at);
+
+do $$
+declare
+  m date;
+begin
+  for m in select distinct date_trunc('month', ride_at at time zone 'UTC')::date from trips loop
+    perform ensure_month_partition('bookings', m);
+  end loop;
+  for i in 0..3 loop
+    perform ensure_month_partition('bookings', (date_trunc('month', now() at time zone 'UTC') + make_interval(months => i))::date);
+  end loop;
+end$$;
+create table bookings_default partition of bookings default;
+
+insert into bookings (id, trip_id, trip_ride_at, rider_id, seats, status, created_at)
+select b.id, b.trip_id, t.ride_at, b.rider_id, b.seats, b.status, b.created_at
+  from bookings_unpartitioned b
+  join trips t on t.id = b.trip_id;
+
+-- also drops the ratings -> bookings foreign key: a partitioned table has no unique key on id alone.
+-- ratings keep their (booking_id, rater_id) unique index; the service only rates existing bookings.
+drop table bookings_unpartitioned cascade;
+
+create sequence bookings_id_seq owned by bookings.id;
+select setval('bookings_id_seq', coalesce((select max(id) from bookings), 0) + 1, false);
+alter table bookings alter column id set default nextval('bookings_id_seq');
+
+create index idx_bookings_trip on bookings (trip_id);
+create index idx_bookings_rider on bookings (rider_id);
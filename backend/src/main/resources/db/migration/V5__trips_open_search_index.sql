@@ -0,0 +1,5 @@
+-- Serves every trip search: bookable trips only, ride_at window first, seats filter from the index.
+-- The searches write active/status as literals (TripSearchRepositoryImpl) so the predicate matches.
+create index if not exists idx_trips_open_ride_at
+  on trips (ride_at, seats_left)
+  where active and status = 'OPEN';
@@ -0,0 +1,57 @@
+-- Tables used by the housekeeping jobs (previously created at startup by the jobs themselves).
+
+-- one row per cluster-wide job; see JobLease
+create table if not exists job_leases (
+  name         varchar(64)  primary key,
+  owner        varchar(160) not null,
+  locked_until timestamptz  not null
+);
+
+-- TripArchiver moves finished trips with their bookings and ratings here. Plain tables, no
+-- foreign keys: archived rows must not block deletes or partition detaches on the live side.
+create table if not exists trips_archive (
+  id             bigint        not null,
+  driver_id      bigint        not null,
+  start_place    varchar(255)  not null,
+  start_lat      float8        not null,
+  start_lng      float8        not null,
+  end_place      varchar(255)  not null,
+  end_lat        float8        not null,
+  end_lng        float8        not null,
+  polyline       text,
+  ride_at        timestamptz   not null,
+  price_per_seat numeric(10,2) not null,
+  seats_total    integer       not null,
+  seats_left     integer       not null,
+  status         varchar(16)   not null,
+  active         boolean       not null,
+  archived_at    timestamptz   not null default now()
+);
+create unique index if not exists uq_trips_archive_id on trips_archive (id);
+create index if not exists idx_trips_archive_driver on trips_archive (driver_id);
+
+create table if not exists bookings_archive (
+  id           bigint      not null,
+  trip_id      bigint      not null,
+  trip_ride_at timestamptz,
+  rider_id     bigint      not null,
+  seats        integer     not null,
+  status       varchar(16) not null,
+  created_at   timestamp(6) with time zone not null,
+  archived_at  timestamptz not null default now()
+);
+alter table bookings_archive add column if not exists trip_ride_at timestamptz;
+create unique index if not exists uq_bookings_archive_id on bookings_archive (id);
+create index if not exists idx_bookings_archive_rider on bookings_archive (rider_id);
+
+create table if not exists ratings_archive (
+  id          bigint      not null,
+  booking_id  bigint      not null,
+  rater_id    bigint      not null,
+  ratee_id    bigint      not null,
+  stars       integer     not null,
+  comment     varchar(400),
+  created_at  timestamp(6) with time zone,
+  archived_at timestamptz not null default now()
+);
+create unique index if not exists uq_ratings_archive_id on ratings_archive (id);
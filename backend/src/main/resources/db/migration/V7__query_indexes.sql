@@ -0,0 +1,42 @@
+-- One index per real access path in TripRepository, BookingRepository and RatingRepository;
+-- single-column indexes nothing filters on alone are dropped.
+
+-- trips ---------------------------------------------------------------------------------------
+-- searches / list-by-day: idx_trips_open_ride_at (V5) for OPEN+active, idx_trips_ride_at otherwise.
+-- status alone is never a filter (three values), so its index only cost writes.
+drop index if exists idx_trips_status;
+
+-- TripRepository.findDepartedForUpdate: only live trips qualify, so the index stays as small as
+-- the set of upcoming trips and the sweep reads it in (ride_at, id) order.
+create index if not exists idx_trips_live_ride_at
+  on trips (ride_at, id)
+  where active or status <> 'CLOSED';
+
+-- bookings ------------------------------------------------------------------------------------
+-- findByTrip_Id, findDtosByTrip (order by created_at): trip, then creation order.
+create index if not exists idx_bookings_trip_created on bookings (trip_id, created_at);
+drop index if exists idx_bookings_trip;
+
+-- findRiderIdsByTripAndStatusIn (SSE fan-out on every trip change): index-only.
+create index if not exists idx_bookings_trip_status_rider on bookings (trip_id, status, rider_id);
+
+-- findDtosByRider / findByRider_Id ("my bookings", newest first): covering, so the page is
+-- served from the index without touching the heap.
+create index if not exists idx_bookings_rider_created
+  on bookings (rider_id, created_at desc)
+  include (id, trip_id, seats, status);
+drop index if exists idx_bookings_rider;
+
+-- findByTrip_IdAndRider_Id / existsByTrip_IdAndRider_IdAndStatusIn: uq_booking_trip_rider.
+-- findDtoById, findContactRow, findWithTripById, findByIdForUpdate: primary key.
+
+-- ratings -------------------------------------------------------------------------------------
+-- findReceivedBefore (keyset, newest first): rater_id and stars ride along so only the
+-- comment needs the heap.
+create index if not exists idx_ratings_ratee_created_cover
+  on ratings (ratee_id, created_at desc, id desc)
+  include (rater_id, booking_id, stars);
+drop index if exists idx_ratings_ratee_created;
+alter index idx_ratings_ratee_created_cover rename to idx_ratings_ratee_created;
+
+-- existsByBooking_IdAndRater_Id: uq_ratings_booking_rater (or Hibernate's unnamed equivalent).
@@ -0,0 +1,12 @@
+-- Trip ids are allocated by Hibernate's pooled optimizer (Trip: allocationSize = 50): a nextval
+-- returning n reserves n-49..n, so posting a month of recurring trips costs one or two sequence
+-- calls plus batched inserts instead of a round trip per row.
+alter sequence trips_id_seq increment by 50;
+
+-- The first pool must start above every id already issued (live or archived), so move the
+-- sequence to that high-water mark; the next nextval then returns it + 50.
+select setval('trips_id_seq', greatest(
+  (select coalesce(max(id), 0) from trips),
+  (select coalesce(max(id), 0) from trips_archive),
+  (select last_value from trips_id_seq)
+), true);
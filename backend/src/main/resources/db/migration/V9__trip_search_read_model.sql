@@ -0,0 +1,28 @@
+-- Search read model: one narrow row per bookable trip (OPEN, active, seats left), written by
+-- TripSearchIndex in the same transaction as the trip/booking change. Unified search reads only
+-- this table, never the partitioned trips table that bookings lock and update.
+-- Rows are filled from Java (the route is a simplified, packed polyline); TripSearchReconciler
+-- seeds existing trips on first start and repairs drift afterwards.
+create table if not exists trip_search (
+  trip_id             bigint primary key,
+  driver_id           bigint not null,
+  ride_at             timestamptz not null,
+  start_lat           double precision not null,
+  start_lng           double precision not null,
+  end_lat             double precision not null,
+  end_lng             double precision not null,
+  -- bounding box of route + endpoints; the candidate query prefilters on it
+  min_lat             double precision not null,
+  min_lng             double precision not null,
+  max_lat             double precision not null,
+  max_lng             double precision not null,
+  route               bytea,            -- float32 lat/lng pairs, null without a polyline
+  price_cents         integer not null,
+  seats_left          integer not null,
+  driver_rating_avg   double precision not null default 0,
+  driver_rating_count integer not null default 0
+) with (fillfactor = 90);  -- seats/rating updates touch no indexed column, so they stay HOT
+
+create index if not exists idx_trip_search_ride_at on trip_search (ride_at);
+-- TripSearchIndex.driverRated: copy a new rating to all of the driver's rows
+create index if not exists idx_trip_search_driver on trip_search (driver_id);
@@ -0,0 +1,55 @@
+package com.routelink;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Minimal users/trips/bookings/ratings rows for {@link PostgresTest}s, written straight with
+ * SQL so a test only depends on the code it exercises. Every user gets a fresh email, so
+ * tests that commit can share one database.
+ */
+public final class PgRows {
+  private final JdbcTemplate jdbc;
+
+  public PgRows(JdbcTemplate jdbc) {
+    this.jdbc = jdbc;
+  }
+
+  public long user(String role) {
+    return jdbc.queryForObject("""
+        insert into users (name, email, phone, password_hash, role, verified, rating_avg, rating_count, created_at)
+        values ('u', ?, '5551234567', 'x', ?, false, 0, 0, now()) returning id
+        """, Long.class, "pg-" + UUID.randomUUID() + "@example.com", role);
+  }
+
+  /** An open, listed trip with all three seats free. */
+  public long trip(long driverId, OffsetDateTime rideAt) {
+    return trip(null, driverId, rideAt, "OPEN", true);
+  }
+
+  /** id null takes the next one from trips_id_seq, as a plain insert would. */
+  public long trip(Long id, long driverId, OffsetDateTime rideAt, String status, boolean active) {
+    return jdbc.queryForObject("""
+        insert into trips (id, driver_id, start_place, start_lat, start_lng, end_place, end_lat, end_lng,
+                           ride_at, price_per_seat, seats_total, seats_left, status, active)
+        values (coalesce(?::bigint, nextval('trips_id_seq')), ?, 'A', 42.36, -71.06, 'B', 41.82, -71.41,
+                ?, 10, 3, 3, ?, ?) returning id
+        """, Long.class, id, driverId, rideAt, status, active);
+  }
+
+  public long booking(long tripId, OffsetDateTime rideAt, long riderId, String status) {
+    return jdbc.queryForObject("""
+        insert into bookings (trip_id, trip_ride_at, rider_id, seats, status, created_at)
+        values (?, ?, ?, 1, ?, now()) returning id
+        """, Long.class, tripId, rideAt, riderId, status);
+  }
+
+  public void rating(long bookingId, long raterId, long rateeId, int stars) {
+    jdbc.update("""
+        insert into ratings (booking_id, rater_id, ratee_id, stars, created_at)
+        values (?, ?, ?, ?, now())
+        """, bookingId, raterId, rateeId, stars);
+  }
+}
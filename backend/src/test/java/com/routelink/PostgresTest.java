@@ -0,0 +1,25 @@
+package com.routelink;
+
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Runs a Spring test slice (or a full context) against the Postgres in ROUTELINK_TEST_PG_URL,
+ * plus _USER/_PASSWORD, migrated by Flyway; see application-pgtest.properties. The class is
+ * skipped when the variable is not set. Seed rows with {@link PgRows}.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@EnabledIfEnvironmentVariable(named = "ROUTELINK_TEST_PG_URL", matches = ".+")
+@ActiveProfiles("pgtest")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public @interface PostgresTest {
+}
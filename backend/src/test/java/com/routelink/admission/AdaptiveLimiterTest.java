@@ -0,0 +1,51 @@
+package com.routelink.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveLimiterTest {
+
+  private static final long MS = 1_000_000L;
+
+  @Test
+  void shedsOnceLimitIsReached() {
+    AdaptiveLimiter l = new AdaptiveLimiter("t", 2, 1, 10, 1.5);
+    var a = l.tryAcquire();
+    var b = l.tryAcquire();
+    assertNotNull(a);
+    assertNotNull(b);
+    assertNull(l.tryAcquire());
+    assertEquals(1, l.rejected());
+
+    a.release(false);
+    assertNotNull(l.tryAcquire());
+  }
+
+  @Test
+  void growsWhenLatencyIsStableAndShrinksWhenItRises() {
+    AdaptiveLimiter l = new AdaptiveLimiter("t", 4, 2, 40, 1.5);
+    List<AdaptiveLimiter.Permit> held = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      // keep the limit in use so growth isn't suppressed as app-limited
+      while (l.inflight() < l.limit() - 1) held.add(l.tryAcquire());
+      l.sample(10 * MS, false);
+    }
+    int grown = l.limit();
+    assertTrue(grown > 4, "limit should grow, was " + grown);
+
+    for (int i = 0; i < 50; i++) l.sample(80 * MS, false);
+    assertTrue(l.limit() < grown, "limit should drop when latency climbs");
+    assertTrue(l.limit() >= 2);
+  }
+
+  @Test
+  void failuresCutTheLimit() {
+    AdaptiveLimiter l = new AdaptiveLimiter("t", 20, 2, 40, 1.5);
+    for (int i = 0; i < 30; i++) l.sample(10 * MS, true);
+    assertTrue(l.limit() < 10);
+  }
+}
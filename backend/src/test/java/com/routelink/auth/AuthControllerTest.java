@@ -0,0 +1,90 @@
+package com.routelink.auth;
+
+import com.routelink.security.JwtUtil;
+import com.routelink.security.PasswordHasher;
+import com.routelink.user.Role;
+import com.routelink.user.User;
+import com.routelink.user.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/** The hashing pool only hashes; persistence and token creation continue elsewhere. */
+class AuthControllerTest {
+
+  private static final PasswordEncoder PLAIN = new PasswordEncoder() {
+    @Override public String encode(CharSequence raw) { return "h:" + raw; }
+    @Override public boolean matches(CharSequence raw, String hash) { return hash.equals(encode(raw)); }
+  };
+
+  private final UserRepository users = mock(UserRepository.class);
+  private final PasswordHasher hasher = new PasswordHasher(PLAIN, new SimpleMeterRegistry(), 1, 4, 10_000, 1);
+  private final JwtUtil jwt = spy(new JwtUtil("RouteLink", "test_test_test_secret_at_least_32_bytes_long", 60, 100, new SimpleMeterRegistry()));
+  private final ExecutorService requests = Executors.newSingleThreadExecutor(r -> new Thread(r, "request-async"));
+  private final AuthController controller = new AuthController(users, hasher, jwt, requests);
+
+  @AfterEach
+  void tearDown() {
+    hasher.shutdown();
+    requests.shutdownNow();
+  }
+
+  @Test
+  void signupSavesTheUserOffTheHashingThreads() throws Exception {
+    AtomicReference<String> savedOn = new AtomicReference<>();
+    when(users.save(any(User.class))).thenAnswer(inv -> {
+      savedOn.set(Thread.currentThread().getName());
+      User u = inv.getArgument(0);
+      ReflectionTestUtils.setField(u, "id", 7L);
+      return u;
+    });
+
+    ResponseEntity<?> res = controller.signup(new AuthController.SignupReq("Ana", "Ana@Example.com", "pw", "driver"))
+        .get(5, TimeUnit.SECONDS);
+
+    assertEquals(201, res.getStatusCode().value());
+    assertEquals("request-async", savedOn.get());
+    AuthController.AuthRes body = (AuthController.AuthRes) res.getBody();
+    assertEquals("ana@example.com", body.email());
+    assertEquals("DRIVER", body.role());
+  }
+
+  @Test
+  void loginIssuesTheTokenOffTheHashingThreads() throws Exception {
+    User u = new User();
+    ReflectionTestUtils.setField(u, "id", 7L);
+    u.setEmail("ana@example.com");
+    u.setName("Ana");
+    u.setPasswordHash("h:pw");
+    u.setRole(Role.RIDER);
+    when(users.findByEmail("ana@example.com")).thenReturn(Optional.of(u));
+
+    AtomicReference<String> signedOn = new AtomicReference<>();
+    doAnswer(inv -> {
+      signedOn.set(Thread.currentThread().getName());
+      return inv.callRealMethod();
+    }).when(jwt).create(anyString(), anyMap());
+
+    ResponseEntity<?> ok = controller.login(new AuthController.LoginReq("ana@example.com", "pw"))
+        .get(5, TimeUnit.SECONDS);
+    ResponseEntity<?> wrong = controller.login(new AuthController.LoginReq("ana@example.com", "nope"))
+        .get(5, TimeUnit.SECONDS);
+
+    assertEquals(200, ok.getStatusCode().value());
+    assertEquals("request-async", signedOn.get());
+    assertEquals(401, wrong.getStatusCode().value());
+  }
+}
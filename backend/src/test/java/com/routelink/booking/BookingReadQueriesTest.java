@@ -0,0 +1,125 @@
+package com.routelink.booking;
+
+import com.routelink.trip.Trip;
+import com.routelink.trip.TripStatus;
+import com.routelink.user.Role;
+import com.routelink.user.User;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Each booking read endpoint's query must be exactly one SQL statement (no N+1, no follow-up loads). */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("h2test")
+@TestPropertySource(properties = {
+    "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class BookingReadQueriesTest {
+
+  @Autowired BookingRepository bookings;
+  @Autowired EntityManager em;
+
+  private Statistics stats;
+  private Long tripId, riderId, bookingId;
+
+  @BeforeEach
+  void seed() {
+    User driver = user("driver@example.com", Role.DRIVER);
+    Trip trip = new Trip();
+    trip.setDriver(driver);
+    trip.setStartPlace("Boston");
+    trip.setEndPlace("Providence");
+    trip.setRideAt(OffsetDateTime.now().plusDays(1));
+    trip.setPricePerSeat(BigDecimal.TEN);
+    trip.setSeatsTotal(3);
+    trip.setSeatsLeft(1);
+    trip.setStatus(TripStatus.OPEN);
+    trip.setActive(true);
+    em.persist(trip);
+
+    for (int i = 0; i < 2; i++) {
+      User rider = user("rider" + i + "@example.com", Role.RIDER);
+      Booking b = new Booking();
+      b.setTrip(trip);
+      b.setRider(rider);
+      b.setSeats(1);
+      b.setStatus(BookingStatus.CONFIRMED);
+      em.persist(b);
+      riderId = rider.getId();
+      bookingId = b.getId();
+    }
+    tripId = trip.getId();
+    em.flush();
+    em.clear();
+
+    stats = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+    stats.clear();
+  }
+
+  private User user(String email, Role role) {
+    User u = new User();
+    u.setName(email.substring(0, email.indexOf('@')));
+    u.setEmail(email);
+    u.setPhone("5551234567");
+    u.setPasswordHash("x");
+    u.setRole(role);
+    em.persist(u);
+    return u;
+  }
+
+  private <T> T oneStatement(Supplier<T> call) {
+    T result = call.get();
+    assertEquals(1, stats.getPrepareStatementCount(), "SQL statements");
+    return result;
+  }
+
+  @Test
+  void getById() {
+    var dto = oneStatement(() -> bookings.findDtoById(bookingId)).orElseThrow();
+    assertEquals(tripId, dto.tripId());
+    assertEquals(riderId, dto.riderId());
+  }
+
+  @Test
+  void myBookings() {
+    var rows = oneStatement(() -> bookings.findDtosByRider(riderId));
+    assertEquals(1, rows.size());
+  }
+
+  @Test
+  void tripBookingsIncludeRider() {
+    var rows = oneStatement(() -> bookings.findDtosByTrip(tripId));
+    assertEquals(2, rows.size());
+    assertNotNull(rows.get(0).rider().email());
+  }
+
+  @Test
+  void contactRowJoinsTripAndDriver() {
+    var row = oneStatement(() -> bookings.findContactRow(bookingId)).orElseThrow();
+    assertEquals("driver", row.driverName());
+    assertEquals(riderId, row.riderId());
+    assertEquals(BookingStatus.CONFIRMED, row.status());
+  }
+
+  @Test
+  void bookingWithTripForRating() {
+    Booking b = oneStatement(() -> bookings.findWithTripById(bookingId)).orElseThrow();
+    assertEquals(TripStatus.OPEN, b.getTrip().getStatus());
+    assertNotNull(b.getTrip().getDriver().getId());
+    assertEquals(1, stats.getPrepareStatementCount(), "trip status and driver id need no extra load");
+  }
+}
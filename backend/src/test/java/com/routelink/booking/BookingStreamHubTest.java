@@ -0,0 +1,242 @@
+package com.routelink.booking;
+
+import com.routelink.trip.TripStateChanged;
+import com.routelink.trip.TripStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/** Fan-out, replay and connection cleanup, with emitters that record what they are sent. */
+class BookingStreamHubTest {
+
+  private static final long RIDER = 1L;
+  private static final long DRIVER = 2L;
+  private static final long OTHER = 3L;
+  private static final Pattern ID = Pattern.compile("id:(\\d+)");
+
+  /** Renders each sent event to its SSE text; payload objects are shown as their status. */
+  static final class RecordingEmitter extends SseEmitter {
+    final BlockingQueue<String> sent = new LinkedBlockingQueue<>();
+    volatile CountDownLatch gate;       // when set, send blocks until it opens (a slow client)
+    volatile IOException failWith;      // when set, send fails (a client that went away)
+    volatile boolean completed;
+    volatile Runnable onCompletion;
+    volatile Consumer<Throwable> onError;
+
+    @Override
+    public void send(SseEventBuilder ev) throws IOException {
+      CountDownLatch g = gate;
+      if (g != null) {
+        try { g.await(5, TimeUnit.SECONDS); } catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+      }
+      if (failWith != null) throw failWith;
+      StringBuilder text = new StringBuilder();
+      for (ResponseBodyEmitter.DataWithMediaType d : ev.build()) {
+        text.append(d.getData() instanceof BookingStreamEvent e ? e.status() : d.getData());
+      }
+      sent.add(text.toString());
+    }
+
+    @Override public void complete() { completed = true; }
+    @Override public void onCompletion(Runnable callback) { onCompletion = callback; }
+    @Override public void onError(Consumer<Throwable> callback) { onError = callback; }
+    @Override public void onTimeout(Runnable callback) {}
+  }
+
+  private final BookingRepository bookings = mock(BookingRepository.class);
+  private BookingStreamHub hub;
+
+  @AfterEach
+  void tearDown() {
+    if (hub != null) hub.shutdown();
+  }
+
+  private BookingStreamHub hub(int bufferSize, int historySize) {
+    hub = new BookingStreamHub(bookings, bufferSize, historySize, 30, 3600, 2) {
+      @Override SseEmitter newEmitter(long timeoutMs) { return new RecordingEmitter(); }
+    };
+    return hub;
+  }
+
+  private RecordingEmitter subscribe(long userId, String lastEventId) throws InterruptedException {
+    RecordingEmitter e = (RecordingEmitter) hub.subscribe(userId, lastEventId);
+    assertEquals(":connected\n\n", next(e));
+    return e;
+  }
+
+  private void booking(BookingStatus status) {
+    hub.on(new BookingStateChanged(10L, 20L, RIDER, DRIVER, status, 1, TripStatus.OPEN, 2));
+  }
+
+  private static String next(RecordingEmitter e) throws InterruptedException {
+    String s = e.sent.poll(2, TimeUnit.SECONDS);
+    assertNotNull(s, "expected another event");
+    return s;
+  }
+
+  private static List<String> drain(RecordingEmitter e, int n) throws InterruptedException {
+    List<String> out = new ArrayList<>();
+    for (int i = 0; i < n; i++) out.add(next(e));
+    return out;
+  }
+
+  private static String idOf(String event) {
+    Matcher m = ID.matcher(event);
+    assertTrue(m.find(), event);
+    return m.group(1);
+  }
+
+  @Test
+  void bookingEventReachesEveryConnectionOfTheRiderAndDriverOnly() throws Exception {
+    hub(16, 50);
+    RecordingEmitter phone = subscribe(RIDER, null);
+    RecordingEmitter laptop = subscribe(RIDER, null);
+    RecordingEmitter driver = subscribe(DRIVER, null);
+    RecordingEmitter other = subscribe(OTHER, null);
+
+    booking(BookingStatus.CONFIRMED);
+
+    for (RecordingEmitter e : List.of(phone, laptop, driver)) {
+      String ev = next(e);
+      assertTrue(ev.contains("event:booking") && ev.contains("CONFIRMED"), ev);
+    }
+    assertEquals(idOf(next(subscribe(RIDER, "0"))), idOf(next(subscribe(DRIVER, "0")))); // one id per transition
+    assertNull(other.sent.poll(200, TimeUnit.MILLISECONDS));
+  }
+
+  @Test
+  void tripEventGoesToTheDriverAndItsActiveRiders() throws Exception {
+    hub(16, 50);
+    when(bookings.findRiderIdsByTripAndStatusIn(eq(20L), any())).thenReturn(List.of(RIDER));
+    RecordingEmitter rider = subscribe(RIDER, null);
+    RecordingEmitter driver = subscribe(DRIVER, null);
+    RecordingEmitter other = subscribe(OTHER, null);
+
+    hub.on(new TripStateChanged(20L, DRIVER, TripStatus.CLOSED, false, 0));
+
+    assertTrue(next(rider).contains("event:trip"));
+    assertTrue(next(driver).contains("INACTIVE"));
+    assertNull(other.sent.poll(200, TimeUnit.MILLISECONDS));
+  }
+
+  @Test
+  void lastEventIdReplaysOnlyTheEventsMissedSinceThen() throws Exception {
+    hub(16, 50);
+    RecordingEmitter first = subscribe(RIDER, null);
+    booking(BookingStatus.REQUESTED);
+    String seen = idOf(next(first));
+    first.onCompletion.run(); // connection dropped
+    booking(BookingStatus.CONFIRMED);
+    booking(BookingStatus.CANCELLED);
+
+    RecordingEmitter again = subscribe(RIDER, seen);
+
+    List<String> replayed = drain(again, 2);
+    assertTrue(replayed.get(0).contains("CONFIRMED"), replayed.get(0));
+    assertTrue(replayed.get(1).contains("CANCELLED"), replayed.get(1));
+    assertNull(again.sent.poll(200, TimeUnit.MILLISECONDS), "nothing before Last-Event-ID, no resync");
+  }
+
+  @Test
+  void overflowedHistoryAsksTheClientToResyncThenReplaysWhatIsLeft() throws Exception {
+    hub(16, 2);
+    RecordingEmitter first = subscribe(RIDER, null);
+    booking(BookingStatus.REQUESTED);
+    String seen = idOf(next(first));
+    first.onCompletion.run();
+    booking(BookingStatus.CONFIRMED); // evicts REQUESTED: still fine, it was seen
+    booking(BookingStatus.DECLINED);  // evicts CONFIRMED, which this client never got
+    booking(BookingStatus.CANCELLED);
+
+    RecordingEmitter again = subscribe(RIDER, seen);
+
+    List<String> out = drain(again, 3);
+    assertTrue(out.get(0).contains("event:resync"), out.get(0));
+    assertTrue(out.get(1).contains("DECLINED"));
+    assertTrue(out.get(2).contains("CANCELLED"));
+  }
+
+  @Test
+  void lastEventIdForAUserWithoutHistoryAsksToResync() throws Exception {
+    hub(16, 50);
+
+    RecordingEmitter e = subscribe(OTHER, "12345");
+
+    assertTrue(next(e).contains("event:resync"));
+  }
+
+  @Test
+  void completedAndFailedConnectionsAreDropped() throws Exception {
+    hub(16, 50);
+    RecordingEmitter done = subscribe(RIDER, null);
+    RecordingEmitter broken = subscribe(RIDER, null);
+    RecordingEmitter live = subscribe(RIDER, null);
+    assertEquals(3, hub.connectionCount());
+
+    done.onCompletion.run();
+    broken.onError.accept(new IOException("Broken pipe"));
+    assertEquals(1, hub.connectionCount());
+
+    booking(BookingStatus.CONFIRMED);
+    assertTrue(next(live).contains("CONFIRMED"));
+    assertTrue(done.sent.isEmpty());
+    assertTrue(broken.sent.isEmpty());
+
+    live.onCompletion.run();
+    assertEquals(0, hub.connectionCount());
+  }
+
+  @Test
+  void connectionWhoseWriteFailsIsDropped() throws Exception {
+    hub(16, 50);
+    RecordingEmitter gone = subscribe(RIDER, null);
+    gone.failWith = new IOException("Connection reset");
+
+    booking(BookingStatus.CONFIRMED);
+
+    long until = System.currentTimeMillis() + 2000;
+    while (hub.connectionCount() > 0 && System.currentTimeMillis() < until) Thread.sleep(10);
+    assertEquals(0, hub.connectionCount());
+  }
+
+  @Test
+  void slowClientIsDisconnectedAndReconnectsWithAResync() throws Exception {
+    hub(4, 50);
+    RecordingEmitter slow = subscribe(RIDER, null);
+    booking(BookingStatus.REQUESTED);
+    String seen = idOf(next(slow));
+
+    CountDownLatch stalled = new CountDownLatch(1);
+    slow.gate = stalled;
+    for (int i = 0; i < 5; i++) booking(BookingStatus.CONFIRMED); // writer blocks on the first
+    booking(BookingStatus.CANCELLED);                              // buffer of 4 is full by now at the latest
+
+    assertTrue(slow.completed);
+    assertEquals(0, hub.connectionCount());
+    stalled.countDown();
+
+    // more was missed than fits in the buffer: resync plus only the newest events
+    RecordingEmitter again = subscribe(RIDER, seen);
+    List<String> out = drain(again, 3);
+    assertTrue(out.get(0).contains("event:resync"), out.get(0));
+    assertTrue(out.get(1).contains("CONFIRMED"));
+    assertTrue(out.get(2).contains("CANCELLED"));
+    assertEquals(1, hub.connectionCount());
+  }
+}
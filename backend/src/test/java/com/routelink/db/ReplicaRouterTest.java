@@ -0,0 +1,91 @@
+package com.routelink.db;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ReplicaRouterTest {
+
+  private final DataSource primary = pool();
+  private final DataSource r0 = pool();
+  private final DataSource r1 = pool();
+  private final AtomicBoolean sticky = new AtomicBoolean();
+  private final AtomicLong lag = new AtomicLong();
+  private final ReplicaRouter router;
+
+  ReplicaRouterTest() {
+    Map<String, DataSource> replicas = new LinkedHashMap<>();
+    replicas.put("replica-0", r0);
+    replicas.put("replica-1", r1);
+    router = new ReplicaRouter(primary, replicas, sticky::get,
+        ds -> ds == r1 ? lag.get() : 0, 1000, new SimpleMeterRegistry());
+  }
+
+  private static DataSource pool() {
+    DataSource ds = mock(DataSource.class);
+    try {
+      Connection c = mock(Connection.class);
+      when(ds.getConnection()).thenReturn(c);
+    } catch (SQLException e) {
+      throw new AssertionError(e);
+    }
+    return ds;
+  }
+
+  private static Connection conn(DataSource ds) throws SQLException { return ds.getConnection(); }
+
+  @Test
+  void roundRobinsOverHealthyReplicas() throws SQLException {
+    Connection a = router.getConnection(), b = router.getConnection();
+    assertNotSame(a, b);
+    assertTrue((a == conn(r0) && b == conn(r1)) || (a == conn(r1) && b == conn(r0)));
+  }
+
+  @Test
+  void laggingReplicaLeavesRotationUntilItCatchesUp() throws SQLException {
+    lag.set(5000);
+    router.checkLag();
+    for (int i = 0; i < 4; i++) assertSame(conn(r0), router.getConnection());
+
+    lag.set(10);
+    router.checkLag();
+    assertTrue(router.replicas().get(1).healthy);
+  }
+
+  @Test
+  void fallsBackToPrimaryWhenNoReplicaIsHealthy() throws SQLException {
+    Connection p = conn(primary);
+    when(r0.getConnection()).thenThrow(new SQLException("refused"));
+    lag.set(5000);
+    router.checkLag();
+
+    assertSame(p, router.getConnection());
+    assertFalse(router.replicas().get(0).healthy, "a refused connection takes the replica out");
+  }
+
+  @Test
+  void recentWriterReadsFromPrimary() throws SQLException {
+    sticky.set(true);
+    assertSame(conn(primary), router.getConnection());
+  }
+
+  @Test
+  void stickinessExpires() throws InterruptedException {
+    ReadYourWrites ryw = new ReadYourWrites(50);
+    ryw.markWrite(7L);
+    assertTrue(ryw.isSticky(7L));
+    assertFalse(ryw.isSticky(8L));
+    Thread.sleep(80);
+    assertFalse(ryw.isSticky(7L));
+  }
+}
@@ -0,0 +1,50 @@
+package com.routelink.db;
+
+import com.routelink.PostgresTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * End to end on one Postgres with two logical pools (the "replica" pool points at the same
+ * server and tags its sessions).
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@PostgresTest
+@TestPropertySource(properties = {
+    "spring.datasource.hikari.data-source-properties.ApplicationName=routelink-primary",
+    "app.datasource.routing.enabled=true",
+    "app.datasource.routing.replicas[0].jdbc-url=${spring.datasource.url}",
+    "app.datasource.routing.replicas[0].username=${spring.datasource.username}",
+    "app.datasource.routing.replicas[0].password=${spring.datasource.password}",
+    "app.datasource.routing.replicas[0].data-source-properties.ApplicationName=routelink-replica"
+})
+class ReplicaRoutingPostgresTest {
+
+  @Autowired JdbcTemplate jdbc;
+  @Autowired PlatformTransactionManager txManager;
+  @Autowired ReadYourWrites readYourWrites;
+
+  private String poolIn(boolean readOnly) {
+    TransactionTemplate tx = new TransactionTemplate(txManager);
+    tx.setReadOnly(readOnly);
+    return tx.execute(s -> jdbc.queryForObject("select current_setting('application_name')", String.class));
+  }
+
+  @Test
+  void readOnlyTransactionsUseTheReplicaPool() {
+    assertEquals("routelink-replica", poolIn(true));
+    assertEquals("routelink-primary", poolIn(false));
+  }
+
+  @Test
+  void nonTransactionalAccessUsesThePrimary() {
+    assertEquals("routelink-primary", jdbc.queryForObject("select current_setting('application_name')", String.class));
+  }
+}
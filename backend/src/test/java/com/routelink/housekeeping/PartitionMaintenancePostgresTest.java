@@ -0,0 +1,110 @@
+package com.routelink.housekeeping;
+
+import com.routelink.PgRows;
+import com.routelink.PostgresTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Month partitions are created, rows land in the partition of their month, rows that waited
+ * in the default partition move when their month is created, and empty old months are
+ * dropped. Each test rolls back, DDL included.
+ */
+@JdbcTest
+@PostgresTest
+class PartitionMaintenancePostgresTest {
+
+  @Autowired JdbcTemplate jdbc;
+
+  private PartitionMaintenance partitions;
+  private SimpleMeterRegistry meters;
+  private PgRows rows;
+  private long driverId;
+
+  @BeforeEach
+  void setUp() {
+    meters = new SimpleMeterRegistry();
+    partitions = new PartitionMaintenance(jdbc, new JobLease(jdbc), meters, 3, 6);
+    rows = new PgRows(jdbc);
+    driverId = rows.user("DRIVER");
+  }
+
+  @Test
+  void createsTheMonthAndRoutesRowsIntoIt() {
+    partitions.ensure("trips", YearMonth.of(2091, 3));
+
+    assertTrue(exists("trips_p2091_03"));
+    long id = rows.trip(driverId, OffsetDateTime.of(2091, 3, 31, 23, 30, 0, 0, ZoneOffset.UTC));
+    assertEquals("trips_p2091_03", partitionOf("trips", id));
+    assertEquals(1.0, meters.counter("routelink.partitions.created").count());
+
+    partitions.ensure("trips", YearMonth.of(2091, 3)); // already there: no-op
+    assertEquals(1.0, meters.counter("routelink.partitions.created").count());
+  }
+
+  @Test
+  void rowsWaitingInTheDefaultMoveWhenTheirMonthIsCreated() {
+    OffsetDateTime at = OffsetDateTime.of(2092, 5, 10, 8, 0, 0, 0, ZoneOffset.UTC);
+    long tripId = rows.trip(driverId, at);
+    long bookingId = rows.booking(tripId, at, driverId, "REQUESTED");
+    assertEquals("trips_default", partitionOf("trips", tripId));
+    assertEquals("bookings_default", partitionOf("bookings", bookingId));
+
+    // the job's order: bookings first, then trips (whose move parks and restores their bookings)
+    partitions.ensure("bookings", YearMonth.of(2092, 5));
+    partitions.ensure("trips", YearMonth.of(2092, 5));
+
+    assertEquals("trips_p2092_05", partitionOf("trips", tripId));
+    assertEquals("bookings_p2092_05", partitionOf("bookings", bookingId));
+    assertEquals(1, count("select count(*) from trips where id = ?", tripId));
+    assertEquals(1, count("select count(*) from bookings where id = ?", bookingId));
+    assertEquals(0, count("select count(*) from trips_default where id = ?", tripId));
+  }
+
+  @Test
+  void tripMovesEvenWhenItsBookingsMonthExistsAlready() {
+    OffsetDateTime at = OffsetDateTime.of(2093, 7, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+    partitions.ensure("bookings", YearMonth.of(2093, 7));
+    long tripId = rows.trip(driverId, at);
+    long bookingId = rows.booking(tripId, at, driverId, "REQUESTED");
+
+    partitions.ensure("trips", YearMonth.of(2093, 7));
+
+    assertEquals("trips_p2093_07", partitionOf("trips", tripId));
+    assertEquals("bookings_p2093_07", partitionOf("bookings", bookingId));
+  }
+
+  @Test
+  void emptyOldMonthsAreDetachedAndDropped() {
+    partitions.ensure("bookings", YearMonth.of(2000, 1));
+    partitions.ensure("trips", YearMonth.of(2000, 1));
+
+    partitions.detachBefore("bookings", YearMonth.of(2000, 2));
+    partitions.detachBefore("trips", YearMonth.of(2000, 2));
+
+    assertFalse(exists("trips_p2000_01"));
+    assertFalse(exists("bookings_p2000_01"));
+  }
+
+  private String partitionOf(String table, long id) {
+    return jdbc.queryForObject("select tableoid::regclass::text from " + table + " where id = ?", String.class, id);
+  }
+
+  private boolean exists(String table) {
+    return Boolean.TRUE.equals(jdbc.queryForObject("select to_regclass(?) is not null", Boolean.class, table));
+  }
+
+  private int count(String sql, Object... args) {
+    return jdbc.queryForObject(sql, Integer.class, args);
+  }
+}
@@ -0,0 +1,151 @@
+package com.routelink.housekeeping;
+
+import com.routelink.PgRows;
+import com.routelink.PostgresTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Chunked archival moves every eligible trip, booking and rating exactly once and leaves the
+ * rest alone; a lease held by one node can't be taken by another, and a run whose renewal
+ * fails stops before its next chunk. Each test rolls back.
+ */
+@JdbcTest
+@PostgresTest
+class TripArchiverPostgresTest {
+
+  // far enough back that nothing but this test's rows is eligible
+  private static final OffsetDateTime RIDDEN = OffsetDateTime.of(1990, 6, 1, 9, 0, 0, 0, ZoneOffset.UTC);
+  private static final OffsetDateTime CUTOFF = OffsetDateTime.of(1991, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+  private static final Duration TTL = Duration.ofMinutes(2);
+
+  @Autowired JdbcTemplate jdbc;
+  @Autowired PlatformTransactionManager txManager;
+
+  private TripArchiver archiver;
+  private PgRows rows;
+  private long driverId;
+  private long riderId;
+  private String job;
+  private long nextTripId;
+
+  @BeforeEach
+  void setUp() {
+    archiver = new TripArchiver(new NamedParameterJdbcTemplate(jdbc), txManager, new SimpleMeterRegistry(), 2, 0, 30);
+    rows = new PgRows(jdbc);
+    driverId = rows.user("DRIVER");
+    riderId = rows.user("RIDER");
+    job = "test-" + UUID.randomUUID();
+    // ids the way the app allocates them (one pooled block of 50, see V8), so they are consecutive
+    nextTripId = jdbc.queryForObject("select nextval('trips_id_seq')", Long.class) - 49;
+  }
+
+  @Test
+  void chunkedRunMovesEveryEligibleRowExactlyOnce() {
+    List<Long> eligible = new ArrayList<>();
+    List<Long> kept = new ArrayList<>();
+    for (int i = 0; i < 7; i++) {
+      // every third trip is still listed, so chunks see gaps and uneven counts
+      boolean listed = i % 3 == 2;
+      long trip = trip(RIDDEN.plusHours(i), !listed);
+      long booking = rows.booking(trip, RIDDEN.plusHours(i), riderId, "CONFIRMED");
+      rows.rating(booking, riderId, driverId, 5);
+      (listed ? kept : eligible).add(trip);
+    }
+    long future = trip(CUTOFF.plusDays(1), true); // hidden, but ridden after the cutoff
+    kept.add(future);
+
+    TripArchiver.Moved moved = archiver.archiveBefore(CUTOFF, () -> true);
+
+    assertEquals(new TripArchiver.Moved(eligible.size(), eligible.size(), eligible.size()), moved);
+    for (long id : eligible) {
+      assertEquals(0, count("select count(*) from trips where id = ?", id));
+      assertEquals(1, count("select count(*) from trips_archive where id = ?", id));
+      assertEquals(0, count("select count(*) from bookings where trip_id = ?", id));
+      assertEquals(1, count("select count(*) from bookings_archive where trip_id = ?", id));
+      assertEquals(1, count("""
+          select count(*) from ratings_archive r join bookings_archive b on b.id = r.booking_id
+           where b.trip_id = ?""", id));
+    }
+    for (long id : kept) {
+      assertEquals(1, count("select count(*) from trips where id = ?", id));
+      assertEquals(0, count("select count(*) from trips_archive where id = ?", id));
+    }
+    // only the listed trips' bookings and ratings stay live
+    assertEquals(2, count("select count(*) from bookings where rider_id = ?", riderId));
+    assertEquals(2, count("select count(*) from ratings where rater_id = ?", riderId));
+
+    assertEquals(TripArchiver.Moved.NONE, archiver.archiveBefore(CUTOFF, () -> true), "a second run finds nothing");
+  }
+
+  @Test
+  void leaseHeldByOneNodeCannotBeTakenByAnother() {
+    JobLease first = new JobLease(jdbc);
+    JobLease second = new JobLease(jdbc);
+    assertNotEquals(first.owner(), second.owner());
+
+    assertTrue(first.tryAcquire(job, TTL));
+    assertFalse(second.tryAcquire(job, TTL));
+    assertFalse(second.renew(job, TTL));
+    assertTrue(first.tryAcquire(job, TTL), "re-acquiring our own lease succeeds");
+    assertTrue(first.renew(job, TTL));
+
+    expire(job);
+    assertTrue(second.tryAcquire(job, TTL), "an expired lease is up for grabs");
+    assertFalse(first.renew(job, TTL));
+    assertFalse(first.tryAcquire(job, TTL));
+  }
+
+  @Test
+  void failedRenewalStopsTheRunBeforeTheNextChunk() {
+    List<Long> trips = new ArrayList<>();
+    for (int i = 0; i < 6; i++) trips.add(trip(RIDDEN.plusHours(i), false)); // three chunks of two
+    JobLease ours = new JobLease(jdbc);
+    JobLease theirs = new JobLease(jdbc);
+    assertTrue(ours.tryAcquire(job, TTL));
+
+    AtomicInteger checks = new AtomicInteger();
+    TripArchiver.Moved moved = archiver.archiveBefore(CUTOFF, () -> {
+      if (checks.incrementAndGet() == 2) {
+        // we stalled past the lease and another node took over
+        expire(job);
+        assertTrue(theirs.tryAcquire(job, TTL));
+      }
+      return ours.renew(job, TTL);
+    });
+
+    assertEquals(2, checks.get());
+    assertEquals(2, moved.trips());
+    assertEquals(2, count("select count(*) from trips_archive where id = any(?)", (Object) trips.toArray(Long[]::new)));
+    assertEquals(4, count("select count(*) from trips where id = any(?)", (Object) trips.toArray(Long[]::new)));
+  }
+
+  private void expire(String name) {
+    // now() is fixed for the whole (rolled back) test transaction, so push the lease behind it
+    jdbc.update("update job_leases set locked_until = now() - interval '1 second' where name = ?", name);
+  }
+
+  private long trip(OffsetDateTime rideAt, boolean hidden) {
+    return rows.trip(nextTripId++, driverId, rideAt, "CLOSED", !hidden);
+  }
+
+  private int count(String sql, Object... args) {
+    return jdbc.queryForObject(sql, Integer.class, args);
+  }
+}
@@ -0,0 +1,75 @@
+package com.routelink.housekeeping;
+
+import com.routelink.trip.Trip;
+import com.routelink.trip.TripRepository;
+import com.routelink.trip.TripStateChanged;
+import com.routelink.trip.TripStatus;
+import com.routelink.user.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class TripExpirySweeperTest {
+
+  private final TripRepository repo = mock(TripRepository.class);
+  private final ApplicationEventPublisher events = mock(ApplicationEventPublisher.class);
+  private final SimpleMeterRegistry meters = new SimpleMeterRegistry();
+  private final TripExpirySweeper sweeper = new TripExpirySweeper(
+      repo, events, mock(PlatformTransactionManager.class), meters, 30, 2, 10);
+
+  private static List<Trip> trips(long fromId, int n) {
+    User driver = new User();
+    ReflectionTestUtils.setField(driver, "id", 7L);
+    return LongStream.range(fromId, fromId + n).mapToObj(id -> {
+      Trip t = new Trip();
+      ReflectionTestUtils.setField(t, "id", id);
+      t.setDriver(driver);
+      t.setStatus(TripStatus.OPEN);
+      t.setActive(true);
+      return t;
+    }).toList();
+  }
+
+  @Test
+  void closesBatchesUntilAShortOne() {
+    List<Trip> first = trips(1, 2), second = trips(3, 1);
+    when(repo.findDepartedForUpdate(any(), eq(Limit.of(2)))).thenReturn(first, second);
+
+    assertEquals(3, sweeper.expireDeparted(OffsetDateTime.now()));
+
+    verify(repo, times(2)).findDepartedForUpdate(any(), any());
+    for (Trip t : first) {
+      assertEquals(TripStatus.CLOSED, t.getStatus());
+      assertFalse(t.isActive());
+    }
+    verify(events, times(3)).publishEvent(any(TripStateChanged.class));
+    assertEquals(3.0, meters.counter("routelink.trips.expired").count());
+  }
+
+  @Test
+  void stopsAtMaxBatches() {
+    when(repo.findDepartedForUpdate(any(), any())).thenAnswer(inv -> trips(1, 2));
+
+    assertEquals(20, sweeper.expireDeparted(OffsetDateTime.now()));
+    verify(repo, times(10)).findDepartedForUpdate(any(), any());
+  }
+
+  @Test
+  void nothingDepartedIsANoop() {
+    when(repo.findDepartedForUpdate(any(), any())).thenReturn(List.of());
+
+    assertEquals(0, sweeper.expireDeparted(OffsetDateTime.now()));
+    verifyNoInteractions(events);
+  }
+}
@@ -0,0 +1,106 @@
+package com.routelink.notification;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Runs the mail pipeline against GreenMail's in-process SMTP server. */
+class EmailDispatcherTest {
+
+  @RegisterExtension
+  static GreenMailExtension smtp = new GreenMailExtension(ServerSetupTest.SMTP);
+
+  private final SimpleMeterRegistry meters = new SimpleMeterRegistry();
+  private EmailDispatcher dispatcher;
+
+  @AfterEach
+  void tearDown() {
+    if (dispatcher != null) dispatcher.stop();
+  }
+
+  private EmailDispatcher dispatcher(int port, DeadLetterStore dlq, int queueCapacity, int maxAttempts) {
+    JavaMailSenderImpl sender = new JavaMailSenderImpl();
+    sender.setHost("localhost");
+    sender.setPort(port);
+    return new EmailDispatcher(sender, dlq, meters, "RouteLink <no-reply@routelink.local>",
+        queueCapacity, 1, 10, maxAttempts, 10, 20);
+  }
+
+  @Test
+  void deliversQueuedMessagesInBatches() throws Exception {
+    dispatcher = dispatcher(ServerSetupTest.SMTP.getPort(), new DeadLetterStore(10), 50, 3);
+    dispatcher.start();
+
+    for (int i = 0; i < 5; i++) {
+      assertTrue(dispatcher.enqueue(OutboundEmail.of("rider" + i + "@example.com", "Hi " + i, "body " + i, null)));
+    }
+
+    assertTrue(smtp.waitForIncomingEmail(5000, 5));
+    MimeMessage[] received = smtp.getReceivedMessages();
+    assertEquals(5, received.length);
+    dispatcher.stop(); // waits for the worker to finish its bookkeeping
+    assertEquals(5.0, meters.counter("routelink.mail.sent").count());
+  }
+
+  @Test
+  void deadLettersAfterRetriesAreExhausted() throws Exception {
+    DeadLetterStore dlq = new DeadLetterStore(10);
+    dispatcher = dispatcher(1, dlq, 50, 2); // nothing listens on port 1
+    dispatcher.start();
+
+    dispatcher.enqueue(OutboundEmail.of("driver@example.com", "Subject", "body", null));
+
+    long deadline = System.currentTimeMillis() + 5000;
+    while (dlq.size() == 0 && System.currentTimeMillis() < deadline) Thread.sleep(20);
+
+    assertEquals(1, dlq.size());
+    assertEquals(2, dlq.snapshot().get(0).email().attempt());
+    assertEquals(2.0, meters.counter("routelink.mail.failures").count());
+  }
+
+  @Test
+  void rejectsWhenQueueIsFull() {
+    DeadLetterStore dlq = new DeadLetterStore(10);
+    dispatcher = dispatcher(ServerSetupTest.SMTP.getPort(), dlq, 1, 3); // not started: nothing drains
+
+    assertTrue(dispatcher.enqueue(OutboundEmail.of("a@example.com", "s", "b", null)));
+    assertFalse(dispatcher.enqueue(OutboundEmail.of("b@example.com", "s", "b", null)));
+    assertEquals(1, dlq.size());
+    assertEquals(1.0, meters.counter("routelink.mail.rejected").count());
+  }
+
+  @Test
+  void retriesStillWaitingAtShutdownAreDeadLettered() throws Exception {
+    DeadLetterStore dlq = new DeadLetterStore(10);
+    JavaMailSenderImpl sender = new JavaMailSenderImpl();
+    sender.setHost("localhost");
+    sender.setPort(1); // nothing listens on port 1
+    dispatcher = new EmailDispatcher(sender, dlq, meters, "RouteLink <no-reply@routelink.local>",
+        50, 1, 10, 5, 60_000, 60_000); // the retry is a minute out
+
+    dispatcher.start();
+    dispatcher.enqueue(OutboundEmail.of("driver@example.com", "Subject", "body", null));
+
+    long deadline = System.currentTimeMillis() + 5000;
+    while (dispatcher.pendingRetryCount() == 0 && System.currentTimeMillis() < deadline) Thread.sleep(20);
+    assertEquals(1, dispatcher.pendingRetryCount());
+    assertEquals(0, dlq.size());
+
+    dispatcher.stop();
+
+    assertEquals(1, dlq.size());
+    DeadLetterStore.DeadLetter dead = dlq.snapshot().get(0);
+    assertEquals("driver@example.com", dead.email().to());
+    assertEquals(1, dead.email().attempt());
+    assertEquals("shutdown before retry", dead.reason());
+    assertEquals(1.0, meters.counter("routelink.mail.dead_letters").count());
+    assertEquals(0, dispatcher.pendingRetryCount());
+  }
+}
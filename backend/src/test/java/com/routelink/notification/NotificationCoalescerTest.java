@@ -0,0 +1,145 @@
+package com.routelink.notification;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/** Digest buffering driven by explicit timestamps; the sweeper executor is a mock. */
+class NotificationCoalescerTest {
+
+  private static final String TO = "Driver@Example.com";
+  private static final String KEY = "driver@example.com";
+
+  private final EmailService email = mock(EmailService.class);
+  private final SimpleMeterRegistry meters = new SimpleMeterRegistry();
+  private final NotificationCoalescer coalescer = new NotificationCoalescer(email, meters, 120, 3);
+
+  private static NotificationTemplates.Rendered mail(String subject) {
+    return new NotificationTemplates.Rendered(subject, subject + " text", "<p>" + subject + "</p>");
+  }
+
+  private NotificationTemplates.Rendered sentTo(String to) {
+    ArgumentCaptor<NotificationTemplates.Rendered> sent = ArgumentCaptor.forClass(NotificationTemplates.Rendered.class);
+    verify(email).send(eq(to), sent.capture());
+    return sent.getValue();
+  }
+
+  @Test
+  void mailsWithinTheWindowAreSentAsOneDigestOnceItExpires() {
+    coalescer.submit(TO, BookingMail.CONFIRMED_DRIVER, mail("first"), 1_000);
+    coalescer.submit(TO.toLowerCase(), BookingMail.CANCELLED_DRIVER, mail("second"), 60_000);
+
+    coalescer.flushExpired(120_999); // window counts from the first mail
+    verifyNoInteractions(email);
+
+    coalescer.flushExpired(121_000);
+    NotificationTemplates.Rendered digest = sentTo(KEY);
+    assertEquals("RouteLink: 2 booking updates", digest.subject());
+    assertTrue(digest.text().contains("first text") && digest.text().contains("second text"));
+    assertEquals(2.0, meters.counter("routelink.mail.digest.buffered").count());
+    assertEquals(1.0, meters.counter("routelink.mail.digest.sent").count());
+    assertEquals(0.0, meters.get("routelink.mail.digest.recipients").gauge().value());
+
+    coalescer.flushExpired(500_000); // already flushed: nothing sent twice
+    verifyNoMoreInteractions(email);
+  }
+
+  @Test
+  void singleBufferedMailIsSentAsIsNotAsADigest() {
+    NotificationTemplates.Rendered only = mail("only");
+    coalescer.submit(TO, BookingMail.CONFIRMED_DRIVER, only, 0);
+
+    coalescer.flushExpired(120_000);
+
+    assertSame(only, sentTo(KEY));
+    assertEquals(0.0, meters.counter("routelink.mail.digest.sent").count());
+  }
+
+  @Test
+  void reachingMaxItemsFlushesImmediately() {
+    coalescer.submit(TO, BookingMail.CONFIRMED_DRIVER, mail("a"), 0);
+    coalescer.submit(TO, BookingMail.CONFIRMED_DRIVER, mail("b"), 1);
+    verifyNoInteractions(email);
+
+    coalescer.submit(TO, BookingMail.CONFIRMED_DRIVER, mail("c"), 2);
+    assertEquals("RouteLink: 3 booking updates", sentTo(KEY).subject());
+
+    coalescer.submit(TO, BookingMail.CONFIRMED_DRIVER, mail("d"), 3); // starts a fresh window
+    coalescer.flushExpired(120_002);
+    verifyNoMoreInteractions(email);
+    coalescer.flushExpired(120_003);
+    verify(email, times(2)).send(eq(KEY), any());
+  }
+
+  @Test
+  void urgentMailsAndAZeroWindowBypassTheBuffer() {
+    NotificationTemplates.Rendered urgent = mail("urgent");
+    coalescer.submit(TO, BookingMail.CONFIRMED_RIDER, urgent, 0);
+    verify(email).send(TO, urgent);
+
+    NotificationCoalescer direct = new NotificationCoalescer(email, meters, 0, 3);
+    NotificationTemplates.Rendered later = mail("later");
+    direct.submit(TO, BookingMail.CONFIRMED_DRIVER, later, 0);
+    verify(email).send(TO, later);
+    assertEquals(0.0, meters.counter("routelink.mail.digest.buffered").count());
+  }
+
+  @Test
+  void recipientsAreBufferedSeparately() {
+    coalescer.submit("a@example.com", BookingMail.CONFIRMED_DRIVER, mail("a1"), 0);
+    coalescer.submit("b@example.com", BookingMail.CONFIRMED_DRIVER, mail("b1"), 0);
+    coalescer.submit("a@example.com", BookingMail.CONFIRMED_DRIVER, mail("a2"), 0);
+    assertEquals(2.0, meters.get("routelink.mail.digest.recipients").gauge().value());
+
+    coalescer.flushExpired(120_000);
+
+    assertEquals("RouteLink: 2 booking updates", sentTo("a@example.com").subject());
+    assertEquals("b1", sentTo("b@example.com").subject());
+  }
+
+  @Test
+  void startSchedulesTheSweepAndStopSendsWhatIsBuffered() {
+    ScheduledExecutorService sweeper = mock(ScheduledExecutorService.class);
+    coalescer.start(sweeper);
+    verify(sweeper).scheduleWithFixedDelay(any(Runnable.class), eq(1000L), eq(1000L), eq(TimeUnit.MILLISECONDS));
+
+    coalescer.submit(TO, BookingMail.CONFIRMED_DRIVER, mail("a"), 0);
+    coalescer.submit(TO, BookingMail.CONFIRMED_DRIVER, mail("b"), 0);
+    coalescer.stop();
+
+    verify(sweeper).shutdownNow();
+    assertEquals("RouteLink: 2 booking updates", sentTo(KEY).subject());
+    assertEquals(0.0, meters.get("routelink.mail.digest.recipients").gauge().value());
+  }
+
+  @Test
+  void mailsSubmittedAfterStopAreSentRatherThanDropped() {
+    coalescer.start(mock(ScheduledExecutorService.class));
+    coalescer.stop();
+
+    NotificationTemplates.Rendered late = mail("late");
+    coalescer.submit(TO, BookingMail.CONFIRMED_DRIVER, late, 0);
+
+    verify(email).send(TO, late);
+    assertEquals(0.0, meters.get("routelink.mail.digest.recipients").gauge().value());
+  }
+
+  @Test
+  void aFailingSendDuringStopDoesNotKeepOtherRecipientsFromBeingFlushed() {
+    when(email.send(eq("a@example.com"), any())).thenThrow(new IllegalStateException("smtp down"));
+    coalescer.submit("a@example.com", BookingMail.CONFIRMED_DRIVER, mail("a"), 0);
+    coalescer.submit("b@example.com", BookingMail.CONFIRMED_DRIVER, mail("b"), 0);
+
+    coalescer.stop();
+
+    verify(email).send(eq("a@example.com"), any());
+    verify(email).send(eq("b@example.com"), any());
+  }
+}
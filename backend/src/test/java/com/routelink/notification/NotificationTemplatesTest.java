@@ -0,0 +1,92 @@
+package com.routelink.notification;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NotificationTemplatesTest {
+
+  private static final OffsetDateTime RIDE_AT = OffsetDateTime.of(2025, 10, 1, 9, 30, 0, 0, ZoneOffset.ofHours(-4));
+
+  private final NotificationTemplates templates = new NotificationTemplates();
+
+  private static BookingMailModel model(String riderPhone) {
+    return BookingMailModel.of("Ana", "ana@example.com", riderPhone,
+        "Raj <Driver>", "raj@example.com", "5551234567",
+        "Boston", "Providence", RIDE_AT, 2);
+  }
+
+  /* The hand-concatenated body BookingService used to build. */
+  private static final DateTimeFormatter DF = DateTimeFormatter.ofPattern("MMM d, yyyy h:mm a");
+  private static String orDash(String s) { return (s == null || s.isBlank()) ? "—" : s; }
+
+  private static String legacyRiderConfirmed(BookingMailModel m) {
+    return "Hi " + m.riderName() + ",\n\n" +
+        "Your RouteLink booking is confirmed.\n\n" +
+        "Trip:\n" +
+        " From: " + orDash(m.from()) + "\n" +
+        " To:   " + orDash(m.to()) + "\n" +
+        " When: " + RIDE_AT.format(DF) + "\n" +
+        " Seats: " + m.seats() + "\n\n" +
+        "Driver:\n" +
+        " " + m.driverName() + " | " + m.driverEmail() + " | " + orDash(m.driverPhone()) + "\n\n" +
+        "Please coordinate pickup and timing directly.";
+  }
+
+  @Test
+  void textMatchesLegacyConcatenation() {
+    BookingMailModel m = model(null);
+    var r = templates.render(BookingMail.CONFIRMED_RIDER, m);
+    assertEquals("RouteLink Booking Confirmed", r.subject());
+    assertEquals(legacyRiderConfirmed(m), r.text());
+  }
+
+  @Test
+  void missingValuesRenderAsDashAndHtmlIsEscaped() {
+    var r = templates.render(BookingMail.CONFIRMED_DRIVER, model(null));
+    assertTrue(r.text().contains("Ana | ana@example.com | —"));
+    assertTrue(r.html().contains("Raj &lt;Driver&gt;"));
+    assertFalse(r.html().contains("{{"));
+  }
+
+  @Test
+  void unknownPlaceholderFailsAtCompileTime() {
+    var ex = assertThrows(IllegalStateException.class,
+        () -> MailTemplate.compile("t", "Hi {{rider.nmae}}", BookingMailModel.bindings(), false));
+    assertTrue(ex.getMessage().contains("rider.nmae"));
+  }
+
+  /** mvn test -Dtest=NotificationTemplatesTest -Dbench=true [-Dbench.emails=20000] */
+  @Test
+  @EnabledIfSystemProperty(named = "bench", matches = "true")
+  void benchmarkAgainstConcatenation() {
+    int emails = Integer.getInteger("bench.emails", 20_000); // roughly a busy day of booking mail
+    BookingMailModel m = model("5550001111");
+    long sink = 0;
+    for (int warm = 0; warm < 5; warm++) {
+      for (int i = 0; i < emails; i++) {
+        sink += legacyRiderConfirmed(m).length();
+        sink += templates.render(BookingMail.CONFIRMED_RIDER, m).text().length();
+      }
+    }
+
+    long t0 = System.nanoTime();
+    for (int i = 0; i < emails; i++) sink += legacyRiderConfirmed(m).length();
+    long legacy = System.nanoTime() - t0;
+
+    t0 = System.nanoTime();
+    for (int i = 0; i < emails; i++) {
+      BookingMailModel fresh = model("5550001111"); // per-event model includes the one date format
+      sink += templates.render(BookingMail.CONFIRMED_RIDER, fresh).text().length();
+    }
+    long compiled = System.nanoTime() - t0;
+
+    System.out.printf("[bench] %d emails: concat %.1f ms (%.0f ns/op), compiled text+html %.1f ms (%.0f ns/op) [%d]%n",
+        emails, legacy / 1e6, legacy / (double) emails, compiled / 1e6, compiled / (double) emails, sink);
+  }
+}
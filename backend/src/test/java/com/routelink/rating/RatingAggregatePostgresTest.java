@@ -0,0 +1,92 @@
+package com.routelink.rating;
+
+import com.routelink.PgRows;
+import com.routelink.PostgresTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The rating upsert keeps sum, count, histogram and the users columns exact, and the V11 seed
+ * builds the same totals from existing (and archived) ratings.
+ */
+@DataJpaTest
+@PostgresTest
+class RatingAggregatePostgresTest {
+
+  @Autowired RatingAggregateRepository aggregates;
+  @Autowired JdbcTemplate jdbc;
+
+  private PgRows rows;
+  private long rater;
+  private long ratee;
+
+  @BeforeEach
+  void users() {
+    rows = new PgRows(jdbc);
+    rater = rows.user("RIDER");
+    ratee = rows.user("DRIVER");
+  }
+
+  @Test
+  void recordAccumulatesTotalsAndUserColumns() {
+    aggregates.record(ratee, 5);
+    aggregates.record(ratee, 3);
+    aggregates.record(ratee, 5);
+
+    RatingAggregate a = aggregates.findById(ratee).orElseThrow();
+    assertEquals(13, a.getRatingSum());
+    assertEquals(3, a.getRatingCount());
+    assertArrayEquals(new int[]{0, 0, 1, 0, 2}, a.getHistogram());
+    assertEquals(3, jdbc.queryForObject("select rating_count from users where id = ?", Integer.class, ratee));
+    assertEquals(13 / 3.0, jdbc.queryForObject("select rating_avg from users where id = ?", Double.class, ratee), 1e-9);
+  }
+
+  @Test
+  void seedMigrationCountsLiveAndArchivedRatingsOnce() throws IOException {
+    rating(1, 4);
+    rating(2, 2);
+    jdbc.update("""
+        insert into ratings_archive (id, booking_id, rater_id, ratee_id, stars, created_at)
+        values (-1, -1, ?, ?, 5, now())
+        """, rater, ratee);
+
+    String seed = new ClassPathResource("db/migration/V11__backfill_rating_aggregates.sql")
+        .getContentAsString(StandardCharsets.UTF_8);
+    jdbc.execute(seed);
+    jdbc.execute(seed); // idempotent: the existing row is left alone
+
+    assertEquals(11L, jdbc.queryForObject("select rating_sum from rating_aggregates where user_id = ?", Long.class, ratee));
+    assertEquals(3, jdbc.queryForObject("select rating_count from rating_aggregates where user_id = ?", Integer.class, ratee));
+    assertEquals(3, jdbc.queryForObject("select rating_count from users where id = ?", Integer.class, ratee));
+
+    aggregates.record(ratee, 1); // later ratings continue from the seeded totals
+    assertEquals(12, aggregates.findById(ratee).orElseThrow().getRatingSum());
+  }
+
+  @Test
+  void seedMigrationRepairsADriftedAverageEvenWhenTheCountIsRight() throws IOException {
+    rating(1, 5);
+    rating(2, 2);
+    // a lost update kept the count but not the average
+    jdbc.update("update users set rating_count = 2, rating_avg = 5 where id = ?", ratee);
+
+    jdbc.execute(new ClassPathResource("db/migration/V11__backfill_rating_aggregates.sql")
+        .getContentAsString(StandardCharsets.UTF_8));
+
+    assertEquals(2, jdbc.queryForObject("select rating_count from users where id = ?", Integer.class, ratee));
+    assertEquals(3.5, jdbc.queryForObject("select rating_avg from users where id = ?", Double.class, ratee), 1e-9);
+  }
+
+  private void rating(long bookingId, int stars) {
+    rows.rating(-bookingId - 100, rater, ratee, stars); // no real booking: ratings lost its FK to bookings in V4
+  }
+}
@@ -0,0 +1,43 @@
+package com.routelink.rating;
+
+import com.routelink.common.BadRequestException;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class RatingQueryServiceTest {
+
+  private final RatingRepository repo = mock(RatingRepository.class);
+  private final RatingQueryService service = new RatingQueryService(repo, mock(ReputationService.class));
+
+  private static RatingView row(long id, Instant at) {
+    return new RatingView(id, 100 + id, 7L, "Ana", 5, null, at);
+  }
+
+  @Test
+  void fetchesOneExtraRowToDetectNextPage() {
+    Instant t = Instant.parse("2025-10-01T12:00:00.123456Z");
+    when(repo.findReceivedBefore(eq(9L), any(), anyLong(), eq(Limit.of(3))))
+        .thenReturn(List.of(row(5, t), row(4, t), row(3, t.minusSeconds(1))));
+
+    RatingPage page = service.received(9L, null, 2);
+
+    assertEquals(2, page.items().size());
+    var next = RatingQueryService.decode(page.nextCursor());
+    assertEquals(t, next.at());
+    assertEquals(4L, next.id());
+  }
+
+  @Test
+  void lastPageHasNoCursorAndBadCursorIs400() {
+    when(repo.findReceivedBefore(anyLong(), any(), anyLong(), any())).thenReturn(List.of());
+    assertNull(service.received(9L, null, 20).nextCursor());
+    assertThrows(BadRequestException.class, () -> service.received(9L, "not-a-cursor", 20));
+  }
+}
@@ -0,0 +1,51 @@
+package com.routelink.rating;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ReputationServiceTest {
+
+  private final RatingAggregateRepository repo = mock(RatingAggregateRepository.class);
+  private final ReputationService service = new ReputationService(repo, 60, 100);
+
+  private static RatingAggregate agg(long userId, long sum, int count) {
+    RatingAggregate a = new RatingAggregate();
+    ReflectionTestUtils.setField(a, "userId", userId);
+    ReflectionTestUtils.setField(a, "ratingSum", sum);
+    ReflectionTestUtils.setField(a, "ratingCount", count);
+    ReflectionTestUtils.setField(a, "stars5", count);
+    return a;
+  }
+
+  @Test
+  void loadsAPageInOneQueryThenServesFromCache() {
+    when(repo.findAllById(any())).thenReturn(List.of(agg(1L, 10, 2)));
+
+    var first = service.forUsers(List.of(1L, 2L, 1L));
+    assertEquals(5.0, first.get(1L).avg());
+    assertEquals(2, first.get(1L).histogram()[4]);
+    assertEquals(0, first.get(2L).count(), "unrated drivers get an empty reputation");
+    verify(repo, times(1)).findAllById(Set.of(1L, 2L));
+
+    service.forUsers(List.of(2L, 1L));
+    verifyNoMoreInteractions(repo);
+
+    service.evictAfterCommit(1L); // no transaction: immediate
+    service.forUsers(List.of(1L, 2L));
+    verify(repo).findAllById(Set.of(1L));
+  }
+
+  @Test
+  void smoothingFavoursVolumeOverOneReview() {
+    var oneFive = new Reputation(1L, 5.0, 1, new int[5]);
+    var manyHigh = new Reputation(2L, 4.8, 50, new int[5]);
+    assertTrue(manyHigh.smoothedScore(4.0, 5) > oneFive.smoothedScore(4.0, 5));
+  }
+}
@@ -0,0 +1,156 @@
+package com.routelink.security;
+
+import com.routelink.user.Role;
+import com.routelink.user.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class JwtAuthFilterTest {
+
+  private static final String SECRET = "test_test_test_secret_at_least_32_bytes_long";
+
+  private final JwtUtil jwt = new JwtUtil("RouteLink", SECRET, 60, 100, new SimpleMeterRegistry());
+  private final UserRepository users = mock(UserRepository.class);
+  private final AppUserDetailsService uds = mock(AppUserDetailsService.class);
+  private final StreamTickets tickets = new StreamTickets(30);
+
+  @AfterEach
+  void clear() { SecurityContextHolder.clearContext(); }
+
+  private Authentication authenticate(JwtAuthFilter filter, String token) throws Exception {
+    MockHttpServletRequest req = new MockHttpServletRequest("GET", "/api/trips");
+    req.setServletPath("/api/trips");
+    req.addHeader("Authorization", "Bearer " + token);
+    MockFilterChain chain = new MockFilterChain();
+    filter.doFilter(req, new MockHttpServletResponse(), chain);
+    assertNotNull(chain.getRequest(), "the request always continues down the chain");
+    return SecurityContextHolder.getContext().getAuthentication();
+  }
+
+  private JwtAuthFilter filter(long revalidateSec) {
+    return new JwtAuthFilter(jwt, uds, new TokenRevalidator(users, revalidateSec), tickets, true);
+  }
+
+  @Test
+  void claimsBecomeThePrincipalAndRoleAuthoritiesWithoutTheDatabase() throws Exception {
+    String token = jwt.create("ana@example.com", Map.of("uid", 7, "roles", List.of("DRIVER", "ADMIN")));
+
+    Authentication auth = authenticate(filter(0), token);
+
+    JwtPrincipal p = (JwtPrincipal) auth.getPrincipal();
+    assertEquals(7L, p.uid());
+    assertEquals("ana@example.com", auth.getName());
+    assertEquals(List.of("ROLE_DRIVER", "ROLE_ADMIN"),
+        auth.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+    verifyNoInteractions(users, uds);
+  }
+
+  @Test
+  void singleRoleStringClaimMapsToOneAuthority() throws Exception {
+    String token = jwt.create("ana@example.com", Map.of("uid", 7, "roles", "RIDER"));
+
+    Authentication auth = authenticate(filter(0), token);
+
+    assertEquals(List.of("ROLE_RIDER"), auth.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+  }
+
+  @Test
+  void removedUserIsRejectedOnRevalidation() throws Exception {
+    when(users.findRoleById(7L)).thenReturn(Optional.empty());
+    String token = jwt.create("ana@example.com", Map.of("uid", 7, "roles", "DRIVER"));
+
+    assertNull(authenticate(filter(60), token));
+  }
+
+  @Test
+  void tokenWithAStaleRoleIsRejectedOnRevalidation() throws Exception {
+    when(users.findRoleById(7L)).thenReturn(Optional.of(Role.RIDER)); // demoted after the token was issued
+    String token = jwt.create("ana@example.com", Map.of("uid", 7, "roles", "ADMIN"));
+
+    assertNull(authenticate(filter(60), token));
+  }
+
+  @Test
+  void tamperedTokenLeavesTheRequestAnonymous() throws Exception {
+    String token = jwt.create("ana@example.com", Map.of("uid", 7, "roles", "DRIVER"));
+
+    assertNull(authenticate(filter(0), token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA")));
+  }
+
+  @Test
+  void tokenWithoutUidFallsBackToLoadingTheUser() throws Exception {
+    when(uds.loadUserByUsername("ana@example.com"))
+        .thenReturn(User.withUsername("ana@example.com").password("x").roles("RIDER").build());
+    String token = jwt.create("ana@example.com", Map.of());
+
+    Authentication auth = authenticate(filter(0), token);
+
+    assertEquals("ana@example.com", auth.getName());
+    verify(uds).loadUserByUsername("ana@example.com");
+  }
+
+  @Test
+  void streamTicketAuthenticatesTheStreamOnce() throws Exception {
+    JwtPrincipal p = new JwtPrincipal(7L, "ana@example.com", List.of("RIDER"));
+    String ticket = tickets.issue(new UsernamePasswordAuthenticationToken(p, null, p.authorities()));
+
+    Authentication auth = stream(filter(0), ticket);
+    assertSame(p, auth.getPrincipal());
+    assertEquals(List.of("ROLE_RIDER"), auth.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+
+    SecurityContextHolder.clearContext();
+    assertNull(stream(filter(0), ticket), "a ticket works only once");
+  }
+
+  @Test
+  void jwtInTheQueryStringIsNoLongerAccepted() throws Exception {
+    String token = jwt.create("ana@example.com", Map.of("uid", 7, "roles", "RIDER"));
+    MockHttpServletRequest req = new MockHttpServletRequest("GET", "/api/bookings/stream");
+    req.setServletPath("/api/bookings/stream");
+    req.setParameter("access_token", token);
+
+    filter(0).doFilter(req, new MockHttpServletResponse(), new MockFilterChain());
+
+    assertNull(SecurityContextHolder.getContext().getAuthentication());
+  }
+
+  @Test
+  void ticketIsOnlyHonouredOnTheStreamPath() throws Exception {
+    JwtPrincipal p = new JwtPrincipal(7L, "ana@example.com", List.of("RIDER"));
+    String ticket = tickets.issue(new UsernamePasswordAuthenticationToken(p, null, p.authorities()));
+    MockHttpServletRequest req = new MockHttpServletRequest("GET", "/api/bookings/me");
+    req.setServletPath("/api/bookings/me");
+    req.setParameter("ticket", ticket);
+
+    filter(0).doFilter(req, new MockHttpServletResponse(), new MockFilterChain());
+
+    assertNull(SecurityContextHolder.getContext().getAuthentication());
+  }
+
+  private Authentication stream(JwtAuthFilter filter, String ticket) throws Exception {
+    MockHttpServletRequest req = new MockHttpServletRequest("GET", "/api/bookings/stream");
+    req.setServletPath("/api/bookings/stream");
+    req.setParameter("ticket", ticket);
+    MockFilterChain chain = new MockFilterChain();
+    filter.doFilter(req, new MockHttpServletResponse(), chain);
+    assertNotNull(chain.getRequest());
+    return SecurityContextHolder.getContext().getAuthentication();
+  }
+}
@@ -0,0 +1,47 @@
+package com.routelink.security;
+
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtUtilTest {
+
+  private static final String SECRET = "test_test_test_secret_at_least_32_bytes_long";
+
+  private final SimpleMeterRegistry meters = new SimpleMeterRegistry();
+  private final JwtUtil jwt = new JwtUtil("RouteLink", SECRET, 60, 100, meters);
+
+  @Test
+  void repeatedTokenIsServedFromCache() {
+    String token = jwt.create("ana@example.com", Map.of("uid", 7, "roles", "RIDER"));
+
+    var first = jwt.claims(token);
+    var second = jwt.claims(token);
+
+    assertSame(first, second);
+    assertEquals(1, meters.counter("routelink.jwt.cache", "result", "hit").count());
+    assertEquals(1, meters.counter("routelink.jwt.cache", "result", "miss").count());
+    assertEquals(0.5, jwt.cacheHitRatio(), 1e-9);
+    assertEquals(7L, jwt.principal(token).orElseThrow().uid());
+  }
+
+  @Test
+  void tamperedTokenIsNeverCached() {
+    String token = jwt.create("ana@example.com", Map.of("uid", 7, "roles", "RIDER"));
+    jwt.claims(token);
+    String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+    assertThrows(JwtException.class, () -> jwt.claims(tampered));
+    assertThrows(JwtException.class, () -> jwt.claims(tampered));
+  }
+
+  @Test
+  void cacheStaysBounded() {
+    for (int i = 0; i < 250; i++) jwt.claims(jwt.create("u" + i + "@example.com", Map.of("uid", i, "roles", "RIDER")));
+    assertTrue(meters.get("routelink.jwt.cache.size").gauge().value() <= 100);
+  }
+}
@@ -0,0 +1,65 @@
+package com.routelink.security;
+
+import com.routelink.common.ServiceUnavailableException;
+import com.routelink.common.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHasherTest {
+
+  /** Encoder that blocks until released, so the pool can be saturated deterministically. */
+  private static final class GatedEncoder implements PasswordEncoder {
+    final CountDownLatch gate = new CountDownLatch(1);
+    @Override public String encode(CharSequence raw) {
+      try { gate.await(5, TimeUnit.SECONDS); } catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+      return "h:" + raw;
+    }
+    @Override public boolean matches(CharSequence raw, String hash) { return hash.equals(encode(raw)); }
+  }
+
+  @Test
+  void rejectsWith429WhenQueueIsFull() {
+    GatedEncoder enc = new GatedEncoder();
+    SimpleMeterRegistry meters = new SimpleMeterRegistry();
+    PasswordHasher hasher = new PasswordHasher(enc, meters, 1, 1, 10_000, 3);
+    try {
+      var running = hasher.encode("a");
+      var queued = hasher.encode("b");
+      var ex = assertThrows(TooManyRequestsException.class, () -> hasher.encode("c"));
+      assertEquals(3, ex.retryAfterSeconds());
+
+      enc.gate.countDown();
+      assertEquals("h:a", running.join());
+      assertEquals("h:b", queued.join());
+      assertEquals(1, meters.counter("routelink.auth.hash.rejected", "reason", "queue_full").count());
+    } finally {
+      hasher.shutdown();
+    }
+  }
+
+  @Test
+  void dropsWorkThatWaitedTooLongWith503() throws Exception {
+    GatedEncoder enc = new GatedEncoder();
+    PasswordHasher hasher = new PasswordHasher(enc, new SimpleMeterRegistry(), 1, 4, 50, 1);
+    try {
+      var running = hasher.encode("a");
+      var stale = hasher.encode("b");
+      Thread.sleep(120);
+      enc.gate.countDown();
+
+      assertEquals("h:a", running.join());
+      var ex = assertThrows(CompletionException.class, stale::join);
+      assertInstanceOf(ServiceUnavailableException.class, ex.getCause());
+      assertTrue(hasher.matches("a", "h:a").join());
+    } finally {
+      hasher.shutdown();
+    }
+  }
+}
@@ -0,0 +1,58 @@
+package com.routelink.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamTicketsTest {
+
+  private final StreamTickets tickets = new StreamTickets(30);
+  private final JwtPrincipal ana = new JwtPrincipal(7L, "ana@example.com", List.of("DRIVER"));
+  private final Authentication auth = new UsernamePasswordAuthenticationToken(ana, null, ana.authorities());
+
+  @Test
+  void ticketRedeemsOnceForTheAuthenticationItWasIssuedFor() {
+    String t = tickets.issue(auth, 1_000);
+
+    Authentication redeemed = tickets.redeem(t, 30_999);
+    assertSame(ana, redeemed.getPrincipal());
+    assertEquals(auth.getAuthorities(), redeemed.getAuthorities());
+    assertTrue(redeemed.isAuthenticated());
+    assertNull(redeemed.getCredentials());
+
+    assertNull(tickets.redeem(t, 31_000));
+  }
+
+  @Test
+  void expiredOrUnknownTicketsAreRejected() {
+    String t = tickets.issue(auth, 1_000);
+
+    assertNull(tickets.redeem(t, 31_000));
+    assertNull(tickets.redeem("not-a-ticket", 1_000));
+    assertNull(tickets.redeem(null, 1_000));
+  }
+
+  @Test
+  void ticketsAreUnguessableAndDistinct() {
+    String a = tickets.issue(auth, 0);
+    String b = tickets.issue(auth, 0);
+
+    assertNotEquals(a, b);
+    assertEquals(43, a.length()); // 256 random bits, base64url
+  }
+
+  @Test
+  void unredeemedTicketsAreSweptOnceExpired() {
+    tickets.issue(auth, 0);
+    tickets.issue(auth, 0);
+    assertEquals(2, tickets.size());
+
+    tickets.issue(auth, 30_000);
+
+    assertEquals(1, tickets.size());
+  }
+}
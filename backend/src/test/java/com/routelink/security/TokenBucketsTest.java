@@ -0,0 +1,45 @@
+package com.routelink.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketsTest {
+
+  private static final long SEC = TimeUnit.SECONDS.toNanos(1);
+
+  @Test
+  void burstThenRefillAtRate() {
+    TokenBuckets b = new TokenBuckets(2, 4, 4); // 2 tokens/s, bucket of 4
+    long t = 1_000 * SEC;
+
+    for (int i = 0; i < 4; i++) assertTrue(b.tryTake("ip:1", 1, t).allowed());
+    var denied = b.tryTake("ip:1", 1, t);
+    assertFalse(denied.allowed());
+    assertEquals(SEC / 2, denied.retryAfterNanos());
+
+    assertTrue(b.tryTake("ip:1", 1, t + SEC / 2).allowed());
+    assertTrue(b.tryTake("ip:2", 1, t).allowed(), "keys are independent");
+  }
+
+  @Test
+  void heavierRequestsDrainFaster() {
+    TokenBuckets b = new TokenBuckets(1, 10, 1);
+    long t = 1_000 * SEC;
+    assertTrue(b.tryTake("u:7", 5, t).allowed());
+    assertTrue(b.tryTake("u:7", 5, t).allowed());
+    assertFalse(b.tryTake("u:7", 1, t).allowed());
+  }
+
+  @Test
+  void evictsOnlyIdleBuckets() {
+    TokenBuckets b = new TokenBuckets(1, 2, 2);
+    long t = 1_000 * SEC;
+    b.tryTake("ip:idle", 1, t);
+    b.tryTake("ip:busy", 1, t + 100 * SEC);
+    assertEquals(1, b.evictIdle(t + 100 * SEC, 60 * SEC));
+    assertEquals(1, b.size());
+  }
+}
@@ -0,0 +1,59 @@
+package com.routelink.security;
+
+import com.routelink.user.Role;
+import com.routelink.user.UserRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TokenRevalidatorTest {
+
+  private final UserRepository users = mock(UserRepository.class);
+  private static final JwtPrincipal DRIVER = new JwtPrincipal(7L, "ana@example.com", List.of("DRIVER"));
+
+  @Test
+  void disabledNeverTouchesTheDatabase() {
+    TokenRevalidator off = new TokenRevalidator(users, 0);
+
+    assertTrue(off.stillValid(DRIVER));
+    verifyNoInteractions(users);
+  }
+
+  @Test
+  void cacheHitSkipsTheDatabase() {
+    when(users.findRoleById(7L)).thenReturn(Optional.of(Role.DRIVER));
+    TokenRevalidator revalidator = new TokenRevalidator(users, 60);
+
+    assertTrue(revalidator.stillValid(DRIVER));
+    assertTrue(revalidator.stillValid(DRIVER));
+    assertTrue(revalidator.stillValid(new JwtPrincipal(7L, "ana@example.com", List.of("DRIVER"))));
+
+    verify(users, times(1)).findRoleById(7L);
+  }
+
+  @Test
+  void evictMakesARoleChangeEffectiveAtOnce() {
+    when(users.findRoleById(7L)).thenReturn(Optional.of(Role.DRIVER), Optional.of(Role.RIDER));
+    TokenRevalidator revalidator = new TokenRevalidator(users, 60);
+
+    assertTrue(revalidator.stillValid(DRIVER));
+    revalidator.evict(7L);
+
+    assertFalse(revalidator.stillValid(DRIVER));
+    verify(users, times(2)).findRoleById(7L);
+  }
+
+  @Test
+  void cachedRemovalKeepsRejecting() {
+    when(users.findRoleById(7L)).thenReturn(Optional.empty());
+    TokenRevalidator revalidator = new TokenRevalidator(users, 60);
+
+    assertFalse(revalidator.stillValid(DRIVER));
+    assertFalse(revalidator.stillValid(DRIVER));
+    verify(users, times(1)).findRoleById(7L);
+  }
+}
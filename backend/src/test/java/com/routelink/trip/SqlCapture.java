@@ -0,0 +1,19 @@
+package com.routelink.trip;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/** Records the SQL Hibernate sends, for tests that assert on statement text or plans. */
+public class SqlCapture implements StatementInspector {
+  static final List<String> SQL = new CopyOnWriteArrayList<>();
+
+  @Override
+  public String inspect(String sql) {
+    SQL.add(sql);
+    return sql;
+  }
+
+  static String last() { return SQL.get(SQL.size() - 1); }
+}
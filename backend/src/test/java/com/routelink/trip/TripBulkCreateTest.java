@@ -0,0 +1,119 @@
+package com.routelink.trip;
+
+import com.routelink.security.CurrentUser;
+import com.routelink.user.Role;
+import com.routelink.user.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+import java.util.Set;
+
+import static java.time.DayOfWeek.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/** A month of recurring trips must go out as a few batched statements, not one insert per trip. */
+@DataJpaTest
+@Import(TripService.class)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("h2test")
+class TripBulkCreateTest {
+
+  @Autowired TripService tripService;
+  @Autowired TripRepository trips;
+  @Autowired EntityManager em;
+  @Autowired EntityManagerFactory emf;
+  @MockitoBean CurrentUser currentUser;
+  @MockitoBean TripSearchIndex searchIndex;
+
+  private Statistics stats;
+
+  @BeforeEach
+  void driver() {
+    User driver = new User();
+    driver.setName("driver");
+    driver.setEmail("commuter@example.com");
+    driver.setPasswordHash("x");
+    driver.setRole(Role.DRIVER);
+    em.persist(driver);
+    em.flush();
+    when(currentUser.reference()).thenReturn(driver);
+
+    stats = emf.unwrap(SessionFactory.class).getStatistics();
+    stats.clear();
+  }
+
+  @Test
+  void recurringMonthIsBatched() {
+    LocalDate monday = LocalDate.now(ZoneOffset.UTC).with(TemporalAdjusters.next(MONDAY));
+    TripRecurrence weekdays = new TripRecurrence(monday, monday.plusDays(27),
+        Set.of(MONDAY, TUESDAY, WEDNESDAY, THURSDAY, FRIDAY), LocalTime.of(7, 30), ZoneOffset.UTC,
+        Set.of(monday));
+
+    List<Trip> created = tripService.createRecurring(template(), weekdays);
+    em.flush();
+
+    assertEquals(19, created.size());
+    assertTrue(created.stream().allMatch(t -> t.getId() != null && t.getSeatsLeft() == 3 && t.isActive()));
+    assertEquals(19, stats.getEntityInsertCount());
+    // a couple of nextval calls for the id pool plus one batch of 19 inserts
+    assertTrue(stats.getPrepareStatementCount() <= 4, "statements: " + stats.getPrepareStatementCount());
+    assertEquals(19, trips.count());
+    verify(searchIndex).markDirty(created);
+  }
+
+  @Test
+  void recurringPastThePartitionHorizonIsRejected() {
+    LocalDate lastDay = tripService.recurringHorizon().toLocalDate().minusDays(1);
+    TripRecurrence straddling = new TripRecurrence(lastDay.minusDays(3), lastDay.plusDays(3),
+        Set.of(DayOfWeek.values()), LocalTime.of(7, 30), ZoneOffset.UTC, Set.of());
+    TripRecurrence endingOnIt = new TripRecurrence(lastDay.minusDays(3), lastDay,
+        Set.of(DayOfWeek.values()), LocalTime.of(7, 30), ZoneOffset.UTC, Set.of());
+
+    assertThrows(IllegalArgumentException.class, () -> tripService.createRecurring(template(), straddling));
+    assertEquals(0, stats.getEntityInsertCount());
+    assertEquals(4, tripService.createRecurring(template(), endingOnIt).size());
+  }
+
+  @Test
+  void bulkIsAllOrNothing() {
+    TripService.CreateTrip ok = template().at(LocalDate.of(2030, 9, 3).atTime(8, 0).atOffset(ZoneOffset.UTC));
+    TripService.CreateTrip bad = template(); // no rideAt
+
+    assertThrows(IllegalArgumentException.class, () -> tripService.createAll(List.of(ok, bad)));
+    assertEquals(0, stats.getEntityInsertCount());
+  }
+
+  @Test
+  void priceAboveTheCapIsRejectedBeforeAnyInsert() {
+    TripService.CreateTrip ok = template().at(LocalDate.of(2030, 9, 3).atTime(8, 0).atOffset(ZoneOffset.UTC));
+    TripService.CreateTrip pricey = new TripService.CreateTrip("Worcester", 42.26, -71.80, "Boston", 42.36, -71.06,
+        null, ok.rideAt(), new BigDecimal("25000000.00"), 3);
+
+    assertThrows(IllegalArgumentException.class, () -> tripService.createAll(List.of(ok, pricey)));
+    assertEquals(0, stats.getEntityInsertCount());
+  }
+
+  private static TripService.CreateTrip template() {
+    return new TripService.CreateTrip("Worcester", 42.26, -71.80, "Boston", 42.36, -71.06,
+        null, null, new BigDecimal("12.50"), 3);
+  }
+}
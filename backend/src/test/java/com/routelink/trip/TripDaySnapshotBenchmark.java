@@ -0,0 +1,87 @@
+package com.routelink.trip;
+
+import com.routelink.common.Deadline;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Footprint and scan throughput of a busy day's snapshot (50k trips, 20-point routes around
+ * New England). Not a unit test: run with {@code mvn test -Dtest=TripDaySnapshotBenchmark -Dbenchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class TripDaySnapshotBenchmark {
+
+  private static final int TRIPS = 50_000;
+  private static final int ROUNDS = 20;
+  private static final OffsetDateTime DAY = OffsetDateTime.of(2031, 4, 2, 0, 0, 0, 0, ZoneOffset.UTC);
+
+  @Test
+  void scanBusyDay() {
+    Random rnd = new Random(42);
+    List<TripSearchRow> rows = new ArrayList<>(TRIPS);
+    for (int i = 0; i < TRIPS; i++) {
+      double sLat = 41.0 + rnd.nextDouble() * 2, sLng = -73.5 + rnd.nextDouble() * 3;
+      double eLat = 41.0 + rnd.nextDouble() * 2, eLng = -73.5 + rnd.nextDouble() * 3;
+      List<double[]> route = new ArrayList<>(20);
+      for (int p = 0; p < 20; p++) {
+        double f = p / 19.0;
+        route.add(new double[]{ sLat + (eLat - sLat) * f, sLng + (eLng - sLng) * f });
+      }
+      rows.add(new TripSearchRow(i + 1, rnd.nextInt(5000), DAY.plusSeconds(rnd.nextInt(86_400)),
+          sLat, sLng, eLat, eLng, route, 1000 + rnd.nextInt(4000), 1 + rnd.nextInt(4), 4.5, 3));
+    }
+
+    long t0 = System.nanoTime();
+    TripDaySnapshot s = TripDaySnapshot.of(rows);
+    long buildMs = (System.nanoTime() - t0) / 1_000_000;
+
+    NearSearchService near = new NearSearchService();
+    ReflectionTestUtils.setField(near, "RADIUS_KM", 5.0);
+    AlongRouteSearchService along = new AlongRouteSearchService();
+    ReflectionTestUtils.setField(along, "NEAR_RADIUS_KM", 25.0);
+    ReflectionTestUtils.setField(along, "MAX_DETOUR_KM", 40.0);
+
+    double nearRate = 0, alongRate = 0;
+    int hits = 0;
+    for (int round = 0; round < ROUNDS; round++) { // early rounds warm up the JIT; keep the best
+      double pLat = 41.2 + rnd.nextDouble() * 1.6, pLng = -73.2 + rnd.nextDouble() * 2.4;
+      double qLat = 41.2 + rnd.nextDouble() * 1.6, qLng = -73.2 + rnd.nextDouble() * 2.4;
+      List<TripMatch> out = new ArrayList<>();
+
+      long n0 = System.nanoTime();
+      assertTrue(near.match(s, 0, s.size(), pLat, pLng, qLat, qLng, 1, Deadline.none(), out));
+      long n1 = System.nanoTime();
+      assertTrue(along.match(s, 0, s.size(), pLat, pLng, qLat, qLng, 1, Deadline.none(), out));
+      long n2 = System.nanoTime();
+
+      nearRate = Math.max(nearRate, s.size() * 1e9 / Math.max(1, n1 - n0));
+      alongRate = Math.max(alongRate, s.size() * 1e9 / Math.max(1, n2 - n1));
+      hits += out.size();
+    }
+
+    double rebuildMs = Double.MAX_VALUE;
+    for (int round = 0; round < ROUNDS; round++) {
+      long r0 = System.nanoTime();
+      assertEquals(TRIPS, s.with(List.of(rows.get(round)), List.of()).size());
+      rebuildMs = Math.min(rebuildMs, (System.nanoTime() - r0) / 1e6);
+    }
+
+    System.out.printf("""
+        TripDaySnapshot: %d trips, %d route points
+          footprint   %,d bytes (%.1f per trip)
+          build       %d ms, single-change rebuild %.1f ms
+          near scan   %,.0f trips/s
+          along scan  %,.0f trips/s (%d matches over %d queries)
+        """, s.size(), s.routeLatLng.length / 2, s.footprintBytes(), s.footprintBytes() / (double) s.size(),
+        buildMs, rebuildMs, nearRate, alongRate, hits, ROUNDS);
+  }
+}
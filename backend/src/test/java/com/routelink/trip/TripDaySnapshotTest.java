@@ -0,0 +1,66 @@
+package com.routelink.trip;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TripDaySnapshotTest {
+
+  private static final OffsetDateTime DAY = OffsetDateTime.of(2031, 4, 2, 0, 0, 0, 0, ZoneOffset.UTC);
+
+  private static TripSearchRow row(long id, int hour, List<double[]> route) {
+    return new TripSearchRow(id, 7L, DAY.plusHours(hour), 42.36, -71.06, 41.82, -71.41, route, 1250, 3, 4.5, 2);
+  }
+
+  @Test
+  void sortsByDepartureAndBoundsTimeWindows() {
+    TripDaySnapshot s = TripDaySnapshot.of(List.of(row(3, 12, List.of()), row(1, 8, List.of()), row(2, 8, List.of())));
+
+    assertArrayEquals(new long[]{1, 2, 3}, s.ids);
+    long eight = DAY.plusHours(8).toEpochSecond();
+    assertEquals(0, s.lowerBound(eight));
+    assertEquals(2, s.upperBound(eight));
+    assertEquals(2, s.lowerBound(eight + 1));
+    assertEquals(3, s.lowerBound(DAY.plusDays(1).toEpochSecond()));
+  }
+
+  @Test
+  void routesShareOneArrayAndWidenTheBox() {
+    List<double[]> route = List.of(new double[]{42.36, -71.06}, new double[]{42.50, -71.70}, new double[]{41.82, -71.41});
+    TripDaySnapshot s = TripDaySnapshot.of(List.of(row(1, 8, List.of()), row(2, 9, route)));
+
+    assertFalse(s.hasRoute(0));
+    assertTrue(s.hasRoute(1));
+    assertEquals(6, s.routeLatLng.length);
+    assertEquals(42_500_000, s.maxLat[1]);
+    assertEquals(-71_700_000, s.minLng[1]);
+    assertEquals(42_360_000, s.maxLat[0]);
+
+    TripSearchRow back = s.row(1);
+    assertEquals(-71.70, back.route().get(1)[1], 1e-6);
+    assertEquals(DAY.plusHours(9).toInstant(), back.rideAt().toInstant());
+  }
+
+  @Test
+  void withCopiesAndLeavesTheOriginalUntouched() {
+    TripDaySnapshot s = TripDaySnapshot.of(List.of(row(1, 8, List.of()), row(2, 9, List.of())));
+
+    TripDaySnapshot next = s.with(List.of(row(2, 7, List.of()), row(4, 10, List.of())), List.of(1L));
+
+    assertArrayEquals(new long[]{2, 4}, next.ids, "trip 2 moved before 4, trip 1 gone");
+    assertArrayEquals(new long[]{1, 2}, s.ids);
+    assertSame(s, s.with(List.of(), List.of()));
+  }
+
+  @Test
+  void footprintCountsTheArrays() {
+    TripDaySnapshot s = TripDaySnapshot.of(List.of(row(1, 8, List.of(new double[]{42.36, -71.06}, new double[]{41.82, -71.41}))));
+    // 17 array headers, 3 long + 12 int columns, 2 routeStart entries, 2 interleaved points
+    assertEquals(16 * 17 + 8 * 3 + 4 * 12 + 2 * 4 + 4 * 4, s.footprintBytes());
+    assertEquals(16 * 17 + 4, TripDaySnapshot.EMPTY.footprintBytes());
+  }
+}
@@ -0,0 +1,142 @@
+package com.routelink.trip;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class TripDaySnapshotsTest {
+
+  private static final LocalDate D1 = LocalDate.of(2031, 4, 1), D2 = D1.plusDays(1), D3 = D1.plusDays(2);
+
+  private final TripSearchIndex index = mock(TripSearchIndex.class);
+  private final SimpleMeterRegistry meters = new SimpleMeterRegistry();
+  private final TripDaySnapshots snapshots = new TripDaySnapshots(index, meters, 3600, 2);
+
+  TripDaySnapshotsTest() {
+    when(index.departing(any(), any())).thenAnswer(inv -> {
+      OffsetDateTime from = inv.getArgument(0);
+      return List.of(row(from.toLocalDate().toEpochDay(), from.plusHours(8)));
+    });
+  }
+
+  private static TripSearchRow row(long id, OffsetDateTime at) {
+    return new TripSearchRow(id, 7L, at, 42.36, -71.06, 41.82, -71.41, List.of(), 1250, 3, 0, 0);
+  }
+
+  private void verifyLoads(LocalDate day, int times) {
+    verify(index, times(times)).departing(eq(day.atStartOfDay().atOffset(ZoneOffset.UTC)), any());
+  }
+
+  @Test
+  void cachedDayIsNotReloaded() {
+    assertSame(snapshots.get(D1), snapshots.get(D1));
+    verifyLoads(D1, 1);
+  }
+
+  @Test
+  void pastTheCapOnlyTheLeastRecentlyUsedDayIsEvicted() {
+    snapshots.get(D1);
+    snapshots.get(D2);
+    snapshots.get(D1); // D2 is now the least recently used
+    snapshots.get(D3);
+
+    snapshots.get(D1);
+    snapshots.get(D3);
+    verifyLoads(D1, 1);
+    verifyLoads(D3, 1);
+    assertEquals(2.0, meters.get("routelink.search.snapshot.days").gauge().value());
+
+    snapshots.get(D2);
+    verifyLoads(D2, 2);
+  }
+
+  @Test
+  void committedChangesAreAppliedToCachedDays() {
+    TripDaySnapshot before = snapshots.get(D1);
+    long loaded = before.ids[0];
+    TripSearchRow moved = row(99L, D1.atTime(12, 0).atOffset(ZoneOffset.UTC));
+
+    snapshots.on(new TripSearchChanged(List.of(moved), List.of(loaded)));
+
+    TripDaySnapshot after = snapshots.get(D1);
+    assertArrayEquals(new long[]{99L}, after.ids);
+    assertArrayEquals(new long[]{loaded}, before.ids);
+    verifyLoads(D1, 1);
+  }
+
+  /** departing() parks until released, after signalling that a load has started. */
+  private CountDownLatch[] gateLoads() {
+    CountDownLatch started = new CountDownLatch(1), release = new CountDownLatch(1);
+    doAnswer(inv -> {
+      started.countDown();
+      assertTrue(release.await(5, TimeUnit.SECONDS));
+      OffsetDateTime from = inv.getArgument(0);
+      return List.of(row(from.toLocalDate().toEpochDay(), from.plusHours(8)));
+    }).when(index).departing(any(), any());
+    return new CountDownLatch[]{started, release};
+  }
+
+  @Test
+  void concurrentMissesForADayShareOneLoad() throws Exception {
+    CountDownLatch[] gate = gateLoads();
+    ExecutorService readers = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<TripDaySnapshot>> got = new ArrayList<>();
+      for (int i = 0; i < 8; i++) got.add(readers.submit(() -> snapshots.get(D1)));
+      assertTrue(gate[0].await(5, TimeUnit.SECONDS));
+      Thread.sleep(100); // let the other readers pile up behind the load
+      gate[1].countDown();
+
+      TripDaySnapshot first = got.get(0).get(5, TimeUnit.SECONDS);
+      for (Future<TripDaySnapshot> f : got) assertSame(first, f.get(5, TimeUnit.SECONDS));
+      verifyLoads(D1, 1);
+    } finally {
+      readers.shutdownNow();
+    }
+  }
+
+  @Test
+  void expiredDayIsServedStaleWhileOneRefreshRuns() throws Exception {
+    TripDaySnapshots expiring = new TripDaySnapshots(index, new SimpleMeterRegistry(), 30, 2);
+    TripDaySnapshot old = expiring.get(D1, 0);
+    CountDownLatch[] gate = gateLoads();
+    ExecutorService refresher = Executors.newSingleThreadExecutor();
+    try {
+      Future<TripDaySnapshot> refreshed = refresher.submit(() -> expiring.get(D1, 60_000));
+      assertTrue(gate[0].await(5, TimeUnit.SECONDS));
+
+      assertSame(old, expiring.get(D1, 60_000)); // no second scan, no waiting
+      gate[1].countDown();
+
+      TripDaySnapshot fresh = refreshed.get(5, TimeUnit.SECONDS);
+      assertNotSame(old, fresh);
+      assertSame(fresh, expiring.get(D1, 60_001));
+      verifyLoads(D1, 2);
+    } finally {
+      refresher.shutdownNow();
+    }
+  }
+
+  @Test
+  void failedLoadIsNotCached() {
+    doThrow(new IllegalStateException("db down")).doReturn(List.of()).when(index).departing(any(), any());
+
+    assertThrows(IllegalStateException.class, () -> snapshots.get(D1));
+    assertEquals(0, snapshots.get(D1).size());
+    verifyLoads(D1, 2);
+  }
+}
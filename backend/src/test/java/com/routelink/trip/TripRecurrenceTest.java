@@ -0,0 +1,58 @@
+package com.routelink.trip;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Set;
+
+import static java.time.DayOfWeek.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class TripRecurrenceTest {
+
+  private static final ZoneId NEW_YORK = ZoneId.of("America/New_York");
+
+  @Test
+  void weekdaysInRangeMinusExceptions() {
+    // Mon 2030-09-02 .. Sun 2030-09-15, Labor Day off
+    TripRecurrence r = new TripRecurrence(LocalDate.of(2030, 9, 2), LocalDate.of(2030, 9, 15),
+        Set.of(MONDAY, TUESDAY, WEDNESDAY, THURSDAY, FRIDAY), LocalTime.of(7, 30), NEW_YORK,
+        Set.of(LocalDate.of(2030, 9, 2)));
+
+    List<OffsetDateTime> out = r.occurrences();
+
+    assertEquals(9, out.size());
+    assertEquals(LocalDate.of(2030, 9, 3), out.get(0).toLocalDate());
+    assertEquals(LocalDate.of(2030, 9, 13), out.get(8).toLocalDate());
+    assertTrue(out.stream().noneMatch(t -> t.getDayOfWeek() == SATURDAY || t.getDayOfWeek() == SUNDAY));
+  }
+
+  @Test
+  void keepsLocalDepartureTimeAcrossDst() {
+    // DST ends 2030-11-03 in New York
+    TripRecurrence r = new TripRecurrence(LocalDate.of(2030, 11, 1), LocalDate.of(2030, 11, 4),
+        Set.of(FRIDAY, MONDAY), LocalTime.of(7, 30), NEW_YORK, null);
+
+    List<OffsetDateTime> out = r.occurrences();
+
+    assertEquals(2, out.size());
+    assertEquals(LocalTime.of(7, 30), out.get(0).atZoneSameInstant(NEW_YORK).toLocalTime());
+    assertEquals(LocalTime.of(7, 30), out.get(1).atZoneSameInstant(NEW_YORK).toLocalTime());
+    assertNotEquals(out.get(0).getOffset(), out.get(1).getOffset());
+  }
+
+  @Test
+  void rejectsBadRanges() {
+    Set<DayOfWeek> mon = Set.of(MONDAY);
+    LocalTime t = LocalTime.NOON;
+    LocalDate d = LocalDate.of(2030, 1, 1);
+    assertThrows(IllegalArgumentException.class, () -> new TripRecurrence(d, d.minusDays(1), mon, t, null, null));
+    assertThrows(IllegalArgumentException.class, () -> new TripRecurrence(d, d.plusDays(TripRecurrence.MAX_DAYS), mon, t, null, null));
+    assertThrows(IllegalArgumentException.class, () -> new TripRecurrence(d, d, Set.of(), t, null, null));
+  }
+}
@@ -0,0 +1,97 @@
+package com.routelink.trip;
+
+import com.routelink.PgRows;
+import com.routelink.PostgresTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Plans the generated search SQL on a real Postgres, migrated by Flyway, and checks it hits
+ * idx_trips_open_ride_at (V5; on a partition it carries the derived name *_ride_at_seats_left_idx),
+ * also under a generic plan.
+ */
+@DataJpaTest
+@PostgresTest
+@TestPropertySource(properties =
+    "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.routelink.trip.SqlCapture")
+class TripSearchExplainTest {
+
+  private static final OffsetDateTime DAY = OffsetDateTime.of(2030, 3, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+  private static final List<TripStatus> OPEN = List.of(TripStatus.OPEN);
+
+  @Autowired TripRepository trips;
+  @Autowired JdbcTemplate jdbc;
+
+  @BeforeEach
+  void seed() {
+    long driver = new PgRows(jdbc).user("DRIVER");
+    // ~140 days of trips, one a minute; one in ten is still open
+    jdbc.update("""
+        insert into trips (driver_id, start_place, start_lat, start_lng, end_place, end_lat, end_lng,
+                           ride_at, price_per_seat, seats_total, seats_left, status, active)
+        select ?, 'A', 0, 0, 'B', 0, 0,
+               timestamptz '2030-01-01 00:00:00+00' + g * interval '1 minute',
+               10 + g % 40, 4, g % 5,
+               case when g % 10 = 0 then 'OPEN' else 'CLOSED' end, g % 10 = 0
+          from generate_series(1, 200000) g
+        """, driver);
+    jdbc.execute("analyze trips");
+    SqlCapture.SQL.clear();
+  }
+
+  /** EXPLAINs the last captured statement as a prepared statement forced onto a generic plan. */
+  private String genericPlan(Object... args) {
+    String sql = SqlCapture.last();
+    StringBuilder numbered = new StringBuilder();
+    int n = 0;
+    for (char c : sql.toCharArray()) {
+      if (c == '?') numbered.append('$').append(++n); else numbered.append(c);
+    }
+    assertEquals(args.length, n, sql);
+    jdbc.execute("set local plan_cache_mode = force_generic_plan");
+    jdbc.execute("prepare trip_search as " + numbered);
+    try {
+      StringBuilder values = new StringBuilder();
+      for (Object a : args) values.append(values.isEmpty() ? "" : ", ").append('\'').append(a).append('\'');
+      return String.join("\n", jdbc.queryForList("explain execute trip_search(" + values + ")", String.class));
+    } finally {
+      jdbc.execute("deallocate trip_search");
+    }
+  }
+
+  private static boolean usesOpenSearchIndex(String plan) {
+    return plan.contains("idx_trips_open_ride_at") || plan.contains("_ride_at_seats_left_idx");
+  }
+
+  @Test
+  void listSearchUsesPartialIndex() {
+    trips.searchActiveOpenList(DAY, DAY.plusDays(1), OPEN, 2, null, null);
+
+    String plan = genericPlan(DAY, DAY.plusDays(1), 2);
+    assertTrue(usesOpenSearchIndex(plan), plan);
+  }
+
+  @Test
+  void pagedSearchWithPriceBoundUsesPartialIndex() {
+    trips.searchActiveOpenPaged(DAY, DAY.plusDays(1), OPEN, 1, new BigDecimal("20"), null,
+        PageRequest.of(0, 20, Sort.by("rideAt")));
+
+    // the page query is the first statement; the count query (if any) comes after it
+    SqlCapture.SQL.retainAll(List.of(SqlCapture.SQL.get(0)));
+    String plan = genericPlan(DAY, DAY.plusDays(1), 1, new BigDecimal("20"), 20);
+    assertTrue(usesOpenSearchIndex(plan), plan);
+  }
+}
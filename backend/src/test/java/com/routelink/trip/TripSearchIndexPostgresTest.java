@@ -0,0 +1,116 @@
+package com.routelink.trip;
+
+import com.routelink.PgRows;
+import com.routelink.PostgresTest;
+import com.routelink.rating.ReputationService;
+import com.routelink.security.CurrentUser;
+import com.routelink.user.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+/**
+ * trip_search follows trip changes at commit, not before and not on rollback, and cached day
+ * snapshots follow the change announced after it.
+ */
+@DataJpaTest
+@Import({TripService.class, TripSearchIndex.class, ReputationService.class})
+@PostgresTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // the index writes before commit
+@RecordApplicationEvents
+class TripSearchIndexPostgresTest {
+
+  private static final OffsetDateTime DAY = OffsetDateTime.of(2031, 4, 2, 0, 0, 0, 0, ZoneOffset.UTC);
+
+  @Autowired TripService tripService;
+  @Autowired TripSearchIndex index;
+  @Autowired JdbcTemplate jdbc;
+  @Autowired EntityManager em;
+  @Autowired PlatformTransactionManager txManager;
+  @Autowired ApplicationEvents events;
+  @MockitoBean CurrentUser currentUser;
+
+  private TransactionTemplate tx;
+  private Long driverId;
+
+  @BeforeEach
+  void driver() {
+    tx = new TransactionTemplate(txManager);
+    driverId = new PgRows(jdbc).user("DRIVER");
+    when(currentUser.id()).thenReturn(driverId);
+    when(currentUser.reference()).thenAnswer(inv -> em.getReference(User.class, driverId));
+  }
+
+  @Test
+  void rowAppearsAtCommitAndLeavesWhenClosed() {
+    Trip t = tx.execute(s -> {
+      Trip created = tripService.create(bostonToProvidence(DAY.plusHours(8)));
+      assertEquals(0, rows(created.getId()), "written before commit");
+      return created;
+    });
+    assertEquals(1, rows(t.getId()));
+    assertEquals(1250, jdbc.queryForObject("select price_cents from trip_search where trip_id = ?", Integer.class, t.getId()));
+
+    tx.executeWithoutResult(s -> tripService.close(t.getId())); // TripStateChanged
+    assertEquals(0, rows(t.getId()));
+  }
+
+  @Test
+  void rolledBackCreateLeavesNoRow() {
+    Long[] id = new Long[1];
+    tx.executeWithoutResult(s -> {
+      id[0] = tripService.create(bostonToProvidence(DAY.plusHours(9))).getId();
+      s.setRollbackOnly();
+    });
+    assertEquals(0, rows(id[0]));
+  }
+
+  @Test
+  void daySnapshotFollowsCommittedChanges() {
+    TripDaySnapshots snapshots = new TripDaySnapshots(index, new SimpleMeterRegistry(), 3600, 14);
+    Trip t = tx.execute(s -> tripService.create(bostonToProvidence(DAY.plusHours(10))));
+    TripDaySnapshot before = snapshots.get(DAY.toLocalDate());
+    assertTrue(before.contains(t.getId()));
+    assertEquals(1250, before.priceCents[indexOf(before, t.getId())]);
+
+    events.clear();
+    tx.executeWithoutResult(s -> tripService.close(t.getId()));
+    events.stream(TripSearchChanged.class).forEach(snapshots::on);
+
+    assertFalse(snapshots.get(DAY.toLocalDate()).contains(t.getId()));
+    assertTrue(before.contains(t.getId()), "snapshots are never modified in place");
+  }
+
+  private static int indexOf(TripDaySnapshot s, long tripId) {
+    for (int i = 0; i < s.size(); i++) if (s.ids[i] == tripId) return i;
+    return -1;
+  }
+
+  private int rows(Long tripId) {
+    return jdbc.queryForObject("select count(*) from trip_search where trip_id = ?", Integer.class, tripId);
+  }
+
+  private static TripService.CreateTrip bostonToProvidence(OffsetDateTime at) {
+    return new TripService.CreateTrip("Boston", 42.36, -71.06, "Providence", 41.82, -71.41,
+        null, at, new BigDecimal("12.50"), 3);
+  }
+}
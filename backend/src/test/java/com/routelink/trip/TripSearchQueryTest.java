@@ -0,0 +1,133 @@
+package com.routelink.trip;
+
+import com.routelink.user.Role;
+import com.routelink.user.User;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** The dynamic search emits only the predicates that were supplied, with active/status as literals. */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("h2test")
+@TestPropertySource(properties = {
+    "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.routelink.trip.SqlCapture"
+})
+class TripSearchQueryTest {
+
+  private static final OffsetDateTime DAY = OffsetDateTime.of(2030, 5, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+  private static final List<TripStatus> OPEN = List.of(TripStatus.OPEN);
+
+  @Autowired TripRepository trips;
+  @Autowired EntityManager em;
+
+  @BeforeEach
+  void seed() {
+    User driver = new User();
+    driver.setName("driver");
+    driver.setEmail("driver@example.com");
+    driver.setPhone("5551234567");
+    driver.setPasswordHash("x");
+    driver.setRole(Role.DRIVER);
+    em.persist(driver);
+
+    trip(driver, 9, "10.00", 3, TripStatus.OPEN, true);
+    trip(driver, 11, "25.00", 1, TripStatus.OPEN, true);
+    trip(driver, 12, "15.00", 2, TripStatus.CLOSED, false);
+    trip(driver, 13, "20.00", 0, TripStatus.FULL, true);
+    em.flush();
+    em.clear();
+    SqlCapture.SQL.clear();
+  }
+
+  private void trip(User driver, int hour, String price, int seats, TripStatus status, boolean active) {
+    Trip t = new Trip();
+    t.setDriver(driver);
+    t.setStartPlace("A");
+    t.setEndPlace("B");
+    t.setRideAt(DAY.plusHours(hour));
+    t.setPricePerSeat(new BigDecimal(price));
+    t.setSeatsTotal(4);
+    t.setSeatsLeft(seats);
+    t.setStatus(status);
+    t.setActive(active);
+    em.persist(t);
+  }
+
+  private static String where(String sql) {
+    String s = sql.toLowerCase();
+    return s.substring(s.indexOf(" where "));
+  }
+
+  @Test
+  void omitsPriceFiltersThatWereNotSupplied() {
+    var found = trips.searchActiveOpenList(DAY, DAY.plusDays(1), OPEN, 1, null, null);
+
+    assertEquals(2, found.size());
+    String sql = where(SqlCapture.last());
+    assertFalse(sql.contains("is null"), sql);
+    assertFalse(sql.contains("price_per_seat"), sql);
+    assertTrue(sql.contains("status='open'"), sql);
+    assertTrue(sql.contains("active"), sql);
+  }
+
+  @Test
+  void missingStatusesMeanOpenOnlyNotAnyStatus() {
+    // the active FULL trip is what an unfiltered search would wrongly return
+    assertEquals(3, trips.searchActiveOpenList(DAY, DAY.plusDays(1), List.of(TripStatus.values()), 0, null, null).size());
+    trips.searchActiveOpenList(DAY, DAY.plusDays(1), OPEN, 0, null, null);
+    String explicit = where(SqlCapture.last());
+
+    for (List<TripStatus> none : Arrays.asList(null, List.<TripStatus>of())) {
+      var found = trips.searchActiveOpenList(DAY, DAY.plusDays(1), none, 0, null, null);
+
+      assertEquals(2, found.size());
+      assertTrue(found.stream().allMatch(t -> t.getStatus() == TripStatus.OPEN));
+      assertEquals(explicit, where(SqlCapture.last()), "same statement as an explicit OPEN");
+    }
+  }
+
+  @Test
+  void appendsOnlySuppliedBounds() {
+    var found = trips.searchActiveOpenList(DAY, DAY.plusDays(1), OPEN, 2, new BigDecimal("5"), null);
+
+    assertEquals(1, found.size());
+    assertEquals(new BigDecimal("10.00"), found.get(0).getPricePerSeat());
+    String sql = where(SqlCapture.last());
+    assertTrue(sql.contains("price_per_seat>=?"), sql);
+    assertFalse(sql.contains("price_per_seat<=?"), sql);
+  }
+
+  @Test
+  void pagedSearchSortsAndCounts() {
+    var page = trips.searchActiveOpenPaged(DAY, DAY.plusDays(1), OPEN, 1, null, new BigDecimal("30"),
+        PageRequest.of(0, 1, Sort.by("pricePerSeat").descending()));
+
+    assertEquals(2, page.getTotalElements());
+    assertEquals(new BigDecimal("25.00"), page.getContent().get(0).getPricePerSeat());
+  }
+
+  @Test
+  void ignoresUnknownSortProperties() {
+    var page = trips.searchActiveOpenPaged(DAY, DAY.plusDays(1), OPEN, 1, null, null,
+        PageRequest.of(0, 10, Sort.by("driver.passwordHash")));
+
+    assertEquals(2, page.getContent().size());
+    assertFalse(SqlCapture.SQL.get(0).toLowerCase().contains("order by"));
+  }
+}
@@ -0,0 +1,62 @@
+package com.routelink.trip;
+
+import com.routelink.geo.Geo;
+import com.routelink.geo.Polyline;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TripSearchRowTest {
+
+  @Test
+  void routeSurvivesPacking() {
+    List<double[]> path = List.of(new double[]{42.36012, -71.05891}, new double[]{41.82399, -71.41283});
+
+    byte[] packed = TripSearchRow.packRoute(path);
+    List<double[]> back = TripSearchRow.unpackRoute(packed);
+
+    assertEquals(16, packed.length);
+    assertEquals(2, back.size());
+    for (int i = 0; i < path.size(); i++) {
+      assertTrue(Geo.haversineKm(path.get(i)[0], path.get(i)[1], back.get(i)[0], back.get(i)[1]) < 0.002);
+    }
+    assertNull(TripSearchRow.packRoute(List.of()));
+    assertTrue(TripSearchRow.unpackRoute(null).isEmpty());
+  }
+
+  @Test
+  void simplifiedRouteStaysWithinTolerance() {
+    // a gently wiggling line Boston -> Providence, one point every ~100 m
+    List<double[]> path = new ArrayList<>();
+    for (int i = 0; i <= 600; i++) {
+      double f = i / 600.0;
+      path.add(new double[]{42.36 - 0.54 * f + 0.0003 * Math.sin(i), -71.06 - 0.35 * f});
+    }
+
+    List<double[]> simple = Polyline.simplify(path, 0.1);
+
+    assertTrue(simple.size() < 20, "kept " + simple.size());
+    assertSame(path.get(0), simple.get(0));
+    assertSame(path.get(600), simple.get(simple.size() - 1));
+    for (double[] p : path) assertTrue(Geo.distancePointToPathKm(p[0], p[1], simple) <= 0.1 + 1e-9);
+  }
+
+  @Test
+  void driverScoreMatchesReputationSmoothing() {
+    TripSearchRow unrated = new TripSearchRow(1, 2, null, 0, 0, 0, 0, List.of(), 0, 1, 0, 0);
+    TripSearchRow rated = new TripSearchRow(1, 2, null, 0, 0, 0, 0, List.of(), 0, 1, 5.0, 5);
+
+    assertEquals(0.8, unrated.driverScore(4.0, 5), 1e-9);
+    assertEquals(0.9, rated.driverScore(4.0, 5), 1e-9);
+  }
+
+  @Test
+  void priceCentsRoundsAndClampsLegacyPrices() {
+    assertEquals(1251, TripSearchIndex.priceCents(new BigDecimal("12.505")));
+    assertEquals(Integer.MAX_VALUE, TripSearchIndex.priceCents(new BigDecimal("99999999.99")));
+  }
+}
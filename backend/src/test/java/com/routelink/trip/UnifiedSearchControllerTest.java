@@ -0,0 +1,108 @@
+package com.routelink.trip;
+
+import com.routelink.rating.ReputationService;
+import com.routelink.trip.dto.TripSearchDto;
+import com.routelink.trip.dto.UnifiedSearchRequest;
+import com.routelink.trip.dto.UnifiedSearchResult;
+import com.routelink.user.User;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/** Hydration after matching is bounded by the same client deadline. */
+class UnifiedSearchControllerTest {
+
+  private static final UnifiedSearchRequest Q = new UnifiedSearchRequest(
+      "A", "B", 42.36, -71.06, 41.82, -71.41, 1, LocalDate.of(2025, 10, 1));
+  private static final List<UnifiedSearchResult> HITS = List.of(new UnifiedSearchResult(1L, 0.9, "BOTH"));
+
+  private final UnifiedSearchService service = mock(UnifiedSearchService.class);
+  private final TripRepository trips = mock(TripRepository.class);
+  private final ReputationService reputations = mock(ReputationService.class);
+  private final PlatformTransactionManager tx = mock(PlatformTransactionManager.class);
+  private final UnifiedSearchController controller =
+      new UnifiedSearchController(service, trips, reputations, tx, 0, 10_000, 150);
+
+  UnifiedSearchControllerTest() {
+    when(tx.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+    when(service.search(any(), any(), any())).thenReturn(new UnifiedSearchService.Outcome(HITS, false));
+    when(reputations.forUsers(any())).thenReturn(Map.of());
+  }
+
+  private static Trip trip(long id) {
+    User driver = new User();
+    ReflectionTestUtils.setField(driver, "id", 7L);
+    Trip t = new Trip();
+    ReflectionTestUtils.setField(t, "id", id);
+    t.setDriver(driver);
+    return t;
+  }
+
+  @Test
+  void withoutDeadlineHydratesOutsideAnyTimedTransaction() {
+    when(trips.findAllByIdFetchDriver(any())).thenReturn(List.of(trip(1L)));
+
+    ResponseEntity<List<TripSearchDto>> res = controller.search(Q, null, null);
+
+    assertEquals(1, res.getBody().size());
+    assertNull(res.getHeaders().getFirst(UnifiedSearchController.PARTIAL_HEADER));
+    verifyNoInteractions(tx);
+  }
+
+  @Test
+  void boundedHydrationRunsReadOnlyWithTheRemainingBudgetAsTimeout() {
+    when(trips.findAllByIdFetchDriver(any())).thenReturn(List.of(trip(1L)));
+
+    ResponseEntity<List<TripSearchDto>> res = controller.search(Q, 2500L, null);
+
+    assertEquals(1, res.getBody().size());
+    ArgumentCaptor<TransactionDefinition> def = ArgumentCaptor.forClass(TransactionDefinition.class);
+    verify(tx).getTransaction(def.capture());
+    assertTrue(def.getValue().isReadOnly());
+    assertTrue(def.getValue().getTimeout() >= 1 && def.getValue().getTimeout() <= 3, "timeout " + def.getValue().getTimeout());
+  }
+
+  @Test
+  void slowHydrationCancelledAtTheDeadlineReturnsPartialInsteadOf500() {
+    // what the driver reports when the transaction's query timeout cancels the statement
+    when(trips.findAllByIdFetchDriver(any())).thenAnswer(inv -> {
+      Thread.sleep(300);
+      throw new QueryTimeoutException("canceling statement due to statement timeout");
+    });
+
+    ResponseEntity<List<TripSearchDto>> res = controller.search(Q, 250L, null);
+
+    assertEquals(200, res.getStatusCode().value());
+    assertTrue(res.getBody().isEmpty());
+    assertEquals("true", res.getHeaders().getFirst(UnifiedSearchController.PARTIAL_HEADER));
+    verifyNoInteractions(reputations);
+    verify(tx).rollback(any());
+  }
+
+  @Test
+  void matchingThatUsedTheWholeBudgetSkipsHydration() {
+    when(service.search(any(), any(), any())).thenAnswer(inv -> {
+      Thread.sleep(250); // slow source: overran even the hydration reserve
+      return new UnifiedSearchService.Outcome(HITS, true);
+    });
+
+    ResponseEntity<List<TripSearchDto>> res = controller.search(Q, 200L, null);
+
+    assertTrue(res.getBody().isEmpty());
+    assertEquals("true", res.getHeaders().getFirst(UnifiedSearchController.PARTIAL_HEADER));
+    verifyNoInteractions(trips, reputations, tx);
+  }
+}
@@ -0,0 +1,77 @@
+package com.routelink.trip;
+
+import com.routelink.common.Deadline;
+import com.routelink.trip.dto.UnifiedSearchRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class UnifiedSearchServiceTest {
+
+  private static final UnifiedSearchRequest Q = new UnifiedSearchRequest(
+      "A", "B", 42.36, -71.06, 41.82, -71.41, 1, LocalDate.of(2025, 10, 1));
+
+  private final TripDaySnapshots snapshots = mock(TripDaySnapshots.class);
+  private final PlatformTransactionManager tx = mock(PlatformTransactionManager.class);
+  private final UnifiedSearchService service;
+
+  UnifiedSearchServiceTest() {
+    NearSearchService near = new NearSearchService();
+    ReflectionTestUtils.setField(near, "RADIUS_KM", 5.0);
+    AlongRouteSearchService along = new AlongRouteSearchService();
+    ReflectionTestUtils.setField(along, "NEAR_RADIUS_KM", 25.0);
+    ReflectionTestUtils.setField(along, "MAX_DETOUR_KM", 40.0);
+    service = new UnifiedSearchService(snapshots, near, along, tx, 0);
+
+    when(snapshots.get(any())).thenReturn(TripDaySnapshot.EMPTY);
+    when(snapshots.get(LocalDate.of(2025, 10, 1))).thenReturn(TripDaySnapshot.of(List.of(
+        trip(1L, 9, 3, 42.36, -71.06, 41.82, -71.41),
+        trip(2L, 10, 3, 42.0, -71.2, 41.5, -71.6),
+        trip(3L, 11, 0, 42.36, -71.06, 41.82, -71.41))));
+  }
+
+  private static TripSearchRow trip(long id, int hour, int seats, double sLat, double sLng, double eLat, double eLng) {
+    OffsetDateTime at = OffsetDateTime.of(2025, 10, 1, hour, 0, 0, 0, ZoneOffset.UTC);
+    return new TripSearchRow(id, 7L, at, sLat, sLng, eLat, eLng, List.of(), 1000, seats, 0, 0);
+  }
+
+  @Test
+  void withoutDeadlineRunsToCompletion() {
+    var outcome = service.search(Q, ZoneOffset.UTC, Deadline.none());
+    assertFalse(outcome.partial());
+    assertEquals(1L, outcome.results().get(0).tripId());
+    assertEquals("BOTH", outcome.results().get(0).matchedBy());
+    assertTrue(outcome.results().stream().noneMatch(r -> r.tripId() == 3L), "full trip is skipped");
+    verify(snapshots, times(1)).get(LocalDate.of(2025, 10, 1));
+    verifyNoMoreInteractions(snapshots);
+  }
+
+  @Test
+  void localDateSpanningTwoUtcDaysScansBothWithinTheDate() {
+    // 2025-10-01 in UTC-4 is 04:00Z on the 1st to 04:00Z on the 2nd: trips at 09-11Z are inside
+    var outcome = service.search(Q, ZoneOffset.ofHours(-4), Deadline.none());
+    assertEquals(1L, outcome.results().get(0).tripId());
+    verify(snapshots).get(LocalDate.of(2025, 10, 1));
+    verify(snapshots).get(LocalDate.of(2025, 10, 2));
+
+    // in UTC-12 the date starts at 12:00Z, after all of them
+    assertTrue(service.search(Q, ZoneOffset.ofHours(-12), Deadline.none()).results().isEmpty());
+  }
+
+  @Test
+  void expiredDeadlineSkipsWorkAndMarksPartial() {
+    var outcome = service.search(Q, ZoneOffset.UTC, Deadline.in(1).minus(10));
+    assertTrue(outcome.partial());
+    assertTrue(outcome.results().isEmpty());
+    verifyNoInteractions(snapshots);
+  }
+}
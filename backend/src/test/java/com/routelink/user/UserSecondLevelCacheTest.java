@@ -0,0 +1,111 @@
+package com.routelink.user;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Warm user lookups (by id, by email, role) must not reach the database; writes must invalidate. */
+@DataJpaTest
+@Import(UserCache.class)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // every step commits, like real requests
+@ActiveProfiles("h2test")
+class UserSecondLevelCacheTest {
+
+  @Autowired UserRepository users;
+  @Autowired UserCache userCache;
+  @Autowired EntityManagerFactory emf;
+  @Autowired PlatformTransactionManager txManager;
+
+  private TransactionTemplate tx;
+  private Statistics stats;
+  private Long userId;
+  private String email;
+
+  @BeforeEach
+  void seed() {
+    tx = new TransactionTemplate(txManager);
+    stats = emf.unwrap(SessionFactory.class).getStatistics();
+    email = "rider-" + UUID.randomUUID() + "@example.com";
+    userId = tx.execute(s -> {
+      User u = new User();
+      u.setName("Rider");
+      u.setEmail(email);
+      u.setPasswordHash("x");
+      u.setRole(Role.RIDER);
+      return users.save(u).getId();
+    });
+    emf.getCache().evictAll();
+  }
+
+  @Test
+  void findByIdIsServedFromCacheOnceWarm() {
+    tx.execute(s -> users.findById(userId)); // miss, loads and caches
+    long sql = statements();
+
+    User u = tx.execute(s -> users.findById(userId).orElseThrow());
+
+    assertEquals(email, u.getEmail());
+    assertEquals(sql, statements(), "warm findById ran SQL");
+    assertTrue(emf.getCache().contains(User.class, userId));
+  }
+
+  @Test
+  void findByEmailUsesTheNaturalIdCache() {
+    tx.execute(s -> users.findByEmail(email));
+    long sql = statements();
+    long naturalIdHits = stats.getNaturalIdCacheHitCount();
+
+    User u = tx.execute(s -> users.findByEmail(email).orElseThrow());
+
+    assertEquals(userId, u.getId());
+    assertEquals(sql, statements(), "warm findByEmail ran SQL");
+    assertTrue(stats.getNaturalIdCacheHitCount() > naturalIdHits);
+    assertTrue(tx.execute(s -> users.findByEmail("nobody@example.com")).isEmpty());
+  }
+
+  @Test
+  void roleLookupIsQueryCachedAndInvalidatedByUserWrites() {
+    tx.execute(s -> users.findRoleById(userId));
+    long sql = statements();
+    assertEquals(Role.RIDER, tx.execute(s -> users.findRoleById(userId)).orElseThrow());
+    assertEquals(sql, statements(), "warm findRoleById ran SQL");
+
+    tx.executeWithoutResult(s -> users.findById(userId).orElseThrow().setRole(Role.DRIVER));
+
+    assertEquals(Role.DRIVER, tx.execute(s -> users.findRoleById(userId)).orElseThrow());
+    assertEquals(Role.DRIVER, tx.execute(s -> users.findById(userId)).orElseThrow().getRole());
+  }
+
+  @Test
+  void evictAfterCommitWaitsForTheCommit() {
+    tx.execute(s -> users.findById(userId));
+    assertTrue(emf.getCache().contains(User.class, userId));
+
+    tx.executeWithoutResult(s -> {
+      userCache.evictAfterCommit(userId);
+      assertTrue(emf.getCache().contains(User.class, userId), "evicted before commit");
+    });
+
+    assertFalse(emf.getCache().contains(User.class, userId));
+  }
+
+  private long statements() {
+    return stats.getPrepareStatementCount();
+  }
+}
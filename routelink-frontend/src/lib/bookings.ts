@@ -31,3 +31,61 @@ export async function confirmBooking(id: number) {
 export async function declineBooking(id: number) {
   return await api.post<BookingDto>(`/api/bookings/${id}/decline`);
 }
+
+// Live booking/trip status changes (replaces polling /me and /trip/{id}).
+// Reconnects resume from the last event id; on "resync" refetch once.
+export type BookingStreamEvent = {
+  id: number;
+  type: "booking" | "trip";
+  bookingId: number | null;
+  tripId: number;
+  status: string;
+  seats: number | null;
+  tripStatus: string;
+  tripSeatsLeft: number | null;
+  at: string;
+};
+
+export function subscribeBookingStream(
+  onEvent: (e: BookingStreamEvent) => void,
+  onResync?: () => void
+): () => void {
+  const base = import.meta.env.VITE_API_BASE?.replace(/\/$/, "") || "http://localhost:8080";
+  let es: EventSource | null = null;
+  let lastId: string | null = null;
+  let retry: ReturnType<typeof setTimeout> | null = null;
+  let closed = false;
+
+  const handle = (m: MessageEvent) => {
+    if (m.lastEventId) lastId = m.lastEventId;
+    onEvent(JSON.parse(m.data) as BookingStreamEvent);
+  };
+
+  // A ticket opens the stream once, so reconnects fetch a new one and pass the last id themselves.
+  const connect = async () => {
+    try {
+      const { ticket } = await api.post<{ ticket: string; expiresInSec: number }>("/api/bookings/stream/ticket");
+      if (closed) return;
+      const q = new URLSearchParams({ ticket });
+      if (lastId) q.set("lastEventId", lastId);
+      es = new EventSource(`${base}/api/bookings/stream?${q}`);
+      es.addEventListener("booking", handle);
+      es.addEventListener("trip", handle);
+      if (onResync) es.addEventListener("resync", () => onResync());
+      es.onerror = () => {
+        es?.close();
+        es = null;
+        if (!closed) retry = setTimeout(connect, 3000);
+      };
+    } catch {
+      if (!closed) retry = setTimeout(connect, 3000);
+    }
+  };
+  connect();
+
+  return () => {
+    closed = true;
+    if (retry) clearTimeout(retry);
+    es?.close();
+  };
+}
@@ -42,6 +42,14 @@ export interface TripDto {
   status: TripStatus;
   active: boolean;
   polyline?: string | null;
+  driverRating?: Reputation | null;        // filled by the search endpoints
+}
+
+export interface Reputation {
+  userId: number;
+  avg: number;
+  count: number;
+  histogram: number[];                     // [1★, 2★, 3★, 4★, 5★]
 }
 
 export type BookingStatus =